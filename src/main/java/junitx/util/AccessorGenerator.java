@@ -0,0 +1,510 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package junitx.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Generates field accessor classes, which are defined as hidden classes being nestmates of the
+ * class declaring the field, so that the private field is read and written directly by a
+ * <code>getfield</code> and <code>putfield</code> instruction without any reflection or boxing.
+ *
+ * The generated class implements an accessor interface having a getter method
+ * <code>(Object)V</code> and a setter method <code>(Object,V)void</code>, where the value type
+ * <code>V</code> is either the field type, a primitive type or <code>Object</code>, in which case
+ * primitive values are boxed. The setter of a final field throws an
+ * {@link UnsupportedOperationException}.
+ *
+ * A hidden class can not be defined if the class loader of the declaring class does not see the
+ * accessor interface or if the package of the declaring class is not opened to this module. In
+ * those cases a proxy invoking method handles of the field is used instead, which requires the
+ * field to be accessible by reflection. The accessors are cached per field and accessor interface.
+ *
+ * @author Patrick Reinhart
+ */
+final class AccessorGenerator {
+  private static final int CLASS_VERSION = 55; // Java 11, no stack map frames needed
+  private static final int ACC_PUBLIC = 0x0001;
+  private static final int ACC_FINAL = 0x0010;
+  private static final int ACC_SUPER = 0x0020;
+
+  private static final int ALOAD_0 = 0x2A;
+  private static final int ALOAD_1 = 0x2B;
+  private static final int ALOAD_2 = 0x2C;
+  private static final int ILOAD_2 = 0x1C;
+  private static final int LLOAD_2 = 0x20;
+  private static final int FLOAD_2 = 0x24;
+  private static final int DLOAD_2 = 0x28;
+  private static final int IRETURN = 0xAC;
+  private static final int LRETURN = 0xAD;
+  private static final int FRETURN = 0xAE;
+  private static final int DRETURN = 0xAF;
+  private static final int ARETURN = 0xB0;
+  private static final int RETURN = 0xB1;
+  private static final int GETSTATIC = 0xB2;
+  private static final int PUTSTATIC = 0xB3;
+  private static final int GETFIELD = 0xB4;
+  private static final int PUTFIELD = 0xB5;
+  private static final int INVOKEVIRTUAL = 0xB6;
+  private static final int INVOKESPECIAL = 0xB7;
+  private static final int INVOKESTATIC = 0xB8;
+  private static final int NEW = 0xBB;
+  private static final int DUP = 0x59;
+  private static final int LDC_W = 0x13;
+  private static final int ATHROW = 0xBF;
+  private static final int CHECKCAST = 0xC0;
+
+  private static final ClassValue<ConcurrentMap<List<Object>, Object>> ACCESSORS =
+      new ClassValue<ConcurrentMap<List<Object>, Object>>() {
+        @Override
+        protected ConcurrentMap<List<Object>, Object> computeValue(Class<?> type) {
+          return new ConcurrentHashMap<>();
+        }
+      };
+
+  private final Field field;
+  private final Class<?> interfaceType;
+  private final Class<?> valueType;
+  private final ConstantPool pool;
+
+  private AccessorGenerator(Field field, Class<?> interfaceType, Class<?> valueType) {
+    this.field = field;
+    this.interfaceType = interfaceType;
+    this.valueType = valueType;
+    this.pool = new ConstantPool();
+  }
+
+  /**
+   * Returns the accessor for the given field and accessor interface, which is created by
+   * defining a new accessor class on first use.
+   *
+   * @param field the field to be accessed
+   * @param interfaceType the accessor interface
+   * @param getterName the name of the getter method of the accessor interface
+   * @param setterName the name of the setter method of the accessor interface
+   * @param valueType the value type of the getter and setter method
+   * @return the accessor instance
+   * @throws IllegalArgumentException if the accessor could not be created
+   */
+  static <A> A fieldAccessor(Field field, Class<A> interfaceType, String getterName,
+      String setterName, Class<?> valueType) {
+    ConcurrentMap<List<Object>, Object> accessors = ACCESSORS.get(field.getDeclaringClass());
+    List<Object> key = Arrays.asList(field, interfaceType);
+    Object accessor = accessors.get(key);
+    if (accessor == null) {
+      accessor = accessors.computeIfAbsent(key,
+          k -> createAccessor(field, interfaceType, getterName, setterName, valueType));
+    }
+    return interfaceType.cast(accessor);
+  }
+
+  private static Object createAccessor(Field field, Class<?> interfaceType, String getterName,
+      String setterName, Class<?> valueType) {
+    Class<?> declaringClass = field.getDeclaringClass();
+    MethodHandles.Lookup accessorLookup;
+    try {
+      MethodHandles.Lookup lookup =
+          MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup());
+      byte[] classFile = new AccessorGenerator(field, interfaceType, valueType)
+          .generate(getterName, setterName);
+      accessorLookup =
+          lookup.defineHiddenClass(classFile, true, MethodHandles.Lookup.ClassOption.NESTMATE);
+    } catch (IllegalAccessException | LinkageError e) {
+      return methodHandleAccessor(field, interfaceType, getterName, setterName);
+    }
+    try {
+      return accessorLookup
+          .findConstructor(accessorLookup.lookupClass(), MethodType.methodType(void.class))
+          .invoke();
+    } catch (Throwable e) {
+      throw new IllegalArgumentException("Unable to create accessor for field "
+          + declaringClass.getName() + "." + field.getName(), e);
+    }
+  }
+
+  /**
+   * Creates a proxy accessor invoking method handles of the given field, used if no accessor
+   * class can be defined.
+   *
+   * @param field the field to be accessed
+   * @param interfaceType the accessor interface
+   * @param getterName the name of the getter method of the accessor interface
+   * @param setterName the name of the setter method of the accessor interface
+   * @return the accessor instance
+   * @throws IllegalArgumentException if the field is not accessible
+   */
+  static <A> A methodHandleAccessor(Field field, Class<A> interfaceType, String getterName,
+      String setterName) {
+    try {
+      field.setAccessible(true);
+      InvocationHandler handler = new MethodHandleAccessor(field, getterName, setterName);
+      return interfaceType.cast(Proxy.newProxyInstance(interfaceType.getClassLoader(),
+          new Class<?>[] {interfaceType}, handler));
+    } catch (RuntimeException | IllegalAccessException e) {
+      throw new IllegalArgumentException("Unable to create accessor for field "
+          + field.getDeclaringClass().getName() + "." + field.getName(), e);
+    }
+  }
+
+  private byte[] generate(String getterName, String setterName) {
+    Class<?> declaringClass = field.getDeclaringClass();
+    String className = internalName(declaringClass) + "$$FieldAccessor";
+    int thisClass = pool.classInfo(className);
+    int superClass = pool.classInfo("java/lang/Object");
+    int interfaceClass = pool.classInfo(internalName(interfaceType));
+    byte[] constructor = constructor();
+    byte[] getter = getter();
+    byte[] setter = Modifier.isFinal(field.getModifiers()) ? finalSetter() : setter();
+    String value = descriptor(valueType);
+    int getterNameIndex = pool.utf8(getterName);
+    int getterDescriptor = pool.utf8("(Ljava/lang/Object;)" + value);
+    int setterNameIndex = pool.utf8(setterName);
+    int setterDescriptor = pool.utf8("(Ljava/lang/Object;" + value + ")V");
+    int constructorName = pool.utf8("<init>");
+    int constructorDescriptor = pool.utf8("()V");
+    int code = pool.utf8("Code");
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(0xCAFEBABE);
+      out.writeShort(0);
+      out.writeShort(CLASS_VERSION);
+      pool.write(out);
+      out.writeShort(ACC_FINAL | ACC_SUPER);
+      out.writeShort(thisClass);
+      out.writeShort(superClass);
+      out.writeShort(1);
+      out.writeShort(interfaceClass);
+      out.writeShort(0); // fields
+      out.writeShort(3); // methods
+      writeMethod(out, constructorName, constructorDescriptor, code, constructor);
+      writeMethod(out, getterNameIndex, getterDescriptor, code, getter);
+      writeMethod(out, setterNameIndex, setterDescriptor, code, setter);
+      out.writeShort(0); // attributes
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static void writeMethod(DataOutputStream out, int name, int descriptor, int code,
+      byte[] codeAttribute) throws IOException {
+    out.writeShort(ACC_PUBLIC);
+    out.writeShort(name);
+    out.writeShort(descriptor);
+    out.writeShort(1);
+    out.writeShort(code);
+    out.writeInt(codeAttribute.length);
+    out.write(codeAttribute);
+  }
+
+  private byte[] constructor() {
+    Code code = new Code(1, 1);
+    code.op(ALOAD_0);
+    code.op(INVOKESPECIAL, pool.methodRef("java/lang/Object", "<init>", "()V"));
+    code.op(RETURN);
+    return code.toBytes();
+  }
+
+  private byte[] getter() {
+    Class<?> fieldType = field.getType();
+    Code code = new Code(2, 2);
+    if (Modifier.isStatic(field.getModifiers())) {
+      code.op(GETSTATIC, fieldRef());
+    } else {
+      code.op(ALOAD_1);
+      code.op(CHECKCAST, pool.classInfo(internalName(field.getDeclaringClass())));
+      code.op(GETFIELD, fieldRef());
+    }
+    if (fieldType.isPrimitive() && !valueType.isPrimitive()) {
+      String wrapper = internalName(wrapper(fieldType));
+      code.op(INVOKESTATIC, pool.methodRef(wrapper, "valueOf",
+          "(" + descriptor(fieldType) + ")L" + wrapper + ";"));
+    }
+    code.op(returnOp(valueType));
+    return code.toBytes();
+  }
+
+  private byte[] setter() {
+    Class<?> fieldType = field.getType();
+    int valueSize = size(valueType);
+    Code code = new Code(1 + Math.max(valueSize, size(fieldType)), 2 + valueSize);
+    boolean isStatic = Modifier.isStatic(field.getModifiers());
+    if (!isStatic) {
+      code.op(ALOAD_1);
+      code.op(CHECKCAST, pool.classInfo(internalName(field.getDeclaringClass())));
+    }
+    code.op(loadOp(valueType));
+    if (fieldType.isPrimitive() && !valueType.isPrimitive()) {
+      Class<?> wrapper = wrapper(fieldType);
+      code.op(CHECKCAST, pool.classInfo(internalName(wrapper)));
+      code.op(INVOKEVIRTUAL, pool.methodRef(internalName(wrapper),
+          fieldType.getName() + "Value", "()" + descriptor(fieldType)));
+    } else if (!fieldType.isPrimitive() && fieldType != valueType) {
+      code.op(CHECKCAST, pool.classInfo(internalName(fieldType)));
+    }
+    code.op(isStatic ? PUTSTATIC : PUTFIELD, fieldRef());
+    code.op(RETURN);
+    return code.toBytes();
+  }
+
+  private byte[] finalSetter() {
+    String exception = "java/lang/UnsupportedOperationException";
+    Code code = new Code(3, 2 + size(valueType));
+    code.op(NEW, pool.classInfo(exception));
+    code.op(DUP);
+    code.op(LDC_W, pool.string("Final field " + field.getDeclaringClass().getName() + "."
+        + field.getName() + " can not be set"));
+    code.op(INVOKESPECIAL, pool.methodRef(exception, "<init>", "(Ljava/lang/String;)V"));
+    code.op(ATHROW);
+    return code.toBytes();
+  }
+
+  private int fieldRef() {
+    return pool.fieldRef(internalName(field.getDeclaringClass()), field.getName(),
+        descriptor(field.getType()));
+  }
+
+  private static int loadOp(Class<?> type) {
+    if (!type.isPrimitive()) {
+      return ALOAD_2;
+    }
+    if (type == long.class) {
+      return LLOAD_2;
+    }
+    if (type == float.class) {
+      return FLOAD_2;
+    }
+    return type == double.class ? DLOAD_2 : ILOAD_2;
+  }
+
+  private static int returnOp(Class<?> type) {
+    if (!type.isPrimitive()) {
+      return ARETURN;
+    }
+    if (type == long.class) {
+      return LRETURN;
+    }
+    if (type == float.class) {
+      return FRETURN;
+    }
+    return type == double.class ? DRETURN : IRETURN;
+  }
+
+  private static int size(Class<?> type) {
+    return type == long.class || type == double.class ? 2 : 1;
+  }
+
+  static Class<?> wrapper(Class<?> type) {
+    return MethodType.methodType(type).wrap().returnType();
+  }
+
+  private static String internalName(Class<?> type) {
+    return type.getName().replace('.', '/');
+  }
+
+  private static String descriptor(Class<?> type) {
+    return MethodType.methodType(type).toMethodDescriptorString().substring(2);
+  }
+
+  /**
+   * Invocation handler of a proxy accessor, where the primitive values are boxed by the proxy.
+   */
+  static final class MethodHandleAccessor implements InvocationHandler {
+    private final String name;
+    private final String getterName;
+    private final String setterName;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    MethodHandleAccessor(Field field, String getterName, String setterName)
+        throws IllegalAccessException {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      MethodHandle fieldGetter = lookup.unreflectGetter(field);
+      MethodHandle fieldSetter = null;
+      if (!Modifier.isFinal(field.getModifiers())) {
+        fieldSetter = lookup.unreflectSetter(field);
+      }
+      if (Modifier.isStatic(field.getModifiers())) {
+        fieldGetter = MethodHandles.dropArguments(fieldGetter, 0, Object.class);
+        if (fieldSetter != null) {
+          fieldSetter = MethodHandles.dropArguments(fieldSetter, 0, Object.class);
+        }
+      }
+      this.name = field.getDeclaringClass().getName() + "." + field.getName();
+      this.getterName = getterName;
+      this.setterName = setterName;
+      this.getter = fieldGetter.asType(MethodType.methodType(Object.class, Object.class));
+      this.setter = fieldSetter == null ? null
+          : fieldSetter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      int count = args == null ? 0 : args.length;
+      String methodName = method.getName();
+      if (count == 1 && methodName.equals(getterName)) {
+        return getter.invokeExact(args[0]);
+      }
+      if (count == 2 && methodName.equals(setterName)) {
+        if (setter == null) {
+          throw new UnsupportedOperationException("Final field " + name + " can not be set");
+        }
+        setter.invokeExact(args[0], args[1]);
+        return null;
+      }
+      if (count == 1 && methodName.equals("equals")) {
+        return Boolean.valueOf(proxy == args[0]);
+      }
+      if (count == 0 && methodName.equals("hashCode")) {
+        return Integer.valueOf(System.identityHashCode(proxy));
+      }
+      if (count == 0 && methodName.equals("toString")) {
+        return "FieldAccessor[" + name + "]";
+      }
+      throw new UnsupportedOperationException(method.toString());
+    }
+  }
+
+  /**
+   * The code attribute of a single method without branches and exception handlers.
+   */
+  static final class Code {
+    private final int maxStack;
+    private final int maxLocals;
+    private final ByteArrayOutputStream code;
+
+    Code(int maxStack, int maxLocals) {
+      this.maxStack = maxStack;
+      this.maxLocals = maxLocals;
+      this.code = new ByteArrayOutputStream();
+    }
+
+    void op(int opcode) {
+      code.write(opcode);
+    }
+
+    void op(int opcode, int index) {
+      code.write(opcode);
+      code.write(index >> 8);
+      code.write(index);
+    }
+
+    byte[] toBytes() {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (DataOutputStream out = new DataOutputStream(bytes)) {
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.size());
+        code.writeTo(out);
+        out.writeShort(0); // exception table
+        out.writeShort(0); // attributes
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return bytes.toByteArray();
+    }
+  }
+
+  /**
+   * Constant pool builder reusing equal entries.
+   */
+  static final class ConstantPool {
+    private final Map<String, Integer> entries = new HashMap<>();
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(bytes);
+    private int count = 1;
+
+    int utf8(String value) {
+      return entry("U" + value, 1, value, 0, 0);
+    }
+
+    int classInfo(String internalName) {
+      return entry("C" + internalName, 7, null, utf8(internalName), -1);
+    }
+
+    int string(String value) {
+      return entry("S" + value, 8, null, utf8(value), -1);
+    }
+
+    int fieldRef(String owner, String name, String descriptor) {
+      return memberRef(9, owner, name, descriptor);
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+      return memberRef(10, owner, name, descriptor);
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+      int nameAndType = entry("N" + name + ":" + descriptor, 12, null, utf8(name),
+          utf8(descriptor));
+      return entry(tag + owner + "." + name + ":" + descriptor, tag, null, classInfo(owner),
+          nameAndType);
+    }
+
+    private int entry(String key, int tag, String utf8, int first, int second) {
+      Integer index = entries.get(key);
+      if (index != null) {
+        return index.intValue();
+      }
+      try {
+        out.writeByte(tag);
+        if (utf8 != null) {
+          out.writeUTF(utf8);
+        } else {
+          out.writeShort(first);
+          if (second >= 0) {
+            out.writeShort(second);
+          }
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      entries.put(key, count);
+      return count++;
+    }
+
+    void write(DataOutputStream target) throws IOException {
+      target.writeShort(count);
+      bytes.writeTo(target);
+    }
+  }
+}
@@ -24,34 +24,126 @@
 
 package junitx.util;
 
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Provides access to private fields and methods. The fields and methods are looked up along the
+ * class hierarchy once per class, name and argument types, where both found members and missing
+ * ones are cached. Found members are accessed using method handles. Static members are accessed
+ * using the class instead of an object.
+ *
+ * Methods can also be invoked without giving the argument types, where the method is resolved
+ * from the runtime types of the arguments, considering unboxing and widening primitive
+ * conversions. The most specific of the applicable methods is chosen and the resolution result
+ * is cached per class, name and argument types. Variable arity methods take their trailing array
+ * argument explicitly.
+ *
+ * The current state of an object can be read in one pass using {@link #snapshot(Object)}, which
+ * uses a field layout computed once per class.
+ *
+ * For repeated access of the same member, typed accessors can be created once, which access the
+ * member without reflection and, using the primitive specialized accessors, without boxing.
+ * Field accessors are generated as hidden classes being nestmates of the class declaring the
+ * field, whereas method accessors implement a functional interface using the
+ * {@link LambdaMetafactory}:
+ *
+ * [source,java]
+ * ----
+ * interface Adder {
+ *   int add(Calculator calculator, int a, int b);
+ * }
+ *
+ * IntFieldAccessor&lt;Calculator&gt; total =
+ *     PrivateAccessor.intFieldAccessor(Calculator.class, "total");
+ * Adder adder = PrivateAccessor.methodAccessor(Calculator.class, "add", Adder.class);
+ * ----
+ *
+ * @author Patrick Reinhart
+ */
 public final class PrivateAccessor {
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE =
+      MethodType.methodType(void.class, Object.class, Object.class);
+  private static final MethodType INVOKER_TYPE =
+      MethodType.methodType(Object.class, Object.class, Object[].class);
+
+  private static final ClassValue<ClassMembers> MEMBERS = new ClassValue<ClassMembers>() {
+    @Override
+    protected ClassMembers computeValue(Class<?> type) {
+      return new ClassMembers(type);
+    }
+  };
+
+  /**
+   * Typed accessor of a field, where primitive values are boxed.
+   */
+  public interface FieldAccessor<T, V> {
+    V get(T object);
+
+    void set(T object, V value);
+  }
+
+  /**
+   * Accessor of an <code>int</code> field.
+   */
+  public interface IntFieldAccessor<T> {
+    int getInt(T object);
+
+    void setInt(T object, int value);
+  }
+
+  /**
+   * Accessor of a <code>long</code> field.
+   */
+  public interface LongFieldAccessor<T> {
+    long getLong(T object);
+
+    void setLong(T object, long value);
+  }
+
+  /**
+   * Accessor of a <code>double</code> field.
+   */
+  public interface DoubleFieldAccessor<T> {
+    double getDouble(T object);
+
+    void setDouble(T object, double value);
+  }
+
+  /**
+   * Accessor of a <code>boolean</code> field.
+   */
+  public interface BooleanFieldAccessor<T> {
+    boolean getBoolean(T object);
+
+    void setBoolean(T object, boolean value);
+  }
 
   public static Object invoke(Object object, String name, Class<?>[] argumentTypes,
       Object[] arguments) throws Throwable {
     if (object == null) {
       throw new IllegalArgumentException("Invalid null object argument");
     }
-    Class<?> cls = object.getClass();
-    while (cls != null) {
-      try {
-        Method method = cls.getDeclaredMethod(name, argumentTypes);
-        method.setAccessible(true);
-        return method.invoke(object, arguments);
-      } catch (InvocationTargetException e) {
-        /*
-         * if the method throws an exception, it is embedded into an InvocationTargetException.
-         */
-        throw e.getTargetException();
-      } catch (Exception ex) {
-        /*
-         * in case of an exception, we will throw a new NoSuchFieldException object
-         */
-      }
-      cls = cls.getSuperclass();
+    Optional<MethodAccess> method = MEMBERS.get(object.getClass()).method(name, argumentTypes);
+    if (method.isPresent() && method.get().accepts(arguments)) {
+      return method.get().invoker.invokeExact(object, arguments);
     }
     throw new NoSuchMethodException(
         "Failed method invocation: " + object.getClass().getName() + "." + name + "()");
@@ -61,16 +153,9 @@ public final class PrivateAccessor {
     if (object == null) {
       throw new IllegalArgumentException("Invalid null object argument");
     }
-    for (Class<?> cls = object.getClass(); cls != null; cls = cls.getSuperclass()) {
-      try {
-        Field field = cls.getDeclaredField(name);
-        field.setAccessible(true);
-        return field.get(object);
-      } catch (Exception ex) {
-        /*
-         * in case of an exception, we will throw a new NoSuchFieldException object
-         */
-      }
+    Optional<FieldAccess> field = MEMBERS.get(object.getClass()).field(name);
+    if (field.isPresent()) {
+      return field.get().get(object);
     }
     throw new NoSuchFieldException(
         "Could not get value for field " + object.getClass().getName() + "." + name);
@@ -81,19 +166,766 @@ public final class PrivateAccessor {
     if (object == null) {
       throw new IllegalArgumentException("Invalid null object argument");
     }
-    for (Class<?> cls = object.getClass(); cls != null; cls = cls.getSuperclass()) {
+    Optional<FieldAccess> field = MEMBERS.get(object.getClass()).field(name);
+    if (field.isPresent() && field.get().accepts(value)) {
+      field.get().set(object, value);
+      return;
+    }
+    throw new NoSuchFieldException(
+        "Could set value for field " + object.getClass().getName() + "." + name);
+  }
+
+  /**
+   * Invokes the method resolved from the runtime types of the given arguments. As done by the
+   * compiler for arguments of those types, methods applicable without unboxing are preferred, so
+   * that an <code>Integer</code> argument selects <code>m(Object)</code> over <code>m(int)</code>.
+   *
+   * @param object the object to invoke the method on
+   * @param name the method name
+   * @param arguments the method arguments
+   * @return the method result or <code>null</code> for <code>void</code> methods
+   * @throws NoSuchMethodException if there is no unique most specific method applicable to the
+   *         given arguments
+   */
+  public static Object invoke(Object object, String name, Object... arguments) throws Throwable {
+    if (object == null) {
+      throw new IllegalArgumentException("Invalid null object argument");
+    }
+    Optional<MethodAccess> method = MEMBERS.get(object.getClass()).resolve(name, arguments, false);
+    if (method.isPresent()) {
+      return method.get().invoker.invokeExact(object, arguments);
+    }
+    throw new NoSuchMethodException(
+        "Could not resolve method: " + object.getClass().getName() + "." + name + "()");
+  }
+
+  /**
+   * Invokes the static method having the given parameter types declared by the given class or one
+   * of its super classes.
+   *
+   * @param type the class declaring or inheriting the method
+   * @param name the method name
+   * @param argumentTypes the parameter types of the method
+   * @param arguments the method arguments
+   * @return the method result or <code>null</code> for <code>void</code> methods
+   * @throws NoSuchMethodException if there is no such static method or the arguments do not match
+   *         the parameter types
+   */
+  public static Object invokeStatic(Class<?> type, String name, Class<?>[] argumentTypes,
+      Object[] arguments) throws Throwable {
+    if (type == null) {
+      throw new IllegalArgumentException("Invalid null type argument");
+    }
+    Optional<MethodAccess> method = MEMBERS.get(type).method(name, argumentTypes);
+    if (method.isPresent() && method.get().isStatic && method.get().accepts(arguments)) {
+      return method.get().invoker.invokeExact((Object) null, arguments);
+    }
+    throw new NoSuchMethodException(
+        "Failed static method invocation: " + type.getName() + "." + name + "()");
+  }
+
+  /**
+   * Invokes the static method resolved from the runtime types of the given arguments, see
+   * {@link #invoke(Object, String, Object...)}.
+   */
+  public static Object invokeStatic(Class<?> type, String name, Object... arguments)
+      throws Throwable {
+    if (type == null) {
+      throw new IllegalArgumentException("Invalid null type argument");
+    }
+    Optional<MethodAccess> method = MEMBERS.get(type).resolve(name, arguments, true);
+    if (method.isPresent()) {
+      return method.get().invoker.invokeExact((Object) null, arguments);
+    }
+    throw new NoSuchMethodException(
+        "Could not resolve static method: " + type.getName() + "." + name + "()");
+  }
+
+  /**
+   * Returns the value of the static field declared by the given class or one of its super classes.
+   *
+   * @param type the class declaring or inheriting the field
+   * @param name the field name
+   * @return the field value, where primitive values are boxed
+   * @throws NoSuchFieldException if there is no such static field
+   */
+  public static Object getStaticField(Class<?> type, String name) throws NoSuchFieldException {
+    if (type == null) {
+      throw new IllegalArgumentException("Invalid null type argument");
+    }
+    Optional<FieldAccess> field = MEMBERS.get(type).field(name);
+    if (field.isPresent() && field.get().isStatic) {
+      return field.get().get(null);
+    }
+    throw new NoSuchFieldException(
+        "Could not get value for static field " + type.getName() + "." + name);
+  }
+
+  /**
+   * Sets the value of the static field declared by the given class or one of its super classes.
+   *
+   * @param type the class declaring or inheriting the field
+   * @param name the field name
+   * @param value the new field value, where primitive values are unboxed
+   * @throws NoSuchFieldException if there is no such static field, it is final or the value does
+   *         not match the field type
+   */
+  public static void setStaticField(Class<?> type, String name, Object value)
+      throws NoSuchFieldException {
+    if (type == null) {
+      throw new IllegalArgumentException("Invalid null type argument");
+    }
+    Optional<FieldAccess> field = MEMBERS.get(type).field(name);
+    if (field.isPresent() && field.get().isStatic && field.get().accepts(value)) {
+      field.get().set(null, value);
+      return;
+    }
+    throw new NoSuchFieldException(
+        "Could set value for static field " + type.getName() + "." + name);
+  }
+
+  /**
+   * Reads the values of all instance fields declared by the class of the given object and its
+   * super classes. The fields of a class come before the ones of its super class, where a field
+   * hidden by a field of the same name in a sub class is named by its declaring class, such as
+   * <code>com.acme.Base.name</code>. Synthetic fields and fields not being accessible, such as the
+   * ones of classes in packages not opened by their module, are not included.
+   *
+   * @param object the object to read the fields of
+   * @return the field values by name in the order of the fields
+   */
+  public static Map<String, Object> snapshot(Object object) {
+    if (object == null) {
+      throw new IllegalArgumentException("Invalid null object argument");
+    }
+    return MEMBERS.get(object.getClass()).layout().snapshot(object);
+  }
+
+  /**
+   * Returns a typed accessor of the given field declared by the given class or one of its super
+   * classes. The object argument is ignored for static fields. The accessors are cached, so that
+   * the same instance is returned for the same field.
+   *
+   * @param type the class declaring or inheriting the field
+   * @param name the field name
+   * @param valueType the field type, its wrapper type or a super type of it
+   * @return the field accessor
+   * @throws NoSuchFieldException if the field does not exist
+   * @throws IllegalArgumentException if the value type does not match the field type
+   */
+  @SuppressWarnings("unchecked")
+  public static <T, V> FieldAccessor<T, V> fieldAccessor(Class<T> type, String name,
+      Class<V> valueType) throws NoSuchFieldException {
+    Field field = accessorField(type, name);
+    Class<?> fieldType = field.getType();
+    if (!valueType.isAssignableFrom(AccessorGenerator.wrapper(fieldType))) {
+      throw new IllegalArgumentException("Invalid value type " + valueType.getName()
+          + " for field " + type.getName() + "." + name);
+    }
+    return AccessorGenerator.fieldAccessor(field, FieldAccessor.class, "get", "set", Object.class);
+  }
+
+  /**
+   * Creates an accessor of the given <code>int</code> field, see
+   * {@link #fieldAccessor(Class, String, Class)}.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> IntFieldAccessor<T> intFieldAccessor(Class<T> type, String name)
+      throws NoSuchFieldException {
+    return AccessorGenerator.fieldAccessor(accessorField(type, name, int.class),
+        IntFieldAccessor.class, "getInt", "setInt", int.class);
+  }
+
+  /**
+   * Creates an accessor of the given <code>long</code> field, see
+   * {@link #fieldAccessor(Class, String, Class)}.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> LongFieldAccessor<T> longFieldAccessor(Class<T> type, String name)
+      throws NoSuchFieldException {
+    return AccessorGenerator.fieldAccessor(accessorField(type, name, long.class),
+        LongFieldAccessor.class, "getLong", "setLong", long.class);
+  }
+
+  /**
+   * Creates an accessor of the given <code>double</code> field, see
+   * {@link #fieldAccessor(Class, String, Class)}.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> DoubleFieldAccessor<T> doubleFieldAccessor(Class<T> type, String name)
+      throws NoSuchFieldException {
+    return AccessorGenerator.fieldAccessor(accessorField(type, name, double.class),
+        DoubleFieldAccessor.class, "getDouble", "setDouble", double.class);
+  }
+
+  /**
+   * Creates an accessor of the given <code>boolean</code> field, see
+   * {@link #fieldAccessor(Class, String, Class)}.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> BooleanFieldAccessor<T> booleanFieldAccessor(Class<T> type, String name)
+      throws NoSuchFieldException {
+    return AccessorGenerator.fieldAccessor(accessorField(type, name, boolean.class),
+        BooleanFieldAccessor.class, "getBoolean", "setBoolean", boolean.class);
+  }
+
+  private static Field accessorField(Class<?> type, String name, Class<?> fieldType)
+      throws NoSuchFieldException {
+    Field field = accessorField(type, name);
+    if (field.getType() != fieldType) {
+      throw new IllegalArgumentException("Field " + type.getName() + "." + name + " is not of type "
+          + fieldType.getName());
+    }
+    return field;
+  }
+
+  private static Field accessorField(Class<?> type, String name) throws NoSuchFieldException {
+    Field field = declaredField(type, name);
+    if (field == null) {
+      throw new NoSuchFieldException("Could not find field " + type.getName() + "." + name);
+    }
+    return field;
+  }
+
+  /**
+   * Creates an accessor of the given method declared by the given class or one of its super
+   * classes, implementing the given functional interface. The first parameter of the interface
+   * method is the object the method is invoked on, followed by the method arguments, whereas all
+   * parameters are passed as method arguments to a static method.
+   *
+   * The method is looked up by the parameter types of the interface method first. If not found,
+   * the method having the given name and number of parameters is taken, which allows generic
+   * interfaces like {@link java.util.function.BiFunction} to be used as well.
+   *
+   * @param type the class declaring or inheriting the method
+   * @param name the method name
+   * @param interfaceType the functional interface to be implemented
+   * @return the method accessor
+   * @throws NoSuchMethodException if no matching method exists
+   * @throws IllegalArgumentException if the interface is no functional interface, the method is
+   *         ambiguous or not compatible with the interface method
+   */
+  public static <F> F methodAccessor(Class<?> type, String name, Class<F> interfaceType)
+      throws NoSuchMethodException {
+    Method interfaceMethod = functionalMethod(interfaceType);
+    Method method = accessorMethod(type, name, interfaceMethod.getParameterTypes());
+    try {
+      MethodHandles.Lookup lookup =
+          MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+      MethodHandle implementation = lookup.unreflect(method);
+      MethodType interfaceMethodType = MethodType.methodType(interfaceMethod.getReturnType(),
+          interfaceMethod.getParameterTypes());
+      Object accessor = LambdaMetafactory.metafactory(lookup, interfaceMethod.getName(),
+          MethodType.methodType(interfaceType), interfaceMethodType, implementation,
+          instantiatedType(interfaceMethodType, implementation.type())).getTarget().invoke();
+      return interfaceType.cast(accessor);
+    } catch (Throwable e) {
+      throw new IllegalArgumentException(
+          "Unable to create accessor for method " + type.getName() + "." + name, e);
+    }
+  }
+
+  private static Method functionalMethod(Class<?> interfaceType) {
+    Method functionalMethod = null;
+    if (interfaceType.isInterface()) {
+      for (Method method : interfaceType.getMethods()) {
+        if (Modifier.isAbstract(method.getModifiers()) && !isObjectMethod(method)) {
+          if (functionalMethod != null) {
+            functionalMethod = null;
+            break;
+          }
+          functionalMethod = method;
+        }
+      }
+    }
+    if (functionalMethod == null) {
+      throw new IllegalArgumentException(
+          interfaceType.getName() + " is not a functional interface");
+    }
+    return functionalMethod;
+  }
+
+  private static boolean isObjectMethod(Method method) {
+    try {
+      Object.class.getMethod(method.getName(), method.getParameterTypes());
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  private static Method accessorMethod(Class<?> type, String name, Class<?>[] parameterTypes)
+      throws NoSuchMethodException {
+    Class<?>[] instanceTypes = parameterTypes.length == 0 ? null
+        : Arrays.copyOfRange(parameterTypes, 1, parameterTypes.length);
+    for (Class<?> cls = type; cls != null; cls = cls.getSuperclass()) {
+      Method method = declaredMethod(cls, name, parameterTypes);
+      if (method != null && Modifier.isStatic(method.getModifiers())) {
+        return method;
+      }
+      method = instanceTypes == null ? null : declaredMethod(cls, name, instanceTypes);
+      if (method != null && !Modifier.isStatic(method.getModifiers())) {
+        return method;
+      }
+    }
+    for (Class<?> cls = type; cls != null; cls = cls.getSuperclass()) {
+      Method found = null;
+      for (Method method : cls.getDeclaredMethods()) {
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        if (method.getName().equals(name) && !method.isBridge()
+            && method.getParameterCount() == parameterTypes.length - (isStatic ? 0 : 1)) {
+          if (found != null) {
+            throw new IllegalArgumentException(
+                "Ambiguous method " + type.getName() + "." + name + "()");
+          }
+          found = method;
+        }
+      }
+      if (found != null) {
+        return found;
+      }
+    }
+    throw new NoSuchMethodException("Could not find method " + type.getName() + "." + name + "()");
+  }
+
+  /**
+   * Returns the interface method type specialized to the implementation types, as required by the
+   * {@link LambdaMetafactory} for generic interfaces.
+   */
+  private static MethodType instantiatedType(MethodType interfaceType, MethodType implType) {
+    MethodType instantiatedType = interfaceType;
+    for (int i = 0; i < interfaceType.parameterCount(); i++) {
+      instantiatedType = instantiatedType.changeParameterType(i,
+          specialize(interfaceType.parameterType(i), implType.parameterType(i)));
+    }
+    if (interfaceType.returnType() != void.class && implType.returnType() != void.class) {
+      instantiatedType = instantiatedType.changeReturnType(
+          specialize(interfaceType.returnType(), implType.returnType()));
+    }
+    return instantiatedType;
+  }
+
+  private static Class<?> specialize(Class<?> interfaceType, Class<?> implType) {
+    if (interfaceType.isPrimitive()) {
+      return interfaceType;
+    }
+    Class<?> type = AccessorGenerator.wrapper(implType);
+    return interfaceType.isAssignableFrom(type) ? type : interfaceType;
+  }
+
+  private static Field declaredField(Class<?> type, String name) {
+    for (Class<?> cls = type; cls != null; cls = cls.getSuperclass()) {
       try {
-        Field field = cls.getDeclaredField(name);
-        field.setAccessible(true);
-        field.set(object, value);
-        return;
-      } catch (Exception ex) {
+        return cls.getDeclaredField(name);
+      } catch (NoSuchFieldException ex) {
         /*
-         * in case of an exception, we will throw a new NoSuchFieldException object
+         * in this case, we continue with the super class
          */
       }
     }
-    throw new NoSuchFieldException(
-        "Could set value for field " + object.getClass().getName() + "." + name);
+    return null;
+  }
+
+  private static Method declaredMethod(Class<?> cls, String name, Class<?>[] parameterTypes) {
+    try {
+      return cls.getDeclaredMethod(name, parameterTypes);
+    } catch (NoSuchMethodException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Checks whether the given value can be passed as the given type, as done by reflection, which
+   * includes unboxing followed by a widening primitive conversion.
+   */
+  static boolean isAssignable(Class<?> type, Object value) {
+    if (!type.isPrimitive()) {
+      return value == null || type.isInstance(value);
+    }
+    return value != null && isConvertible(value.getClass(), type);
+  }
+
+  /**
+   * Checks whether a value of the given runtime type, being <code>null</code> for a
+   * <code>null</code> value, can be passed as the given type.
+   */
+  static boolean isApplicable(Class<?> valueType, Class<?> type) {
+    if (valueType == null) {
+      return !type.isPrimitive();
+    }
+    return type.isPrimitive() ? isConvertible(valueType, type) : type.isAssignableFrom(valueType);
+  }
+
+  private static boolean isConvertible(Class<?> valueType, Class<?> type) {
+    Class<?> primitiveType = MethodType.methodType(valueType).unwrap().returnType();
+    return primitiveType == type || widens(primitiveType, type);
+  }
+
+  /**
+   * Checks whether the parameters of the first method are subtypes of the ones of the second
+   * method, where a primitive type is a subtype of the primitive types it widens to, but neither a
+   * subtype nor a super type of any reference type (JLS 15.12.2.5).
+   */
+  private static boolean isMoreSpecific(Method method, Method other) {
+    Class<?>[] types = method.getParameterTypes();
+    Class<?>[] otherTypes = other.getParameterTypes();
+    for (int i = 0; i < types.length; i++) {
+      Class<?> type = types[i];
+      Class<?> otherType = otherTypes[i];
+      if (type.isPrimitive() != otherType.isPrimitive()) {
+        return false;
+      }
+      if (type.isPrimitive() ? type != otherType && !widens(type, otherType)
+          : !otherType.isAssignableFrom(type)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean widens(Class<?> from, Class<?> to) {
+    if (from == byte.class) {
+      return to == short.class || to == int.class || to == long.class || to == float.class
+          || to == double.class;
+    }
+    if (from == short.class || from == char.class) {
+      return to == int.class || to == long.class || to == float.class || to == double.class;
+    }
+    if (from == int.class) {
+      return to == long.class || to == float.class || to == double.class;
+    }
+    if (from == long.class) {
+      return to == float.class || to == double.class;
+    }
+    return from == float.class && to == double.class;
+  }
+
+  /**
+   * The resolved members of a class, including the ones inherited from its super classes.
+   */
+  static final class ClassMembers {
+    private final Class<?> type;
+    private final ConcurrentMap<String, Optional<FieldAccess>> fields;
+    private final ConcurrentMap<MethodKey, Optional<MethodAccess>> methods;
+    private final ConcurrentMap<MethodKey, Optional<MethodAccess>> resolvedMethods;
+    private final ConcurrentMap<MethodKey, Optional<MethodAccess>> resolvedStaticMethods;
+    private volatile FieldLayout layout;
+
+    ClassMembers(Class<?> type) {
+      this.type = type;
+      this.fields = new ConcurrentHashMap<>();
+      this.methods = new ConcurrentHashMap<>();
+      this.resolvedMethods = new ConcurrentHashMap<>();
+      this.resolvedStaticMethods = new ConcurrentHashMap<>();
+    }
+
+    Optional<FieldAccess> field(String name) {
+      Optional<FieldAccess> field = fields.get(name);
+      if (field == null) {
+        field = fields.computeIfAbsent(name, this::findField);
+      }
+      return field;
+    }
+
+    Optional<MethodAccess> method(String name, Class<?>[] argumentTypes) {
+      MethodKey key =
+          new MethodKey(name, argumentTypes == null ? new Class<?>[0] : argumentTypes.clone());
+      Optional<MethodAccess> method = methods.get(key);
+      if (method == null) {
+        method = methods.computeIfAbsent(key, this::findMethod);
+      }
+      return method;
+    }
+
+    Optional<MethodAccess> resolve(String name, Object[] arguments, boolean staticOnly) {
+      Class<?>[] argumentTypes = new Class<?>[arguments == null ? 0 : arguments.length];
+      for (int i = 0; i < argumentTypes.length; i++) {
+        argumentTypes[i] = arguments[i] == null ? null : arguments[i].getClass();
+      }
+      ConcurrentMap<MethodKey, Optional<MethodAccess>> resolved =
+          staticOnly ? resolvedStaticMethods : resolvedMethods;
+      MethodKey key = new MethodKey(name, argumentTypes);
+      Optional<MethodAccess> method = resolved.get(key);
+      if (method == null) {
+        method = resolved.computeIfAbsent(key, k -> resolveMethod(k, staticOnly));
+      }
+      return method;
+    }
+
+    FieldLayout layout() {
+      FieldLayout current = layout;
+      if (current == null) {
+        current = new FieldLayout(type);
+        layout = current;
+      }
+      return current;
+    }
+
+    /**
+     * Resolves the method in the phases of JLS 15.12.2, where the methods applicable by subtyping
+     * only are preferred over the ones requiring unboxing and widening of the arguments.
+     */
+    private Optional<MethodAccess> resolveMethod(MethodKey key, boolean staticOnly) {
+      List<Method> methods = new ArrayList<>();
+      Set<List<Class<?>>> signatures = new HashSet<>();
+      for (Class<?> cls = type; cls != null; cls = cls.getSuperclass()) {
+        for (Method method : cls.getDeclaredMethods()) {
+          if (method.getName().equals(key.name) && !method.isBridge()
+              && signatures.add(Arrays.asList(method.getParameterTypes()))
+              && (!staticOnly || Modifier.isStatic(method.getModifiers()))) {
+            methods.add(method);
+          }
+        }
+      }
+      List<Method> candidates = applicable(methods, key.argumentTypes, false);
+      if (candidates.isEmpty()) {
+        candidates = applicable(methods, key.argumentTypes, true);
+      }
+      Method mostSpecific = null;
+      for (Method candidate : candidates) {
+        if (mostSpecific == null || isMoreSpecific(candidate, mostSpecific)) {
+          mostSpecific = candidate;
+        }
+      }
+      for (Method candidate : candidates) {
+        if (candidate != mostSpecific && !isMoreSpecific(mostSpecific, candidate)) {
+          return Optional.empty(); // ambiguous
+        }
+      }
+      return mostSpecific == null ? Optional.empty()
+          : method(key.name, mostSpecific.getParameterTypes());
+    }
+
+    private static List<Method> applicable(List<Method> methods, Class<?>[] argumentTypes,
+        boolean unboxing) {
+      List<Method> candidates = new ArrayList<>();
+      for (Method method : methods) {
+        if (isApplicable(method, argumentTypes, unboxing)) {
+          candidates.add(method);
+        }
+      }
+      return candidates;
+    }
+
+    private static boolean isApplicable(Method method, Class<?>[] argumentTypes,
+        boolean unboxing) {
+      Class<?>[] parameterTypes = method.getParameterTypes();
+      if (parameterTypes.length != argumentTypes.length) {
+        return false;
+      }
+      for (int i = 0; i < parameterTypes.length; i++) {
+        Class<?> parameterType = parameterTypes[i];
+        if (unboxing ? !PrivateAccessor.isApplicable(argumentTypes[i], parameterType)
+            : parameterType.isPrimitive() || argumentTypes[i] != null
+                && !parameterType.isAssignableFrom(argumentTypes[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private Optional<FieldAccess> findField(String name) {
+      for (Class<?> cls = type; cls != null; cls = cls.getSuperclass()) {
+        try {
+          return Optional.of(new FieldAccess(cls.getDeclaredField(name)));
+        } catch (Exception ex) {
+          /*
+           * in case of an exception, we continue with the super class
+           */
+        }
+      }
+      return Optional.empty();
+    }
+
+    private Optional<MethodAccess> findMethod(MethodKey key) {
+      for (Class<?> cls = type; cls != null; cls = cls.getSuperclass()) {
+        try {
+          Method method = cls.getDeclaredMethod(key.name, key.argumentTypes);
+          return Optional.of(new MethodAccess(method));
+        } catch (Exception ex) {
+          /*
+           * in case of an exception, we continue with the super class
+           */
+        }
+      }
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Key of a method by name and parameter types, or the runtime argument types of a resolved
+   * method, where <code>null</code> arguments have a <code>null</code> type.
+   */
+  static final class MethodKey {
+    final String name;
+    final Class<?>[] argumentTypes;
+
+    MethodKey(String name, Class<?>[] argumentTypes) {
+      this.name = name;
+      this.argumentTypes = argumentTypes;
+    }
+
+    @Override
+    public int hashCode() {
+      return name.hashCode() * 31 + Arrays.hashCode(argumentTypes);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof MethodKey)) {
+        return false;
+      }
+      MethodKey other = (MethodKey) obj;
+      return name.equals(other.name) && Arrays.equals(argumentTypes, other.argumentTypes);
+    }
+  }
+
+  /**
+   * Accessor of a field using a getter and setter method handle of the generic types
+   * <code>(Object)Object</code> and <code>(Object,Object)void</code>. Final instance fields are
+   * written using the setter as well, as done by reflection, whereas static final fields and the
+   * final fields of records and hidden classes, which reflection does not write either, have no
+   * setter.
+   */
+  static final class FieldAccess {
+    final Class<?> type;
+    final boolean isStatic;
+    final MethodHandle getter;
+    final MethodHandle setter;
+
+    FieldAccess(Field field) throws IllegalAccessException {
+      field.setAccessible(true);
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      MethodHandle fieldGetter = lookup.unreflectGetter(field);
+      MethodHandle fieldSetter = null;
+      if (!Modifier.isStatic(field.getModifiers())) {
+        try {
+          fieldSetter = lookup.unreflectSetter(field);
+        } catch (IllegalAccessException e) {
+          /*
+           * in this case, the field is read only
+           */
+        }
+      } else {
+        fieldGetter = MethodHandles.dropArguments(fieldGetter, 0, Object.class);
+        if (!Modifier.isFinal(field.getModifiers())) {
+          fieldSetter =
+              MethodHandles.dropArguments(lookup.unreflectSetter(field), 0, Object.class);
+        }
+      }
+      this.type = field.getType();
+      this.isStatic = Modifier.isStatic(field.getModifiers());
+      this.getter = fieldGetter.asType(GETTER_TYPE);
+      this.setter = fieldSetter == null ? null : fieldSetter.asType(SETTER_TYPE);
+    }
+
+    boolean accepts(Object value) {
+      return setter != null && isAssignable(type, value);
+    }
+
+    Object get(Object object) {
+      try {
+        return getter.invokeExact(object);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new IllegalStateException(t);
+      }
+    }
+
+    void set(Object object, Object value) {
+      try {
+        setter.invokeExact(object, value);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new IllegalStateException(t);
+      }
+    }
+  }
+
+  /**
+   * Accessor of a method using an invoker method handle of the generic type
+   * <code>(Object,Object[])Object</code>.
+   */
+  static final class MethodAccess {
+    final Class<?>[] parameterTypes;
+    final boolean isStatic;
+    final MethodHandle invoker;
+
+    MethodAccess(Method method) throws IllegalAccessException {
+      method.setAccessible(true);
+      MethodHandle handle = MethodHandles.lookup().unreflect(method).asFixedArity();
+      if (Modifier.isStatic(method.getModifiers())) {
+        handle = MethodHandles.dropArguments(handle, 0, Object.class);
+      }
+      this.parameterTypes = method.getParameterTypes();
+      this.isStatic = Modifier.isStatic(method.getModifiers());
+      this.invoker = handle.asType(MethodType.genericMethodType(parameterTypes.length + 1))
+          .asSpreader(Object[].class, parameterTypes.length).asType(INVOKER_TYPE);
+    }
+
+    boolean accepts(Object[] arguments) {
+      int length = arguments == null ? 0 : arguments.length;
+      if (length != parameterTypes.length) {
+        return false;
+      }
+      for (int i = 0; i < length; i++) {
+        if (!isAssignable(parameterTypes[i], arguments[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * The instance fields of a class and its super classes, read using getter method handles of the
+   * generic type <code>(Object)Object</code>.
+   */
+  static final class FieldLayout {
+    final String[] names;
+    final MethodHandle[] getters;
+
+    FieldLayout(Class<?> type) {
+      List<String> fieldNames = new ArrayList<>();
+      List<MethodHandle> fieldGetters = new ArrayList<>();
+      Set<String> simpleNames = new HashSet<>();
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      for (Class<?> cls = type; cls != null; cls = cls.getSuperclass()) {
+        for (Field field : cls.getDeclaredFields()) {
+          if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+            continue;
+          }
+          try {
+            field.setAccessible(true);
+            fieldGetters.add(lookup.unreflectGetter(field).asType(GETTER_TYPE));
+          } catch (Exception ex) {
+            /*
+             * in case of an exception, the field is not accessible and therefore skipped
+             */
+            continue;
+          }
+          String name = field.getName();
+          fieldNames.add(simpleNames.add(name) ? name : cls.getName() + "." + name);
+        }
+      }
+      this.names = fieldNames.toArray(new String[0]);
+      this.getters = fieldGetters.toArray(new MethodHandle[0]);
+    }
+
+    Map<String, Object> snapshot(Object object) {
+      Map<String, Object> values = new LinkedHashMap<>(names.length * 4 / 3 + 1);
+      try {
+        for (int i = 0; i < names.length; i++) {
+          values.put(names[i], getters[i].invokeExact(object));
+        }
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new IllegalStateException(t);
+      }
+      return Collections.unmodifiableMap(values);
+    }
   }
 }
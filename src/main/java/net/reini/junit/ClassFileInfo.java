@@ -0,0 +1,427 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Minimal class file reader extracting the access flags, the super class and the test related
+ * annotations directly from the class file bytes without loading the class. The public methods
+ * without parameters and the JUnit 4 test methods are kept by name and descriptor, such as
+ * `testSomething()V`, which allows to count the tests of a class. A public static
+ * `suite()Ljunit/framework/Test;` method is recorded as well, as JUnit runs such a class using the
+ * returned test. The classes a class depends on are read from its constant pool.
+ *
+ * @author Patrick Reinhart
+ */
+final class ClassFileInfo {
+  static final int ACC_PUBLIC = 0x0001;
+  static final int ACC_STATIC = 0x0008;
+  static final int ACC_INTERFACE = 0x0200;
+  static final int ACC_ABSTRACT = 0x0400;
+
+  private static final int MAGIC = 0xCAFEBABE;
+  private static final String ANNOTATIONS = "RuntimeVisibleAnnotations";
+  private static final String RUN_WITH = "Lorg/junit/runner/RunWith;";
+  private static final String JUNIT4_TEST = "Lorg/junit/Test;";
+  private static final String SUITE_METHOD = "suite()Ljunit/framework/Test;";
+  private static final int MATCHED = 1;
+  private static final int JUNIT4_TEST_MATCHED = 2;
+  private static final Set<String> TEST_ANNOTATIONS = new HashSet<>(Arrays.asList(
+      JUNIT4_TEST, "Lorg/junit/jupiter/api/Test;",
+      "Lorg/junit/jupiter/params/ParameterizedTest;", "Lorg/junit/jupiter/api/RepeatedTest;",
+      "Lorg/junit/jupiter/api/TestFactory;", "Lorg/junit/jupiter/api/TestTemplate;"));
+
+  final int accessFlags;
+  final String name;
+  final String superName;
+  final boolean runWith;
+  final boolean testMethods;
+  final boolean suiteMethod;
+  final List<String> publicMethods;
+  final List<String> junit4TestMethods;
+
+  private ClassFileInfo(int accessFlags, String name, String superName, boolean runWith,
+      boolean testMethods, boolean suiteMethod, List<String> publicMethods,
+      List<String> junit4TestMethods) {
+    this.accessFlags = accessFlags;
+    this.name = name;
+    this.superName = superName;
+    this.runWith = runWith;
+    this.testMethods = testMethods;
+    this.suiteMethod = suiteMethod;
+    this.publicMethods = publicMethods;
+    this.junit4TestMethods = junit4TestMethods;
+  }
+
+  boolean isAbstract() {
+    return (accessFlags & (ACC_ABSTRACT | ACC_INTERFACE)) != 0;
+  }
+
+  boolean isPublic() {
+    return (accessFlags & ACC_PUBLIC) != 0;
+  }
+
+  /**
+   * @return the method name of the given name and descriptor
+   */
+  static String methodName(String method) {
+    return method.substring(0, method.indexOf('('));
+  }
+
+  /**
+   * Parses the given class file content.
+   *
+   * @param bytes the class file content
+   * @return the class file information
+   * @throws IOException if the content is not a valid class file
+   */
+  static ClassFileInfo read(byte[] bytes) throws IOException {
+    try {
+      return new Parser(bytes).parse();
+    } catch (IndexOutOfBoundsException e) {
+      throw new IOException("Truncated class file", e);
+    }
+  }
+
+  /**
+   * Reads the names of all classes referenced by the constant pool of the given class file
+   * content. These are the class constants and the class types contained in any descriptor or
+   * signature. As all strings are checked for type descriptors, the result may contain names not
+   * being an actual class, whereas compile time constants inlined from other classes are missing.
+   *
+   * @param bytes the class file content
+   * @return the binary names of the referenced classes, excluding the class itself
+   * @throws IOException if the content is not a valid class file
+   */
+  static Set<String> dependencies(byte[] bytes) throws IOException {
+    try {
+      return new Parser(bytes).parseDependencies();
+    } catch (IndexOutOfBoundsException e) {
+      throw new IOException("Truncated class file", e);
+    }
+  }
+
+  static final class Parser {
+    private final byte[] bytes;
+    private int[] offsets;
+    private String[] strings;
+    private int pos;
+    private boolean suiteMethod;
+
+    Parser(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    ClassFileInfo parse() throws IOException {
+      if (readInt() != MAGIC) {
+        throw new IOException("Invalid class file magic");
+      }
+      pos += 4; // minor and major version
+      readConstantPool();
+      int accessFlags = readShort();
+      String name = className(readShort());
+      int superIndex = readShort();
+      String superName = superIndex == 0 ? null : className(superIndex);
+      int interfaces = readShort();
+      pos += 2 * interfaces;
+      skipFields();
+      List<String> publicMethods = new ArrayList<>();
+      List<String> junit4TestMethods = new ArrayList<>();
+      boolean testMethods = readMethods(publicMethods, junit4TestMethods);
+      boolean runWith = (readAttributes(RUN_WITH) & MATCHED) != 0;
+      return new ClassFileInfo(accessFlags, name, superName, runWith, testMethods, suiteMethod,
+          publicMethods, junit4TestMethods);
+    }
+
+    Set<String> parseDependencies() throws IOException {
+      if (readInt() != MAGIC) {
+        throw new IOException("Invalid class file magic");
+      }
+      pos += 4; // minor and major version
+      readConstantPool();
+      String name = className(readShort(pos + 2));
+      Set<String> dependencies = new HashSet<>();
+      for (int i = 1; i < offsets.length; i++) {
+        int offset = offsets[i];
+        if (offset == 0) {
+          continue; // second slot of a long or double constant
+        }
+        if (bytes[offset] == 1) {
+          addDescriptorTypes(offset + 3, offset + 3 + readShort(offset + 1), dependencies);
+        } else if (bytes[offset] == 7) {
+          String className = utf8(readShort(offset + 1));
+          if (!className.startsWith("[")) { // array descriptors are covered by their utf8
+            dependencies.add(className.replace('/', '.'));
+          }
+        }
+      }
+      dependencies.remove(name.replace('/', '.'));
+      return dependencies;
+    }
+
+    /**
+     * Adds the class names of all `L...;` type descriptors found within the given utf8 bytes.
+     */
+    private void addDescriptorTypes(int start, int end, Set<String> dependencies) {
+      for (int p = start; p < end; p++) {
+        if (bytes[p] != 'L') {
+          continue;
+        }
+        int nameEnd = p + 1;
+        while (nameEnd < end && isNameByte(bytes[nameEnd])) {
+          nameEnd++;
+        }
+        if (nameEnd > p + 1 && nameEnd < end && (bytes[nameEnd] == ';' || bytes[nameEnd] == '<')) {
+          dependencies.add(new String(bytes, p + 1, nameEnd - p - 1, StandardCharsets.UTF_8)
+              .replace('/', '.'));
+          p = nameEnd;
+        }
+      }
+    }
+
+    private static boolean isNameByte(byte value) {
+      switch (value) {
+        case ';':
+        case '<':
+        case '>':
+        case '(':
+        case ')':
+        case '[':
+        case '.':
+        case ':':
+        case ' ':
+          return false;
+        default:
+          return (value & 0xFF) > ' ';
+      }
+    }
+
+    private void readConstantPool() throws IOException {
+      int count = readShort();
+      offsets = new int[count];
+      strings = new String[count];
+      for (int i = 1; i < count; i++) {
+        offsets[i] = pos;
+        int tag = bytes[pos++];
+        switch (tag) {
+          case 1: { // Utf8
+            int length = readShort();
+            pos += length;
+            break;
+          }
+          case 7: // Class
+          case 8: // String
+          case 16: // MethodType
+          case 19: // Module
+          case 20: // Package
+            pos += 2;
+            break;
+          case 15: // MethodHandle
+            pos += 3;
+            break;
+          case 3: // Integer
+          case 4: // Float
+          case 9: // Fieldref
+          case 10: // Methodref
+          case 11: // InterfaceMethodref
+          case 12: // NameAndType
+          case 17: // Dynamic
+          case 18: // InvokeDynamic
+            pos += 4;
+            break;
+          case 5: // Long
+          case 6: // Double
+            pos += 8;
+            i++;
+            break;
+          default:
+            throw new IOException("Invalid constant pool tag " + tag);
+        }
+      }
+    }
+
+    private void skipFields() {
+      int count = readShort();
+      for (int i = 0; i < count; i++) {
+        pos += 6; // access flags, name and descriptor
+        skipAttributes();
+      }
+    }
+
+    /**
+     * Reads all methods, collecting the public ones without parameters and the JUnit 4 test
+     * methods and detecting the suite method. Returns <code>true</code> if any of them carries a
+     * test annotation.
+     */
+    private boolean readMethods(List<String> publicMethods, List<String> junit4TestMethods)
+        throws IOException {
+      boolean found = false;
+      int count = readShort();
+      for (int i = 0; i < count; i++) {
+        int accessFlags = readShort();
+        String name = utf8(readShort());
+        String descriptor = utf8(readShort());
+        int matched = readAttributes(null);
+        if ((accessFlags & ACC_PUBLIC) != 0 && descriptor.startsWith("()")) {
+          publicMethods.add(name.concat(descriptor));
+          suiteMethod |= (accessFlags & ACC_STATIC) != 0
+              && SUITE_METHOD.equals(name.concat(descriptor));
+        }
+        if ((matched & JUNIT4_TEST_MATCHED) != 0) {
+          junit4TestMethods.add(name.concat(descriptor));
+        }
+        found |= matched != 0;
+      }
+      return found;
+    }
+
+    /**
+     * Reads an attributes table, returns {@link #MATCHED} if one of the runtime visible
+     * annotations matches the given annotation descriptor or one of the test annotations if
+     * <code>annotation</code> is <code>null</code>, combined with {@link #JUNIT4_TEST_MATCHED} if
+     * the JUnit 4 test annotation is present.
+     */
+    private int readAttributes(String annotation) throws IOException {
+      int found = 0;
+      int count = readShort();
+      for (int i = 0; i < count; i++) {
+        String attributeName = utf8(readShort());
+        int length = readInt();
+        int end = pos + length;
+        if (ANNOTATIONS.equals(attributeName)) {
+          int annotations = readShort();
+          for (int a = 0; a < annotations; a++) {
+            String type = utf8(readShort());
+            if (annotation == null ? TEST_ANNOTATIONS.contains(type) : annotation.equals(type)) {
+              found |= MATCHED;
+            }
+            if (JUNIT4_TEST.equals(type)) {
+              found |= JUNIT4_TEST_MATCHED;
+            }
+            skipElementValuePairs();
+          }
+        }
+        pos = end;
+      }
+      return found;
+    }
+
+    private void skipAttributes() {
+      int count = readShort();
+      for (int i = 0; i < count; i++) {
+        pos += 2; // attribute name
+        int length = readInt();
+        pos += length;
+      }
+    }
+
+    private void skipElementValuePairs() throws IOException {
+      int pairs = readShort();
+      for (int i = 0; i < pairs; i++) {
+        pos += 2; // element name
+        skipElementValue();
+      }
+    }
+
+    private void skipElementValue() throws IOException {
+      int tag = bytes[pos++];
+      switch (tag) {
+        case 'e':
+          pos += 4;
+          break;
+        case '@':
+          pos += 2;
+          skipElementValuePairs();
+          break;
+        case '[': {
+          int values = readShort();
+          for (int i = 0; i < values; i++) {
+            skipElementValue();
+          }
+          break;
+        }
+        case 'B':
+        case 'C':
+        case 'D':
+        case 'F':
+        case 'I':
+        case 'J':
+        case 'S':
+        case 'Z':
+        case 's':
+        case 'c':
+          pos += 2;
+          break;
+        default:
+          throw new IOException("Invalid element value tag " + tag);
+      }
+    }
+
+    private String className(int index) throws IOException {
+      int offset = offsets[index];
+      if (bytes[offset] != 7) {
+        throw new IOException("Invalid class constant at " + index);
+      }
+      return utf8(readShort(offset + 1));
+    }
+
+    private String utf8(int index) throws IOException {
+      String value = strings[index];
+      if (value == null) {
+        int offset = offsets[index];
+        if (bytes[offset] != 1) {
+          throw new IOException("Invalid utf8 constant at " + index);
+        }
+        // names and descriptors of interest are plain ASCII, where modified UTF-8 and UTF-8 match
+        value = new String(bytes, offset + 3, readShort(offset + 1), StandardCharsets.UTF_8);
+        strings[index] = value;
+      }
+      return value;
+    }
+
+    private int readShort() {
+      int value = readShort(pos);
+      pos += 2;
+      return value;
+    }
+
+    private int readShort(int offset) {
+      return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+
+    private int readInt() {
+      int value = (readShort(pos) << 16) | readShort(pos + 2);
+      pos += 4;
+      return value;
+    }
+  }
+}
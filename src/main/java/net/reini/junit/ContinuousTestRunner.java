@@ -0,0 +1,259 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Continuous test runner keeping the JVM alive, which watches the class output directories using
+ * a {@link WatchService} and reruns the test classes whose class files changed or that depend on
+ * changed classes, see {@link TestImpactIndex}. Each cycle loads the classes of the class output
+ * directories using a fresh child first class loader, so that the changed classes are reloaded
+ * without restarting the JVM.
+ *
+ * The class output directories are given as arguments, defaulting to the directories of the class
+ * path. A cycle starts once no further changes are reported within the delay given by the
+ * `test.watch.delay` system property in milliseconds, defaulting to 500. On start, the tests
+ * impacted by the classes changed since the index was stored last are run. If the
+ * `test.watch.initial` system property is set to `true`, all tests are run instead, as built by
+ * the {@link RecursiveTestSuiteBuilder}:
+ *
+ * `java -Dtest.watch.initial=true net.reini.junit.ContinuousTestRunner build/classes/java/test`
+ *
+ * The tests are run using the text based JUnit test runner, to which the
+ * {@link junit.swingui.TestRunner} delegates as well. The dependency index is stored in the file
+ * given by the `test.impact.index` system property after the tests of each cycle have been run,
+ * where the test classes having failed or not being run are run again by the next cycle.
+ *
+ * @author Patrick Reinhart
+ */
+public class ContinuousTestRunner {
+  static final String DELAY_PROPERTY = "test.watch.delay";
+  static final String INITIAL_PROPERTY = "test.watch.initial";
+
+  private final List<Path> roots;
+  private final Path indexFile;
+  private final Logger logger;
+  private final TestImpactIndex index;
+
+  ContinuousTestRunner(List<Path> roots, Path indexFile, Logger logger) {
+    this.roots = roots;
+    this.indexFile = indexFile;
+    this.logger = logger;
+    this.index = TestImpactIndex.load(indexFile, roots, logger);
+  }
+
+  /**
+   * Starts watching the class output directories given as arguments or the directories of the
+   * class path if none are given.
+   *
+   * @param args the class output directories
+   * @throws Exception if the directories could not be watched
+   */
+  public static void main(String[] args) throws Exception {
+    List<Path> roots;
+    if (args.length == 0) {
+      roots = TestImpactIndex.roots();
+    } else {
+      roots = new ArrayList<>(args.length);
+      for (String arg : args) {
+        roots.add(Paths.get(arg).toAbsolutePath().normalize());
+      }
+    }
+    new ContinuousTestRunner(roots, TestImpactIndex.indexFile(),
+        Logger.getLogger(ContinuousTestRunner.class.getName())).watch();
+  }
+
+  /**
+   * Watches the class output directories until interrupted.
+   *
+   * @throws IOException if the directories could not be watched
+   * @throws InterruptedException if interrupted while waiting for changes
+   */
+  void watch() throws IOException, InterruptedException {
+    long delay = Long.getLong(DELAY_PROPERTY, 500);
+    junit.textui.TestRunner runner = new junit.textui.TestRunner();
+    try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+      for (Path root : roots) {
+        register(root, watchService);
+      }
+      runCycle(runner, Boolean.getBoolean(INITIAL_PROPERTY));
+      while (true) {
+        WatchKey key = watchService.take();
+        // wait for the compiler to finish writing all class files
+        do {
+          handle(key, watchService);
+        } while ((key = watchService.poll(delay, TimeUnit.MILLISECONDS)) != null);
+        runCycle(runner, false);
+      }
+    }
+  }
+
+  private void handle(WatchKey key, WatchService watchService) throws IOException {
+    Path directory = (Path) key.watchable();
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == ENTRY_CREATE) {
+        Path child = directory.resolve((Path) event.context());
+        if (Files.isDirectory(child)) {
+          register(child, watchService);
+        }
+      }
+    }
+    key.reset();
+  }
+
+  private static void register(Path directory, WatchService watchService) throws IOException {
+    Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+          throws IOException {
+        dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  private void runCycle(junit.textui.TestRunner runner, boolean all) {
+    Thread thread = Thread.currentThread();
+    ClassLoader contextLoader = thread.getContextClassLoader();
+    try (ReloadingClassLoader loader =
+        new ReloadingClassLoader(roots, ContinuousTestRunner.class.getClassLoader())) {
+      Test test = buildSuite(loader, all);
+      if (test != null) {
+        thread.setContextClassLoader(loader);
+        runner.doRun(test);
+      }
+    } catch (Exception e) {
+      logger.log(Level.SEVERE, "Error running the changed tests", e);
+    } finally {
+      thread.setContextClassLoader(contextLoader);
+    }
+  }
+
+  /**
+   * Updates the dependency index and builds the suite of the tests to be run. The index is stored
+   * once the suite has been run, where the test classes not having passed remain changed for the
+   * next cycle, see {@link ImpactedTestSuite.IndexingTestSuite}.
+   *
+   * @param loader the class loader of the current cycle
+   * @param all <code>true</code> to build a suite containing all tests
+   * @return the suite or <code>null</code> if no class changed
+   * @throws Exception if the suite could not be built
+   */
+  Test buildSuite(ClassLoader loader, boolean all) throws Exception {
+    Set<String> changed = index.update(new TestClassClassifier(loader));
+    TestHistory history = TestHistory.fromSystemProperties();
+    List<TestClassEntry> entries = index.impactedTests(changed);
+    TestSuite suite;
+    if (all) {
+      suite = ParallelTestSuite.newSuite("All JUnit tests");
+      for (Path root : roots) {
+        RecursiveTestSuiteBuilder.build(root, "", loader, suite);
+      }
+    } else if (changed.isEmpty()) {
+      return null;
+    } else {
+      logger.info(() -> String.format("%d changed classes impact %d test classes",
+          changed.size(), entries.size()));
+      suite = ParallelTestSuite.newSuite("Changed JUnit tests");
+      try (TestLoader testLoader = RecursiveTestSuiteBuilder.newTestLoader(loader)) {
+        TestHistory.addTests(history, testLoader.load(entries), suite);
+      }
+    }
+    TestSuite rootSuite =
+        new ImpactedTestSuite.IndexingTestSuite(suite, index, indexFile, entries, logger);
+    return history == null ? rootSuite : history.recording(rootSuite);
+  }
+
+  /**
+   * Class loader loading the classes of the class output directories itself instead of asking the
+   * parent class loader first.
+   */
+  static final class ReloadingClassLoader extends URLClassLoader {
+    static {
+      ClassLoader.registerAsParallelCapable();
+    }
+
+    ReloadingClassLoader(List<Path> roots, ClassLoader parent) throws IOException {
+      super(toUrls(roots), parent);
+    }
+
+    private static URL[] toUrls(List<Path> roots) throws IOException {
+      URL[] urls = new URL[roots.size()];
+      for (int i = 0; i < urls.length; i++) {
+        urls[i] = roots.get(i).toUri().toURL();
+      }
+      return urls;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      synchronized (getClassLoadingLock(name)) {
+        Class<?> clazz = findLoadedClass(name);
+        if (clazz == null) {
+          if (findResource(name.replace('.', '/').concat(".class")) == null) {
+            return super.loadClass(name, resolve);
+          }
+          clazz = findClass(name);
+        }
+        if (resolve) {
+          resolveClass(clazz);
+        }
+        return clazz;
+      }
+    }
+
+    @Override
+    public URL getResource(String name) {
+      URL url = findResource(name);
+      return url == null ? super.getResource(name) : url;
+    }
+  }
+}
@@ -32,18 +32,15 @@ package net.reini.junit;
 
 import static java.nio.file.Files.exists;
 import static java.nio.file.Files.isRegularFile;
-import static java.nio.file.Files.newBufferedReader;
 
-import java.io.BufferedReader;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import junit.framework.JUnit4TestAdapter;
 import junit.framework.Test;
-import junit.framework.TestCase;
 import junit.framework.TestSuite;
 
 /**
@@ -56,16 +53,29 @@ import junit.framework.TestSuite;
  * 
  * `-Dcustom.tests=*dir/somefile*`
  * 
- * The content of the test definitions file contains one test class on each line without the
- * `.class` suffix:
+ * The content of the UTF-8 encoded test definitions file contains one test class on each line
+ * without the `.class` suffix, a single test method, a package wildcard or an include of another
+ * test definitions file relative to the including one:
  * 
  * [source,xml,subs="verbatim,attributes"]
  * ----
  * # some comment
  * net.reini.demo.SomeTest
- * net.reini.demo.SomeOtherTest
+ * net.reini.demo.SomeOtherTest#testSomething
+ * net.reini.demo.single.*
+ * net.reini.demo.recursive.**
+ * &#64;include common/customtests
  * ----
  * 
+ * The resolved test classes are cached in the directory given by the `custom.tests.cache` system
+ * property, defaulting to `customtests-cache` within the temporary directory, and can be disabled
+ * using `none`. See {@link TestManifest} for details.
+ * 
+ * Only the test classes of the shard defined by the `test.shard` system property are loaded, see
+ * {@link TestSharding}. The tests are run concurrently if the `test.parallel` system property is
+ * set, see {@link ParallelTestSuite}. If the `test.history` system property is set, the test
+ * results are recorded and recently failing and fast tests are run first.
+ * 
  * @author Patrick Reinhart
  */
 public class CustomTestSuite {
@@ -75,7 +85,8 @@ public class CustomTestSuite {
    */
   public static Test suite() {
     Logger logger = Logger.getLogger(CustomTestSuite.class.getName());
-    TestSuite suite = new TestSuite("Custom JUnit tests");
+    TestSuite suite = ParallelTestSuite.newSuite("Custom JUnit tests");
+    TestHistory history = TestHistory.fromSystemProperties();
     String customTestFile = System.getProperty("custom.tests", "");
     Path customTests;
     if (customTestFile.isEmpty()) {
@@ -84,31 +95,18 @@ public class CustomTestSuite {
       customTests = Paths.get(customTestFile);
     }
     if (exists(customTests) && isRegularFile(customTests)) {
-      try (BufferedReader reader = newBufferedReader(customTests, StandardCharsets.ISO_8859_1)) {
-        String className = null;
-        while ((className = reader.readLine()) != null) {
-          if (!className.contains("/")) { // filter out jython tests
-            try {
-              Class<?> failedClass = Class.forName(className);
-              if (TestCase.class.isAssignableFrom(failedClass)) {
-                @SuppressWarnings("unchecked")
-                Class<TestCase> testCase = (Class<TestCase>) failedClass;
-                suite.addTestSuite(testCase);
-              } else {
-                suite.addTest(new JUnit4TestAdapter(failedClass));
-              }
-            } catch (Exception e) {
-              logger.severe(
-                  String.format("Unable to load class %s (%s)", className, e.getClass().getName()));
-            }
-          } else {
-            logger.warning("Skipped Jython test ".concat(className));
-          }
-        }
+      List<TestClassEntry> entries = Collections.emptyList();
+      try {
+        entries = TestManifest.read(customTests, logger).resolve(
+            CustomTestSuite.class.getClassLoader(), TestManifest.cacheDirectory(), logger);
       } catch (Exception e) {
         logger.log(Level.SEVERE, "Error getting tests from " + customTests, e);
       }
+      try (TestLoader loader = new TestLoader(CustomTestSuite.class.getClassLoader(), false,
+          TestLoader.severe(logger))) {
+        TestHistory.addTests(history, loader.load(entries), suite);
+      }
     }
-    return suite;
+    return history == null ? suite : history.recording(suite);
   }
 }
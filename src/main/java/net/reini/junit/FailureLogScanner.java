@@ -0,0 +1,326 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Scans console logs for failed test classes and methods in a single pass over the raw bytes. Lines
+ * are only decoded if they match the byte markers of one of the supported {@link Format}s, so that
+ * the vast majority of log lines is rejected without creating any objects.
+ *
+ * Further console formats can be supported by adding a {@link Format} constant creating the
+ * {@link LineParser} for it.
+ *
+ * @author Patrick Reinhart
+ */
+final class FailureLogScanner {
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final byte[] GRADLE_FAILED = ascii("FAILED");
+  private static final byte[] GRADLE_SEPARATOR = ascii(" > ");
+  private static final byte[] SUREFIRE_MARKER = ascii("<<< ");
+  private static final byte[] SUREFIRE_FAILURE = ascii("FAILURE!");
+  private static final byte[] SUREFIRE_ERROR = ascii("ERROR!");
+  private static final byte[] SUREFIRE_TESTS_RUN = ascii("Tests run: ");
+  private static final byte[] SUREFIRE_IN = ascii(" in ");
+
+  private final Format[] formats;
+
+  /**
+   * The supported console formats.
+   */
+  enum Format {
+    /**
+     * ANT junit task output, where the test class is given on a `[junit] Running` line, followed
+     * by a `[junit] Tests run:` line containing the number of failures and errors.
+     */
+    ANT {
+      @Override
+      LineParser newParser() {
+        return new AntParser();
+      }
+    },
+    /**
+     * Gradle output having the test class up to the first `>` followed by the test method on a
+     * line starting with a bracket and ending with `FAILED`.
+     */
+    GRADLE {
+      @Override
+      LineParser newParser() {
+        return FailureLogScanner::parseGradle;
+      }
+    },
+    /**
+     * Maven Surefire output, where the test class follows the `in` of a `Tests run:` line being
+     * marked with `<<< FAILURE!` or `<<< ERROR!`.
+     */
+    SUREFIRE {
+      @Override
+      LineParser newParser() {
+        return FailureLogScanner::parseSurefire;
+      }
+    };
+
+    abstract LineParser newParser();
+  }
+
+  /**
+   * Parses a single log line given by the byte range from <code>start</code> (inclusive) to
+   * <code>end</code> (exclusive), without the line terminator.
+   */
+  interface LineParser {
+    /**
+     * @param failures receives the failed test class name and the failed method name, being
+     *        <code>null</code> if not known
+     */
+    void parse(byte[] bytes, int start, int end, BiConsumer<String, String> failures);
+  }
+
+  FailureLogScanner(Format... formats) {
+    this.formats = formats;
+  }
+
+  /**
+   * Scans the given log content.
+   *
+   * @param in the log content
+   * @param failures receives the failed test class names and method names, being
+   *        <code>null</code> if not known, in the order of the log
+   * @throws IOException if the content could not be read
+   */
+  void scan(InputStream in, BiConsumer<String, String> failures) throws IOException {
+    List<LineParser> parsers = new ArrayList<>(formats.length);
+    for (Format format : formats) {
+      parsers.add(format.newParser());
+    }
+    byte[] buffer = new byte[BUFFER_SIZE];
+    int length = 0;
+    int read;
+    while ((read = in.read(buffer, length, buffer.length - length)) != -1) {
+      int scanned = length;
+      length += read;
+      int lineStart = 0;
+      int lineEnd;
+      while ((lineEnd = indexOf(buffer, (byte) '\n', scanned, length)) >= 0) {
+        parseLine(buffer, lineStart, lineEnd, parsers, failures);
+        lineStart = lineEnd + 1;
+        scanned = lineStart;
+      }
+      // keep the incomplete last line
+      length -= lineStart;
+      System.arraycopy(buffer, lineStart, buffer, 0, length);
+      if (length == buffer.length) {
+        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+      }
+    }
+    if (length > 0) {
+      parseLine(buffer, 0, length, parsers, failures);
+    }
+  }
+
+  private static void parseLine(byte[] bytes, int start, int end, List<LineParser> parsers,
+      BiConsumer<String, String> failures) {
+    if (end > start && bytes[end - 1] == '\r') {
+      end--;
+    }
+    for (LineParser parser : parsers) {
+      parser.parse(bytes, start, end, failures);
+    }
+  }
+
+  static final class AntParser implements LineParser {
+    private static final byte[] RUNNING = ascii("[junit] Running ");
+    private static final byte[] TESTS_RUN = ascii("[junit] Tests run: ");
+    private static final byte[] FAILURES = ascii(", Failures: ");
+    private static final byte[] ERRORS = ascii(", Errors: ");
+
+    private String running;
+
+    @Override
+    public void parse(byte[] bytes, int start, int end, BiConsumer<String, String> failures) {
+      String className = parseClass(bytes, start, end);
+      if (className != null) {
+        failures.accept(className, null);
+      }
+    }
+
+    private String parseClass(byte[] bytes, int start, int end) {
+      String className = running;
+      running = null;
+      int marker = indexOf(bytes, RUNNING, start, end);
+      if (marker >= 0) {
+        int nameStart = marker + RUNNING.length;
+        running = nameStart < end ? decode(bytes, nameStart, end) : null;
+        return null;
+      }
+      if (className == null || (marker = indexOf(bytes, TESTS_RUN, start, end)) < 0) {
+        return null;
+      }
+      // Tests run: [0-9]+, Failures: ([0-9]+), Errors: ([0-9]+),
+      int pos = skipDigits(bytes, marker + TESTS_RUN.length, end);
+      if (pos < 0 || !startsWith(bytes, FAILURES, pos, end)) {
+        return null;
+      }
+      int failuresStart = pos + FAILURES.length;
+      pos = skipDigits(bytes, failuresStart, end);
+      if (pos < 0 || !startsWith(bytes, ERRORS, pos, end)) {
+        return null;
+      }
+      int failuresEnd = pos;
+      int errorsStart = pos + ERRORS.length;
+      pos = skipDigits(bytes, errorsStart, end);
+      if (pos < 0 || pos == end || bytes[pos] != ',') {
+        return null;
+      }
+      if (isZero(bytes, failuresStart, failuresEnd) && isZero(bytes, errorsStart, pos)) {
+        return null;
+      }
+      return className;
+    }
+
+    private static int skipDigits(byte[] bytes, int pos, int end) {
+      int start = pos;
+      while (pos < end && bytes[pos] >= '0' && bytes[pos] <= '9') {
+        pos++;
+      }
+      return pos == start ? -1 : pos;
+    }
+
+    private static boolean isZero(byte[] bytes, int start, int end) {
+      return end - start == 1 && bytes[start] == '0';
+    }
+  }
+
+  static void parseGradle(byte[] bytes, int start, int end,
+      BiConsumer<String, String> failures) {
+    // ^\[.+\] (.+) > (.*) FAILED$
+    int failedStart = end - GRADLE_FAILED.length;
+    if (end - start < 14 || bytes[start] != '['
+        || !startsWith(bytes, GRADLE_FAILED, failedStart, end)) {
+      return;
+    }
+    int separator = indexOf(bytes, GRADLE_SEPARATOR, start + 1, failedStart);
+    if (separator < 0) {
+      return;
+    }
+    for (int bracket = separator - 2; bracket > start + 1; bracket--) {
+      if (bytes[bracket] == ']' && bytes[bracket + 1] == ' ') {
+        if (bracket + 2 < separator) {
+          failures.accept(decode(bytes, bracket + 2, separator),
+              gradleMethod(bytes, separator + GRADLE_SEPARATOR.length, failedStart));
+        }
+        return;
+      }
+    }
+  }
+
+  private static String gradleMethod(byte[] bytes, int start, int end) {
+    while (end > start && bytes[end - 1] == ' ') {
+      end--;
+    }
+    // JUnit platform methods are reported including the parameter list
+    if (end - start > 2 && bytes[end - 2] == '(' && bytes[end - 1] == ')') {
+      end -= 2;
+    }
+    return end > start ? decode(bytes, start, end) : null;
+  }
+
+  static void parseSurefire(byte[] bytes, int start, int end,
+      BiConsumer<String, String> failures) {
+    String className = parseSurefireClass(bytes, start, end);
+    if (className != null) {
+      failures.accept(className, null);
+    }
+  }
+
+  private static String parseSurefireClass(byte[] bytes, int start, int end) {
+    // Tests run: ... <<< FAILURE! - in some.Test
+    int marker = indexOf(bytes, SUREFIRE_MARKER, start, end);
+    if (marker < 0) {
+      return null;
+    }
+    int pos = marker + SUREFIRE_MARKER.length;
+    if (!startsWith(bytes, SUREFIRE_FAILURE, pos, end)
+        && !startsWith(bytes, SUREFIRE_ERROR, pos, end)
+        || indexOf(bytes, SUREFIRE_TESTS_RUN, start, marker) < 0) {
+      return null;
+    }
+    int in = indexOf(bytes, SUREFIRE_IN, pos, end);
+    if (in < 0) {
+      return null;
+    }
+    int nameStart = in + SUREFIRE_IN.length;
+    int nameEnd = end;
+    while (nameEnd > nameStart && bytes[nameEnd - 1] == ' ') {
+      nameEnd--;
+    }
+    return nameStart < nameEnd ? decode(bytes, nameStart, nameEnd) : null;
+  }
+
+  static int indexOf(byte[] bytes, byte value, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (bytes[i] == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  static int indexOf(byte[] bytes, byte[] pattern, int start, int end) {
+    byte first = pattern[0];
+    for (int i = start, last = end - pattern.length; i <= last; i++) {
+      if (bytes[i] == first && startsWith(bytes, pattern, i, end)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  static boolean startsWith(byte[] bytes, byte[] pattern, int start, int end) {
+    if (start < 0 || end - start < pattern.length) {
+      return false;
+    }
+    for (int i = 0; i < pattern.length; i++) {
+      if (bytes[start + i] != pattern[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String decode(byte[] bytes, int start, int end) {
+    return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+  }
+
+  private static byte[] ascii(String value) {
+    return value.getBytes(StandardCharsets.US_ASCII);
+  }
+}
@@ -0,0 +1,352 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+import org.junit.runner.Description;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.NoTestsRemainException;
+
+import junit.framework.AssertionFailedError;
+import junit.framework.JUnit4TestAdapter;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestResult;
+import junit.framework.TestSuite;
+
+/**
+ * Test running a single test a number of times in order to find out whether its failure is
+ * consistent or flaky. The repetitions are run against a private {@link TestResult}, where only the
+ * {@link Verdict} is reported as a single test to the result of the caller: consistently failing
+ * tests report their first failure, flaky tests report a failure containing their
+ * {@link Statistics} and fixed tests pass. The statistics are logged after each run as well.
+ *
+ * @author Patrick Reinhart
+ */
+public final class FlakyTest implements Test {
+  private final Test test;
+  private final int repetitions;
+  private final Mode mode;
+  private volatile Statistics statistics;
+
+  /**
+   * The way the test is repeated.
+   */
+  public enum Mode {
+    /** The same test instance is run repeatedly. */
+    WARM,
+    /** A fresh test instance is created for each repetition, if supported by the test. */
+    FRESH
+  }
+
+  /**
+   * The classification of a repeated test.
+   */
+  public enum Verdict {
+    /** All repetitions failed. */
+    FAILING,
+    /** Some of the repetitions failed. */
+    FLAKY,
+    /** All repetitions passed. */
+    FIXED
+  }
+
+  /**
+   * Creates a new flaky test running the given test repeatedly.
+   *
+   * @param test the test to be repeated, usually a single test method
+   * @param repetitions the number of repetitions
+   * @param mode the way the test is repeated
+   * @throws IllegalArgumentException if the number of repetitions is less than one
+   */
+  public FlakyTest(Test test, int repetitions, Mode mode) {
+    if (repetitions < 1) {
+      throw new IllegalArgumentException("Invalid number of repetitions " + repetitions);
+    }
+    this.test = test;
+    this.repetitions = repetitions;
+    this.mode = mode;
+  }
+
+  /**
+   * @return the repeated test
+   */
+  public Test getTest() {
+    return test;
+  }
+
+  /**
+   * @return the statistics of the last run or <code>null</code> if not run yet
+   */
+  public Statistics getStatistics() {
+    return statistics;
+  }
+
+  @Override
+  public int countTestCases() {
+    return 1;
+  }
+
+  @Override
+  public void run(TestResult result) {
+    result.startTest(this);
+    RepetitionResult repetitionResult = new RepetitionResult(result);
+    long[] durations = new long[repetitions];
+    int runs = 0;
+    int passes = 0;
+    while (runs < repetitions && !result.shouldStop()) {
+      Test repetition = runs == 0 || mode == Mode.WARM ? test : newInstance(test);
+      int failures = repetitionResult.failedRepetitions();
+      long start = System.nanoTime();
+      try {
+        repetition.run(repetitionResult);
+      } catch (RuntimeException e) {
+        repetitionResult.addError(repetition, e);
+      }
+      durations[runs++] = System.nanoTime() - start;
+      if (failures == repetitionResult.failedRepetitions()) {
+        passes++;
+      }
+    }
+    Statistics current = new Statistics(runs, passes, durations);
+    statistics = current;
+    Logger.getLogger(FlakyTest.class.getName())
+        .info(() -> String.format("%s: %s", test, current));
+    Verdict verdict = current.getVerdict();
+    Throwable failure = repetitionResult.firstFailure();
+    if (verdict == Verdict.FAILING && failure != null) {
+      if (failure instanceof AssertionFailedError) {
+        result.addFailure(this, (AssertionFailedError) failure);
+      } else {
+        result.addError(this, failure);
+      }
+    } else if (verdict == Verdict.FLAKY) {
+      result.addFailure(this, new AssertionFailedError(String.format("%s is flaky: %s", test,
+          current)));
+    }
+    result.endTest(this);
+  }
+
+  /**
+   * Creates a fresh instance of the given test. JUnit 3 test cases are recreated using their
+   * method name and JUnit 4 adapters of a single test method are recreated using the same method
+   * filter, whereas all other tests are reused.
+   */
+  static Test newInstance(Test test) {
+    if (test instanceof TestCase) {
+      TestCase testCase = (TestCase) test;
+      return TestSuite.createTest(testCase.getClass(), testCase.getName());
+    } else if (test instanceof JUnit4TestAdapter) {
+      JUnit4TestAdapter adapter = (JUnit4TestAdapter) test;
+      List<Description> methods = adapter.getDescription().getChildren();
+      if (methods.size() == 1 && methods.get(0).isTest()) {
+        JUnit4TestAdapter fresh = TestLoader.newAdapter(adapter.getTestClass());
+        try {
+          fresh.filter(Filter.matchMethodDescription(methods.get(0)));
+          return fresh;
+        } catch (NoTestsRemainException e) {
+          // not filterable, reuse the existing adapter
+        }
+      }
+    }
+    return test;
+  }
+
+  @Override
+  public String toString() {
+    return test.toString();
+  }
+
+  /**
+   * Test result of the repetitions, counting the failed repetitions and keeping the first failure.
+   */
+  static final class RepetitionResult extends TestResult {
+    private final TestResult target;
+    private int failedRepetitions;
+    private boolean failed;
+    private Throwable firstFailure;
+
+    RepetitionResult(TestResult target) {
+      this.target = target;
+    }
+
+    @Override
+    public synchronized void addError(Test test, Throwable e) {
+      failed(e);
+    }
+
+    @Override
+    public synchronized void addFailure(Test test, AssertionFailedError e) {
+      failed(e);
+    }
+
+    private void failed(Throwable e) {
+      // a repetition reporting multiple failures is counted once
+      if (!failed) {
+        failed = true;
+        failedRepetitions++;
+      }
+      if (firstFailure == null) {
+        firstFailure = e;
+      }
+    }
+
+    synchronized int failedRepetitions() {
+      return failedRepetitions;
+    }
+
+    synchronized Throwable firstFailure() {
+      return firstFailure;
+    }
+
+    @Override
+    public synchronized void startTest(Test test) {
+      failed = false;
+    }
+
+    @Override
+    public void endTest(Test test) {
+      // the repetitions are not reported individually
+    }
+
+    @Override
+    public boolean shouldStop() {
+      return target.shouldStop();
+    }
+  }
+
+  /**
+   * The pass rate and timing statistics of the repetitions of a test.
+   */
+  public static final class Statistics {
+    private final int runs;
+    private final int passes;
+    private final long minNanos;
+    private final long maxNanos;
+    private final double meanNanos;
+    private final double varianceNanos;
+
+    Statistics(int runs, int passes, long[] durations) {
+      this.runs = runs;
+      this.passes = passes;
+      long min = runs == 0 ? 0 : Long.MAX_VALUE;
+      long max = 0;
+      double mean = 0;
+      double squares = 0;
+      for (int i = 0; i < runs; i++) {
+        long duration = durations[i];
+        min = Math.min(min, duration);
+        max = Math.max(max, duration);
+        // Welford's online algorithm
+        double delta = duration - mean;
+        mean += delta / (i + 1);
+        squares += delta * (duration - mean);
+      }
+      this.minNanos = min;
+      this.maxNanos = max;
+      this.meanNanos = mean;
+      this.varianceNanos = runs > 1 ? squares / (runs - 1) : 0;
+    }
+
+    /**
+     * @return the number of repetitions run
+     */
+    public int getRuns() {
+      return runs;
+    }
+
+    /**
+     * @return the number of passed repetitions
+     */
+    public int getPasses() {
+      return passes;
+    }
+
+    /**
+     * @return the ratio of passed repetitions between <code>0</code> and <code>1</code>
+     */
+    public double getPassRate() {
+      return runs == 0 ? 0 : (double) passes / runs;
+    }
+
+    /**
+     * @return the classification based on the passed repetitions
+     */
+    public Verdict getVerdict() {
+      if (passes == 0) {
+        return Verdict.FAILING;
+      }
+      return passes == runs ? Verdict.FIXED : Verdict.FLAKY;
+    }
+
+    /**
+     * @return the shortest duration of a repetition in nanoseconds
+     */
+    public long getMinNanos() {
+      return minNanos;
+    }
+
+    /**
+     * @return the longest duration of a repetition in nanoseconds
+     */
+    public long getMaxNanos() {
+      return maxNanos;
+    }
+
+    /**
+     * @return the mean duration of the repetitions in nanoseconds
+     */
+    public double getMeanNanos() {
+      return meanNanos;
+    }
+
+    /**
+     * @return the sample variance of the repetition durations in square nanoseconds
+     */
+    public double getVarianceNanos() {
+      return varianceNanos;
+    }
+
+    /**
+     * @return the sample standard deviation of the repetition durations in nanoseconds
+     */
+    public double getStandardDeviationNanos() {
+      return Math.sqrt(varianceNanos);
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.ROOT,
+          "%s, %d of %d passed (%.1f%%), mean %.3f ms, stddev %.3f ms, min %.3f ms, max %.3f ms",
+          getVerdict(), Integer.valueOf(passes), Integer.valueOf(runs),
+          Double.valueOf(getPassRate() * 100), Double.valueOf(meanNanos / 1e6),
+          Double.valueOf(getStandardDeviationNanos() / 1e6), Double.valueOf(minNanos / 1e6),
+          Double.valueOf(maxNanos / 1e6));
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Helper class to repeat all failed tests a number of times in the same JVM, in order to find out
+ * whether they are consistently failing, flaky or fixed. The failed tests are read the same way
+ * as done by {@link RepeatFailedTests} using the `error.log.url` and `error.suite.files` system
+ * properties, where each failed test method is repeated on its own, see {@link FlakyTest}.
+ *
+ * The number of repetitions defaults to `10` and can be set using the `flaky.repetitions` system
+ * property. The `flaky.mode` system property defines whether the same test instance is repeated
+ * (`warm`) or a fresh instance is created for each repetition (`fresh`, the default):
+ *
+ * `-Derror.suite.files=build/test-results -Dflaky.repetitions=20 -Dflaky.mode=warm`
+ *
+ * The statistics of each repeated test, containing the pass rate and the timing variance, are
+ * logged after the test has been run. The tests are always run sequentially, so that they do not
+ * influence the timing of each other.
+ *
+ * @author Patrick Reinhart
+ */
+public class FlakyTestDetector {
+  static final String REPETITIONS_PROPERTY = "flaky.repetitions";
+  static final String MODE_PROPERTY = "flaky.mode";
+
+  /**
+   * @return the builded test suite repeating the failed tests
+   */
+  public static Test suite() {
+    Logger logger = Logger.getLogger(FlakyTestDetector.class.getName());
+    TestSuite failedSuite = new TestSuite("Failed JUnit tests");
+    RepeatFailedTests.addTests(RepeatFailedTests.readFailedTests(logger), logger, failedSuite);
+    FlakyTest.Mode mode = FlakyTest.Mode.valueOf(
+        System.getProperty(MODE_PROPERTY, FlakyTest.Mode.FRESH.name()).trim()
+            .toUpperCase(Locale.ROOT));
+    return newSuite("Flaky JUnit tests", failedSuite,
+        Integer.getInteger(REPETITIONS_PROPERTY, 10).intValue(), mode);
+  }
+
+  /**
+   * Creates a suite repeating each test method of the given suite on its own.
+   *
+   * @param name the suite name
+   * @param tests the tests to be repeated
+   * @param repetitions the number of repetitions of each test method
+   * @param mode the way the tests are repeated
+   * @return the suite containing a {@link FlakyTest} for each test method
+   */
+  static TestSuite newSuite(String name, TestSuite tests, int repetitions, FlakyTest.Mode mode) {
+    List<Test> units = new ArrayList<>();
+    ParallelTestSuite.collectUnits(tests, ParallelTestSuite.Granularity.METHOD, units);
+    TestSuite suite = new TestSuite(name);
+    for (Test unit : units) {
+      suite.addTest(new FlakyTest(unit, repetitions, mode));
+    }
+    return suite;
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import junit.framework.AssertionFailedError;
+import junit.framework.Test;
+import junit.framework.TestListener;
+import junit.framework.TestResult;
+import junit.framework.TestSuite;
+
+/**
+ * Helper class to execute only the tests impacted by a change, being the test classes depending
+ * directly or transitively on one of the changed classes, see {@link TestImpactIndex}.
+ *
+ * The changes are given by the `test.impact.changes` system property containing comma separated
+ * class names, source files or class files, or a file containing one change on each line:
+ *
+ * `-Dtest.impact.changes=net.reini.demo.Some,src/main/java/net/reini/demo/Other.java`
+ * `-Dtest.impact.changes=@changes.txt`
+ *
+ * Without the `test.impact.changes` system property, the classes changed since the previous run
+ * are used, which are all classes on the first run. The index is stored once the tests have been
+ * run, where the impacted test classes having failed or not being run remain changed classes for
+ * the next run. The index file is given by the `test.impact.index` system property, defaulting
+ * to `testimpact.index` within the current user directory. The indexed class output directories
+ * default to the directories of the class path and can be set using the comma separated
+ * `test.impact.roots` system property.
+ *
+ * Only the test classes of the shard defined by the `test.shard` system property are loaded, see
+ * {@link TestSharding}. The tests are run concurrently if the `test.parallel` system property is
+ * set, see {@link ParallelTestSuite}. If the `test.history` system property is set, the test
+ * results are recorded and recently failing and fast tests are run first.
+ *
+ * @author Patrick Reinhart
+ */
+public class ImpactedTestSuite {
+
+  /**
+   * @return the builded test suite containing the tests impacted by the changes
+   */
+  public static Test suite() {
+    Logger logger = Logger.getLogger(ImpactedTestSuite.class.getName());
+    TestSuite suite = ParallelTestSuite.newSuite("Impacted JUnit tests");
+    TestSuite rootSuite = suite;
+    TestHistory history = TestHistory.fromSystemProperties();
+    ClassLoader classLoader = ImpactedTestSuite.class.getClassLoader();
+    try {
+      Path indexFile = TestImpactIndex.indexFile();
+      TestImpactIndex index = TestImpactIndex.load(indexFile, TestImpactIndex.roots(), logger);
+      Set<String> changed = index.update(new TestClassClassifier(classLoader));
+      List<String> changes = TestImpactIndex.changes();
+      if (changes != null) {
+        changed = index.resolve(changes, logger);
+      }
+      List<TestClassEntry> entries = index.impactedTests(changed);
+      int changedCount = changed.size();
+      logger.info(() -> String.format("%d changed of %d classes impact %d test classes",
+          changedCount, index.size(), entries.size()));
+      try (TestLoader loader = new TestLoader(classLoader, true, TestLoader.severe(logger))) {
+        TestHistory.addTests(history, loader.load(entries), suite);
+      }
+      rootSuite = new IndexingTestSuite(suite, index, indexFile, entries, logger);
+    } catch (IOException e) {
+      logger.log(Level.SEVERE, "Error determining the impacted tests", e);
+    }
+    return history == null ? rootSuite : history.recording(rootSuite);
+  }
+
+  /**
+   * Suite storing the index after its tests have been run, where the given test classes not having
+   * passed and any other test class having failed are removed from the index, so that they are
+   * impacted by the next run again.
+   */
+  static final class IndexingTestSuite extends TestSuite {
+    private final TestImpactIndex index;
+    private final Path indexFile;
+    private final List<TestClassEntry> entries;
+    private final Logger logger;
+
+    IndexingTestSuite(TestSuite suite, TestImpactIndex index, Path indexFile,
+        List<TestClassEntry> entries, Logger logger) {
+      super(suite.getName());
+      this.index = index;
+      this.indexFile = indexFile;
+      this.entries = entries;
+      this.logger = logger;
+      addTest(suite);
+    }
+
+    @Override
+    public void run(TestResult result) {
+      OutcomeListener listener = new OutcomeListener();
+      result.addListener(listener);
+      try {
+        super.run(result);
+      } finally {
+        result.removeListener(listener);
+        Set<String> notPassed = listener.failed();
+        for (TestClassEntry entry : entries) {
+          if (!listener.passed(entry.className)) {
+            notPassed.add(entry.className);
+          }
+        }
+        index.invalidate(notPassed);
+        try {
+          index.store(indexFile);
+        } catch (IOException e) {
+          logger.log(Level.WARNING, "Unable to store test impact index", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Listener recording the test classes having been started and those having failed.
+   */
+  static final class OutcomeListener implements TestListener {
+    private final Set<String> started = new HashSet<>();
+    private final Set<String> failed = new HashSet<>();
+
+    @Override
+    public synchronized void startTest(Test test) {
+      started.add(TestHistory.Recorder.name(test)[0]);
+    }
+
+    @Override
+    public synchronized void addError(Test test, Throwable e) {
+      failed.add(TestHistory.Recorder.name(test)[0]);
+    }
+
+    @Override
+    public synchronized void addFailure(Test test, AssertionFailedError e) {
+      failed.add(TestHistory.Recorder.name(test)[0]);
+    }
+
+    @Override
+    public void endTest(Test test) {
+      // the outcome is known by the start and failure events
+    }
+
+    synchronized Set<String> failed() {
+      return new HashSet<>(failed);
+    }
+
+    synchronized boolean passed(String className) {
+      return started.contains(className) && !failed.contains(className);
+    }
+  }
+}
@@ -0,0 +1,347 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decorator of a {@link ExecutorService} recording the time tasks are waiting to be run, the time
+ * tasks are running, the number of rejected and failed tasks and the maximum number of tasks
+ * running at the same time. All tasks, including those submitted using the
+ * {@link ExecutorService#submit(Runnable)} and <code>invoke</code> methods, are passed on to the
+ * {@link ExecutorService#execute(Runnable)} method of the decorated executor service. Tasks failing
+ * with an exception are counted as failed, regardless of whether they were executed or submitted.
+ *
+ * The counters are striped in order to keep the overhead of recording low even with many
+ * concurrent tasks. A {@link Snapshot} of the values can be taken at any time, for example at the
+ * end of a test or suite.
+ *
+ * @author Patrick Reinhart
+ */
+public final class InstrumentedExecutorService extends AbstractExecutorService {
+  private final ExecutorService delegate;
+  private final LongAdder submitted;
+  private final LongAdder completed;
+  private final LongAdder failed;
+  private final LongAdder rejected;
+  private final AtomicInteger active;
+  private final AtomicInteger maxActive;
+  private final LatencyHistogram queueWait;
+  private final LatencyHistogram runTime;
+
+  /**
+   * Creates a new instrumented executor service decorating the given executor service.
+   *
+   * @param delegate the executor service running the tasks
+   * @return the newly created instance
+   */
+  public static InstrumentedExecutorService wrap(ExecutorService delegate) {
+    return new InstrumentedExecutorService(delegate);
+  }
+
+  private InstrumentedExecutorService(ExecutorService delegate) {
+    this.delegate = Objects.requireNonNull(delegate);
+    submitted = new LongAdder();
+    completed = new LongAdder();
+    failed = new LongAdder();
+    rejected = new LongAdder();
+    active = new AtomicInteger();
+    maxActive = new AtomicInteger();
+    queueWait = new LatencyHistogram();
+    runTime = new LatencyHistogram();
+  }
+
+  /**
+   * @return the decorated executor service
+   */
+  public ExecutorService getDelegate() {
+    return delegate;
+  }
+
+  /**
+   * @return a snapshot of the currently recorded values
+   */
+  public Snapshot snapshot() {
+    return new Snapshot(submitted.sum(), completed.sum(), failed.sum(), rejected.sum(),
+        active.get(), maxActive.get(), queueWait.snapshot(), runTime.snapshot());
+  }
+
+  /**
+   * Removes all recorded values, where the maximum number of running tasks is reset to the number
+   * of tasks currently running.
+   */
+  public void reset() {
+    submitted.reset();
+    completed.reset();
+    failed.reset();
+    rejected.reset();
+    maxActive.set(active.get());
+    queueWait.reset();
+    runTime.reset();
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    Objects.requireNonNull(command);
+    long queued = System.nanoTime();
+    submitted.increment();
+    try {
+      delegate.execute(new InstrumentedTask(command, queued));
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw e;
+    }
+  }
+
+  @Override
+  protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+    return new InstrumentedFuture<>(Executors.callable(runnable, value));
+  }
+
+  @Override
+  protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+    return new InstrumentedFuture<>(callable);
+  }
+
+  private void run(Runnable command, long queued) {
+    long started = System.nanoTime();
+    queueWait.record(started - queued);
+    maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+    try {
+      command.run();
+    } catch (RuntimeException | Error e) {
+      failed.increment();
+      throw e;
+    } finally {
+      active.decrementAndGet();
+      runTime.record(System.nanoTime() - started);
+      completed.increment();
+    }
+  }
+
+  @Override
+  public void shutdown() {
+    delegate.shutdown();
+  }
+
+  /**
+   * Shuts down the decorated executor service.
+   *
+   * @return the tasks never having been run, as passed to this executor service
+   */
+  @Override
+  public List<Runnable> shutdownNow() {
+    List<Runnable> tasks = delegate.shutdownNow();
+    List<Runnable> commands = new ArrayList<>(tasks.size());
+    for (Runnable task : tasks) {
+      commands.add(task instanceof InstrumentedTask ? ((InstrumentedTask) task).command : task);
+    }
+    return commands;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return delegate.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return delegate.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return delegate.awaitTermination(timeout, unit);
+  }
+
+  /**
+   * Task recording the values of a command passed on to the decorated executor service.
+   */
+  private final class InstrumentedTask implements Runnable {
+    final Runnable command;
+    private final long queued;
+
+    InstrumentedTask(Runnable command, long queued) {
+      this.command = command;
+      this.queued = queued;
+    }
+
+    @Override
+    public void run() {
+      InstrumentedExecutorService.this.run(command, queued);
+    }
+  }
+
+  /**
+   * Future counting the submitted tasks completing with an exception as failed.
+   */
+  private final class InstrumentedFuture<V> extends FutureTask<V> {
+    InstrumentedFuture(Callable<V> callable) {
+      super(callable);
+    }
+
+    @Override
+    protected void setException(Throwable t) {
+      failed.increment();
+      super.setException(t);
+    }
+  }
+
+  /**
+   * Immutable snapshot of the recorded executor values.
+   */
+  public static final class Snapshot {
+    private final long submitted;
+    private final long completed;
+    private final long failed;
+    private final long rejected;
+    private final int active;
+    private final int maxActive;
+    private final LatencyHistogram.Snapshot queueWait;
+    private final LatencyHistogram.Snapshot runTime;
+
+    Snapshot(long submitted, long completed, long failed, long rejected, int active,
+        int maxActive, LatencyHistogram.Snapshot queueWait, LatencyHistogram.Snapshot runTime) {
+      this.submitted = submitted;
+      this.completed = completed;
+      this.failed = failed;
+      this.rejected = rejected;
+      this.active = active;
+      this.maxActive = maxActive;
+      this.queueWait = queueWait;
+      this.runTime = runTime;
+    }
+
+    /**
+     * @return the number of submitted tasks, including the rejected ones
+     */
+    public long getSubmitted() {
+      return submitted;
+    }
+
+    /**
+     * @return the number of completed tasks, including the failed ones
+     */
+    public long getCompleted() {
+      return completed;
+    }
+
+    /**
+     * @return the number of tasks having thrown an exception
+     */
+    public long getFailed() {
+      return failed;
+    }
+
+    /**
+     * @return the number of rejected tasks
+     */
+    public long getRejected() {
+      return rejected;
+    }
+
+    /**
+     * @return the number of tasks running at the time of the snapshot
+     */
+    public int getActive() {
+      return active;
+    }
+
+    /**
+     * @return the maximum number of tasks having been running at the same time
+     */
+    public int getMaxActive() {
+      return maxActive;
+    }
+
+    /**
+     * @return the time the tasks were waiting to be run
+     */
+    public LatencyHistogram.Snapshot getQueueWait() {
+      return queueWait;
+    }
+
+    /**
+     * @return the time the tasks were running
+     */
+    public LatencyHistogram.Snapshot getRunTime() {
+      return runTime;
+    }
+
+    /**
+     * Exports the snapshot values as a map of flat keys to numbers, where durations are given in
+     * nanoseconds.
+     *
+     * @return the snapshot values
+     */
+    public Map<String, Long> toMap() {
+      Map<String, Long> values = new LinkedHashMap<>();
+      values.put("submitted", Long.valueOf(submitted));
+      values.put("completed", Long.valueOf(completed));
+      values.put("failed", Long.valueOf(failed));
+      values.put("rejected", Long.valueOf(rejected));
+      values.put("active", Long.valueOf(active));
+      values.put("maxActive", Long.valueOf(maxActive));
+      export("queueWait", queueWait, values);
+      export("runTime", runTime, values);
+      return values;
+    }
+
+    private static void export(String prefix, LatencyHistogram.Snapshot histogram,
+        Map<String, Long> values) {
+      values.put(prefix + ".count", Long.valueOf(histogram.getCount()));
+      values.put(prefix + ".min", Long.valueOf(histogram.getMin().toNanos()));
+      values.put(prefix + ".mean", Long.valueOf(histogram.getMean().toNanos()));
+      values.put(prefix + ".p50", Long.valueOf(histogram.getPercentile(50).toNanos()));
+      values.put(prefix + ".p90", Long.valueOf(histogram.getPercentile(90).toNanos()));
+      values.put(prefix + ".p99", Long.valueOf(histogram.getPercentile(99).toNanos()));
+      values.put(prefix + ".max", Long.valueOf(histogram.getMax().toNanos()));
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "submitted=%d completed=%d failed=%d rejected=%d active=%d maxActive=%d"
+              + " queueWait[%s] runTime[%s]",
+          Long.valueOf(submitted), Long.valueOf(completed), Long.valueOf(failed),
+          Long.valueOf(rejected), Integer.valueOf(active), Integer.valueOf(maxActive), queueWait,
+          runTime);
+    }
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import java.util.Set;
+
+import junit.framework.Test;
+import junit.framework.TestResult;
+
+/**
+ * Test that defers loading of the test class and the creation of its test instances until it is
+ * actually run. Only the class name and the precomputed test count are kept, and the created test
+ * instances are released after the run. This keeps the heap usage of large suites flat, as only
+ * the fixtures of the currently running test class are referenced.
+ *
+ * @author Patrick Reinhart
+ */
+public final class LazyTest implements Test {
+  private final String className;
+  private final TestClassKind kind;
+  private final ClassLoader classLoader;
+  private final Set<String> methodNames;
+  private final int testCount;
+
+  LazyTest(String className, TestClassKind kind, ClassLoader classLoader, int testCount) {
+    this(className, kind, classLoader, null, testCount);
+  }
+
+  LazyTest(String className, TestClassKind kind, ClassLoader classLoader, Set<String> methodNames,
+      int testCount) {
+    this.className = className;
+    this.kind = kind;
+    this.classLoader = classLoader;
+    this.methodNames = methodNames;
+    this.testCount = testCount;
+  }
+
+  /**
+   * @return the name of the test class
+   */
+  public String getClassName() {
+    return className;
+  }
+
+  @Override
+  public int countTestCases() {
+    return testCount;
+  }
+
+  @Override
+  public void run(TestResult result) {
+    Test test;
+    try {
+      test = TestLoader.createTest(Class.forName(className, false, classLoader), kind,
+          methodNames);
+    } catch (Throwable t) {
+      result.startTest(this);
+      result.addError(this, t);
+      result.endTest(this);
+      return;
+    }
+    test.run(result);
+  }
+
+  @Override
+  public String toString() {
+    return className;
+  }
+}
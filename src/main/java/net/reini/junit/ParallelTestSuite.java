@@ -0,0 +1,318 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import java.lang.reflect.AnnotatedElement;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.runner.Description;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.NoTestsRemainException;
+
+import junit.framework.AssertionFailedError;
+import junit.framework.JUnit4TestAdapter;
+import junit.framework.Test;
+import junit.framework.TestResult;
+import junit.framework.TestSuite;
+
+/**
+ * Test suite running its tests concurrently on an {@link ExecutorService}. The tests are run
+ * either per test class or per test method, where the test methods of JUnit 4 test classes are
+ * run using a filtered {@link JUnit4TestAdapter} each. Lazy tests and JUnit 4 test classes having
+ * class level fixtures, such as `@BeforeClass`, `@AfterClass` or `@ClassRule` members, are always
+ * run per test class, as the fixtures would be run for each test method otherwise.
+ *
+ * The adapters of JUnit 4 test classes created by the suite builders use their own adapter cache,
+ * as the default cache is shared by all adapters and not thread safe. Adapters being added to the
+ * suite directly should be created using their own cache as well.
+ *
+ * All events of the concurrently running tests are passed on to the {@link TestResult} of the
+ * caller while holding its lock, so that listeners are called serialized, one event at a time.
+ *
+ * The suite builders create a parallel suite if the `test.parallel` system property is set to
+ * either `class` or `method`. The number of threads defaults to the number of available
+ * processors and can be set using the `test.parallel.threads` system property, where a single
+ * thread runs the tests using the {@link SameThreadExecutorService}:
+ *
+ * `-Dtest.parallel=method -Dtest.parallel.threads=4`
+ *
+ * @author Patrick Reinhart
+ */
+public class ParallelTestSuite extends TestSuite {
+  static final String PARALLEL_PROPERTY = "test.parallel";
+  static final String THREADS_PROPERTY = "test.parallel.threads";
+
+  private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+  /**
+   * The unit of the tests being run concurrently.
+   */
+  public enum Granularity {
+    /** All tests of a test class are run together. */
+    CLASS,
+    /** Each test method is run on its own. */
+    METHOD
+  }
+
+  private final ExecutorService executor;
+  private final int threads;
+  private final Granularity granularity;
+
+  /**
+   * Creates a new parallel suite running its tests on the given executor service, which is not
+   * shut down by the suite.
+   *
+   * @param name the suite name
+   * @param executor the executor service running the tests
+   * @param granularity the unit of the tests being run concurrently
+   */
+  public ParallelTestSuite(String name, ExecutorService executor, Granularity granularity) {
+    super(name);
+    this.executor = executor;
+    this.threads = 0;
+    this.granularity = granularity;
+  }
+
+  /**
+   * Creates a new parallel suite running its tests on a thread pool of the given size, which is
+   * created for each run.
+   *
+   * @param name the suite name
+   * @param threads the number of threads
+   * @param granularity the unit of the tests being run concurrently
+   */
+  public ParallelTestSuite(String name, int threads, Granularity granularity) {
+    super(name);
+    this.executor = null;
+    this.threads = threads;
+    this.granularity = granularity;
+  }
+
+  /**
+   * Creates a new suite as defined by the `test.parallel` system property.
+   *
+   * @param name the suite name
+   * @return a parallel suite if defined, a plain test suite otherwise
+   */
+  public static TestSuite newSuite(String name) {
+    String parallel = System.getProperty(PARALLEL_PROPERTY, "").trim();
+    if (parallel.isEmpty()) {
+      return new TestSuite(name);
+    }
+    Granularity granularity = Granularity.valueOf(parallel.toUpperCase(Locale.ROOT));
+    return new ParallelTestSuite(name,
+        Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()),
+        granularity);
+  }
+
+  /**
+   * @return the unit of the tests being run concurrently
+   */
+  public Granularity getGranularity() {
+    return granularity;
+  }
+
+  @Override
+  public void run(TestResult result) {
+    List<Test> units = new ArrayList<>();
+    collectUnits(this, granularity, units);
+    if (executor != null) {
+      run(units, executor, result);
+    } else if (threads <= 1) {
+      run(units, SameThreadExecutorService.create(), result);
+    } else {
+      ExecutorService pool = Executors.newFixedThreadPool(threads,
+          new DaemonThreadFactory(THREAD_NUMBER, "test-runner-"));
+      try {
+        run(units, pool, result);
+      } finally {
+        pool.shutdownNow();
+      }
+    }
+  }
+
+  private static void run(List<Test> units, ExecutorService executor, TestResult result) {
+    SerializingTestResult unitResult = new SerializingTestResult(result);
+    List<Future<?>> futures = new ArrayList<>(units.size());
+    for (Test unit : units) {
+      futures.add(executor.submit(() -> {
+        if (!unitResult.shouldStop()) {
+          try {
+            unit.run(unitResult);
+          } catch (RuntimeException e) {
+            addError(unitResult, unit, e);
+          }
+        }
+      }));
+    }
+    for (int i = 0; i < futures.size(); i++) {
+      try {
+        futures.get(i).get();
+      } catch (ExecutionException e) {
+        addError(unitResult, units.get(i), e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        for (Future<?> future : futures) {
+          future.cancel(true);
+        }
+        result.stop();
+        return;
+      }
+    }
+  }
+
+  private static void addError(TestResult result, Test unit, Throwable e) {
+    result.startTest(unit);
+    result.addError(unit, e);
+    result.endTest(unit);
+  }
+
+  /**
+   * Collects the tests of the given suite being run on their own at the given granularity.
+   */
+  static void collectUnits(TestSuite suite, Granularity granularity, List<Test> units) {
+    for (Enumeration<Test> tests = suite.tests(); tests.hasMoreElements();) {
+      Test test = tests.nextElement();
+      if (test instanceof TestSuite && !TestSharding.isTestClassSuite((TestSuite) test)) {
+        collectUnits((TestSuite) test, granularity, units);
+      } else if (granularity == Granularity.METHOD && test instanceof TestSuite) {
+        for (Enumeration<Test> methods = ((TestSuite) test).tests(); methods.hasMoreElements();) {
+          units.add(methods.nextElement());
+        }
+      } else if (granularity == Granularity.METHOD && test instanceof JUnit4TestAdapter) {
+        collectMethods((JUnit4TestAdapter) test, units);
+      } else {
+        units.add(test);
+      }
+    }
+  }
+
+  private static void collectMethods(JUnit4TestAdapter adapter, List<Test> units) {
+    if (hasClassFixtures(adapter.getTestClass())) {
+      units.add(adapter);
+      return;
+    }
+    List<Description> methods = adapter.getDescription().getChildren();
+    for (Description method : methods) {
+      if (!method.isTest()) {
+        // nested suites, such as parameterized tests, are run per class
+        units.add(adapter);
+        return;
+      }
+    }
+    for (Description method : methods) {
+      JUnit4TestAdapter methodAdapter = TestLoader.newAdapter(adapter.getTestClass());
+      try {
+        methodAdapter.filter(Filter.matchMethodDescription(method));
+        units.add(methodAdapter);
+      } catch (NoTestsRemainException e) {
+        // the method is not run by the class runner
+      }
+    }
+  }
+
+  /**
+   * Checks whether the given class or any of its super classes declares class level fixtures.
+   */
+  static boolean hasClassFixtures(Class<?> testClass) {
+    for (Class<?> c = testClass; c != null && c != Object.class; c = c.getSuperclass()) {
+      if (hasClassFixture(c.getDeclaredMethods()) || hasClassFixture(c.getDeclaredFields())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean hasClassFixture(AnnotatedElement[] members) {
+    for (AnnotatedElement member : members) {
+      if (member.isAnnotationPresent(BeforeClass.class)
+          || member.isAnnotationPresent(AfterClass.class)
+          || member.isAnnotationPresent(ClassRule.class)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Test result passing all events on to the target result while holding its lock.
+   */
+  static final class SerializingTestResult extends TestResult {
+    private final TestResult target;
+
+    SerializingTestResult(TestResult target) {
+      this.target = target;
+    }
+
+    @Override
+    public void addError(Test test, Throwable e) {
+      synchronized (target) {
+        target.addError(test, e);
+      }
+    }
+
+    @Override
+    public void addFailure(Test test, AssertionFailedError e) {
+      synchronized (target) {
+        target.addFailure(test, e);
+      }
+    }
+
+    @Override
+    public void startTest(Test test) {
+      synchronized (target) {
+        target.startTest(test);
+      }
+    }
+
+    @Override
+    public void endTest(Test test) {
+      synchronized (target) {
+        target.endTest(test);
+      }
+    }
+
+    @Override
+    public boolean shouldStop() {
+      return target.shouldStop();
+    }
+
+    @Override
+    public void stop() {
+      target.stop();
+    }
+  }
+}
@@ -32,21 +32,44 @@ package net.reini.junit;
 
 import java.io.File;
 import java.io.FilenameFilter;
-import java.lang.reflect.Modifier;
+import java.io.IOException;
+import java.lang.module.ModuleReader;
+import java.lang.module.ResolvedModule;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import junit.framework.JUnit4TestAdapter;
-import junit.framework.TestCase;
+import junit.framework.Test;
 import junit.framework.TestSuite;
+import net.reini.junit.TestClassScanner.PackageNode;
 
 /**
- * Helper class that builds test suite content based on a class file location
+ * Helper class that builds test suite content based on a class file location. The test classes
+ * may reside in a class output directory, a jar file or a module on the module path.
+ * 
+ * The results of the directory scan are kept in an index file next to the class path root
+ * directory (for example `build/classes/java/test.testindex`), so that only changed directories
+ * and class files need to be looked at on the next run. The index file location can be changed
+ * using the `recursive.scan.index` system property, where the value `none` disables the index:
+ * 
+ * `-Drecursive.scan.index=*dir/somefile*`
+ * 
+ * Only the test classes of the shard defined by the `test.shard` system property are loaded, see
+ * {@link TestSharding}. The tests are run concurrently if the `test.parallel` system property is
+ * set, see {@link ParallelTestSuite}. If the `test.history` system property is set, the test
+ * results are recorded and recently failing and fast tests are run first.
  * 
  * @author Patrick Reinhart
  */
@@ -80,7 +103,7 @@ public abstract class RecursiveTestSuiteBuilder {
 
   /**
    * Builds all recursive test suites starting in the directory of the given
-   * <code>classInPackage</code>
+   * <code>classInPackage</code>, being a class output directory, a jar file or a named module
    * 
    * @param classInPackage specifies a class file to get the package for
    * @param rootSuite the root test suite
@@ -88,19 +111,158 @@ public abstract class RecursiveTestSuiteBuilder {
    */
   public static void build(Class<?> classInPackage, TestSuite rootSuite) throws Exception {
     String testSuiteClassName = classInPackage.getName();
-    File suiteFile = new File(classInPackage.getClassLoader()
-        .getResource(testSuiteClassName.replace('.', '/').concat(".class")).getFile());
+    ClassLoader loader = classInPackage.getClassLoader();
     Package basePackage = classInPackage.getPackage();
     String basePackageName = basePackage == null ? "" : basePackage.getName();
-    File baseDir = suiteFile.getParentFile();
     String suiteName = basePackageName.isEmpty() ? "[default package]" : basePackageName;
-    TestSuite suite = new TestSuite(suiteName);
-    rootSuite.addTest(suite);
-    build(baseDir.getAbsolutePath().length(), basePackageName, baseDir, getFilenameFilter(), suite);
+    TestSuite suite = ParallelTestSuite.newSuite(suiteName);
+    TestHistory history = TestHistory.fromSystemProperties();
+    rootSuite.addTest(history == null ? suite : history.recording(suite));
+    Module module = classInPackage.getModule();
+    if (module.isNamed() && module.getLayer() != null) {
+      build(module, basePackageName, loader, suite);
+    } else {
+      build(loader.getResource(testSuiteClassName.replace('.', '/').concat(".class")),
+          basePackageName, loader, suite);
+    }
+  }
+
+  /**
+   * Builds all recursive test suites starting in the given <code>baseDir</code>. The directory
+   * tree is walked using NIO, where all sub directories are scanned in parallel. The class files
+   * are pre-screened by reading their header, so that only actual test classes are loaded (without
+   * being initialized). The resulting suite tree and ordering are the same as the ones of
+   * {@link #build(int, String, File, FilenameFilter, TestSuite)} using the default file name
+   * filter.
+   * 
+   * @param baseDir the directory corresponding to the <code>basePackage</code>
+   * @param basePackage the base package name
+   * @param rootSuite the root test suite
+   * @throws Exception if the the suite could not be built
+   */
+  public static void build(Path baseDir, String basePackage, TestSuite rootSuite)
+      throws Exception {
+    build(baseDir, basePackage, getClassLoader(), rootSuite);
+  }
+
+  /**
+   * Builds the test suites for the location of the given class file resource, being either a
+   * directory or a jar file. Jar files are opened as zip file system, where only the central
+   * directory is read and nothing gets extracted.
+   */
+  static void build(URL classResource, String basePackage, ClassLoader loader,
+      TestSuite rootSuite) throws Exception {
+    switch (classResource.getProtocol()) {
+      case "file":
+        build(Paths.get(classResource.toURI()).getParent(), basePackage, loader, rootSuite);
+        break;
+      case "jar":
+        URL jarFile = ((JarURLConnection) classResource.openConnection()).getJarFileURL();
+        try (FileSystem jarFileSystem = FileSystems.newFileSystem(Paths.get(jarFile.toURI()))) {
+          build(jarFileSystem.getPath("/".concat(basePackage.replace('.', '/'))), basePackage,
+              loader, rootSuite);
+        }
+        break;
+      default:
+        throw new IOException("Unsupported test class location ".concat(classResource.toString()));
+    }
+  }
+
+  /**
+   * Builds the test suites for all test classes of the given module, listing its content using a
+   * {@link ModuleReader}.
+   */
+  static void build(Module module, String basePackage, ClassLoader loader, TestSuite rootSuite)
+      throws Exception {
+    ResolvedModule resolvedModule =
+        module.getLayer().configuration().findModule(module.getName()).get();
+    TestClassClassifier classifier = new TestClassClassifier(loader);
+    PackageNode node;
+    try (ModuleReader reader = resolvedModule.reference().open()) {
+      node = new TestClassScanner(ForkJoinPool.commonPool(), classifier, null).scan(reader,
+          basePackage);
+    }
+    addTests(node, loader, rootSuite);
+  }
+
+  static void build(Path baseDir, String basePackage, ClassLoader loader, TestSuite rootSuite)
+      throws Exception {
+    TestClassClassifier classifier = new TestClassClassifier(loader);
+    TestScanIndex index = loadIndex(baseDir, basePackage);
+    PackageNode node = new TestClassScanner(ForkJoinPool.commonPool(), classifier, index)
+        .scan(baseDir, basePackage);
+    if (index != null) {
+      try {
+        index.store(basePackage);
+      } catch (IOException e) {
+        Logger.getLogger(RecursiveTestSuiteBuilder.class.getName()).log(Level.WARNING,
+            "Unable to store scan index", e);
+      }
+    }
+    addTests(node, loader, rootSuite);
+  }
+
+  static TestScanIndex loadIndex(Path baseDir, String basePackage) {
+    String indexFile = System.getProperty("recursive.scan.index", "");
+    if ("none".equals(indexFile) || baseDir.getFileSystem() != FileSystems.getDefault()) {
+      return null;
+    }
+    Path root = baseDir.toAbsolutePath();
+    if (!basePackage.isEmpty()) {
+      for (int i = basePackage.split("\\.").length; i > 0 && root != null; i--) {
+        root = root.getParent();
+      }
+    }
+    if (root == null || root.getFileName() == null) {
+      return null;
+    }
+    if (indexFile.isEmpty()) {
+      return TestScanIndex.load(root.resolveSibling(root.getFileName() + ".testindex"), root);
+    }
+    return TestScanIndex.load(Paths.get(indexFile), root);
+  }
+
+  static void addTests(PackageNode node, ClassLoader loader, TestSuite suite) {
+    List<TestClassEntry> entries = new ArrayList<>();
+    collectEntries(node, entries);
+    try (TestLoader testLoader = newTestLoader(loader)) {
+      addTests(node, testLoader.load(entries).iterator(), suite);
+    }
+  }
+
+  static void collectEntries(PackageNode node, List<TestClassEntry> entries) {
+    for (PackageNode packageNode : node.packages) {
+      collectEntries(packageNode, entries);
+    }
+    entries.addAll(node.classes);
+  }
+
+  static void addTests(PackageNode node, Iterator<Test> tests, TestSuite suite) {
+    List<Test> nodeTests = new ArrayList<>();
+    for (PackageNode packageNode : node.packages) {
+      TestSuite subTestSuite = new TestSuite(packageNode.name);
+      addTests(packageNode, tests, subTestSuite);
+      // only if suite contains tests
+      if (subTestSuite.countTestCases() > 0) {
+        nodeTests.add(subTestSuite);
+      }
+    }
+    for (int i = node.classes.size(); i > 0; i--) {
+      nodeTests.add(tests.next());
+    }
+    TestHistory.addTests(TestHistory.fromSystemProperties(), nodeTests, suite);
+  }
+
+  static TestLoader newTestLoader(ClassLoader loader) {
+    return new TestLoader(loader, true, (className, t) -> Logger
+        .getLogger(RecursiveTestSuiteBuilder.class.getName())
+        .log(Level.SEVERE, "Unable to load class ".concat(className), t));
   }
 
   /**
-   * Builds all recursive test suites for the given <code>rootSuite</code>
+   * Builds all recursive test suites for the given <code>rootSuite</code>. The test class
+   * candidates of the whole directory tree are collected first and then loaded together, so that
+   * a {@link TestSharding} is applied to the whole tree.
    * 
    * @param prefixLength the length of the prefix
    * @param basePackage the base package name
@@ -111,9 +273,20 @@ public abstract class RecursiveTestSuiteBuilder {
    */
   public static void build(int prefixLength, String basePackage, File currentDir,
       FilenameFilter filter, TestSuite rootSuite) throws Exception {
+    addTests(scan(prefixLength, basePackage, currentDir, filter, currentDir.getName()),
+        getClassLoader(), rootSuite);
+  }
+
+  /**
+   * Collects the test class candidates of the given directory and all of its sub directories.
+   */
+  static PackageNode scan(int prefixLength, String basePackage, File currentDir,
+      FilenameFilter filter, String name) {
+    List<PackageNode> packages = new ArrayList<>();
+    List<TestClassEntry> classes = new ArrayList<>();
     List<File> potentialDirectories = Arrays.asList(currentDir.listFiles(filter));
+    StringBuilder currentPackageName = new StringBuilder(200);
     if (!potentialDirectories.isEmpty()) {
-      StringBuilder currentPackageName = new StringBuilder(200);
       currentPackageName.append(basePackage);
       String absolutePath = currentDir.getAbsolutePath();
       int startIndex = prefixLength;
@@ -126,12 +299,8 @@ public abstract class RecursiveTestSuiteBuilder {
       Collections.sort(potentialDirectories, new FileComparator());
       for (File potentialDirectory : potentialDirectories) {
         if (potentialDirectory.isDirectory()) {
-          TestSuite subTestSuite = new TestSuite(potentialDirectory.getName());
-          build(prefixLength, basePackage, potentialDirectory, filter, subTestSuite);
-          // only if suite contains tests
-          if (subTestSuite.countTestCases() > 0) {
-            rootSuite.addTest(subTestSuite);
-          }
+          packages.add(scan(prefixLength, basePackage, potentialDirectory, filter,
+              potentialDirectory.getName()));
         } else {
           classFiles.add(potentialDirectory);
         }
@@ -145,23 +314,14 @@ public abstract class RecursiveTestSuiteBuilder {
           className = new StringBuilder(200).append(currentPackageName).append('.').append(fileName)
               .toString();
         }
-        try {
-          Class<?> clazz = Class.forName(className);
-          if (!Modifier.isAbstract(clazz.getModifiers())) {
-            if (TestCase.class.isAssignableFrom(clazz)) {
-              @SuppressWarnings("unchecked")
-              Class<? extends TestCase> testClass = (Class<? extends TestCase>) clazz;
-              rootSuite.addTestSuite(testClass);
-            } else {
-              rootSuite.addTest(new JUnit4TestAdapter(clazz));
-            }
-          }
-        } catch (Throwable t) {
-          Logger.getLogger(RecursiveTestSuiteBuilder.class.getName()).log(Level.SEVERE,
-              "Unable to load class ".concat(className), t);
-        }
+        classes.add(new TestClassEntry(className, TestClassKind.UNKNOWN));
       }
     }
+    return new PackageNode(name, currentPackageName.toString(), packages, classes);
+  }
+
+  static ClassLoader getClassLoader() {
+    return RecursiveTestSuiteBuilder.class.getClassLoader();
   }
 
   static class TestClassFilter implements FilenameFilter {
@@ -24,156 +24,246 @@
 
 package net.reini.junit;
 
-import static java.nio.file.Files.isRegularFile;
-import static java.nio.file.Files.newInputStream;
-import static java.util.regex.Pattern.compile;
-
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
+import java.util.zip.GZIPInputStream;
 
-import org.xml.sax.Attributes;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-import org.xml.sax.helpers.DefaultHandler;
+import javax.xml.stream.XMLStreamException;
 
-import junit.framework.JUnit4TestAdapter;
 import junit.framework.Test;
-import junit.framework.TestCase;
 import junit.framework.TestSuite;
 
 /**
- * Helper class to execute all failed http://ant.apache.org[*ANT*] tests according the `consoleText`
- * as defined in the system property `error.log.url`. You can also specify multiple URLs using the
- * comma (`,`).
+ * Helper class to execute all failed http://ant.apache.org[*ANT*], Gradle or Maven Surefire tests
+ * according the `consoleText` as defined in the system property `error.log.url`. You can also
+ * specify multiple URLs using the comma (`,`). The logs are read concurrently using a thread per
+ * URL, as reading them is mostly waiting for the server, where gzip compressed logs are
+ * decompressed transparently.
  * 
  * `-Derror.log.url=http://jenkins.acme.com/job/myjob/lastBuild/consoleText`
  * `-Derror.suite.files=/somedir/TESTS-TestSuites.xml`
  *
+ * The `error.suite.files` system property accepts report files, directories containing report
+ * files and glob patterns, such as `build/test-results/**&#47;TEST-*.xml`, separated by comma
+ * (`,`). Only the test cases having a failure or an error are repeated, where the report files are
+ * parsed concurrently as well.
+ *
+ * Only the failed test methods are repeated if they are known, as given by the Gradle output and
+ * the report files and all of them exist. Otherwise the whole test class is repeated.
+ *
+ * Only the failed tests of the shard defined by the `test.shard` system property are loaded, see
+ * {@link TestSharding}. The tests are run concurrently if the `test.parallel` system property is
+ * set, see {@link ParallelTestSuite}. If the `test.history` system property is set, the test
+ * results are recorded and recently failing and fast tests are run first.
+ *
  * @author Patrick Reinhart
  */
 public class RepeatFailedTests {
-  private static final Pattern testName = compile("\\[junit\\] Running (.+)$");
-  private static final Pattern testResult =
-      compile("\\[junit\\] Tests run: [0-9]+, Failures: ([0-9]+), Errors: ([0-9]+),");
-  private static final Pattern gradleName = compile("^\\[.+\\] (.+) > .*FAILED$");
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final int FILE_BUFFER_SIZE = 1 << 20;
+  private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+  private static final FailureLogScanner LOG_SCANNER = new FailureLogScanner(
+      FailureLogScanner.Format.ANT, FailureLogScanner.Format.GRADLE,
+      FailureLogScanner.Format.SUREFIRE);
 
   /**
    * @return the builded test suite based on the ANT log output containing the failed tests
    */
   public static Test suite() {
     Logger logger = Logger.getLogger(RepeatFailedTests.class.getName());
-    TestSuite suite = new TestSuite("Failed JUnit tests");
-    Set<String> processedClasses = new HashSet<>();
+    TestSuite suite = ParallelTestSuite.newSuite("Failed JUnit tests");
+    addTests(readFailedTests(logger), logger, suite);
+    TestHistory history = TestHistory.fromSystemProperties();
+    return history == null ? suite : history.recording(suite);
+  }
+
+  /**
+   * Reads the failed tests from the logs and report files as defined by the `error.log.url` and
+   * `error.suite.files` system properties.
+   */
+  static TestSelection readFailedTests(Logger logger) {
+    TestSelection failedTests = new TestSelection();
     // process console URL's
+    List<String> urls = new ArrayList<>();
     for (String urlValue : System.getProperty("error.log.url", "").split(",")) {
       if (!urlValue.isEmpty()) {
-        try (BufferedReader reader =
-            new BufferedReader(new InputStreamReader(new URL(urlValue).openStream()))) {
-          String line = null;
-          while ((line = reader.readLine()) != null) {
-            Matcher nameMatcher = testName.matcher(line);
-            if (nameMatcher.find()) {
-              line = reader.readLine();
-              if (line != null) {
-                Matcher resultMatcher = testResult.matcher(line);
-                if (resultMatcher.find()) {
-                  String failures = resultMatcher.group(1);
-                  String errors = resultMatcher.group(2);
-                  if (!"0".equals(errors) || !"0".equals(failures)) {
-                    addNonJythonTest(processedClasses, logger, suite, nameMatcher.group(1));
-                  }
-                }
-              }
-            }
-            Matcher gradleNameMatcher = gradleName.matcher(line);
-            if (gradleNameMatcher.matches()) {
-              addNonJythonTest(processedClasses, logger, suite, gradleNameMatcher.group(1));
-            }
-          }
-        } catch (Exception e) {
-          logger.log(Level.SEVERE, e, () -> "Error getting data from URL ".concat(urlValue));
-        }
+        urls.add(urlValue);
       }
     }
+    failedTests.addAll(readLogs(urls, logger));
     // process test suite files
-    for (String suiteFileName : System.getProperty("error.suite.files", "").split(",")) {
-      try {
-        Path suiteFile = Paths.get(suiteFileName);
-        if (isRegularFile(suiteFile)) {
-          try (InputStream in = newInputStream(suiteFile)) {
-            SAXParser parser = SAXParserFactory.newInstance().newSAXParser();
-            parser.parse(new InputSource(in),
-                new TestReportFilter(processedClasses, logger, suite));
-          }
+    List<Path> reportFiles = new ArrayList<>();
+    for (String location : System.getProperty("error.suite.files", "").split(",")) {
+      if (!location.trim().isEmpty()) {
+        try {
+          reportFiles.addAll(TestReportScanner.resolve(location.trim()));
+        } catch (IOException e) {
+          logger.log(Level.SEVERE, e, () -> "Error resolving suite files ".concat(location));
         }
-      } catch (ParserConfigurationException | SAXException | IOException e) {
-        logger.log(Level.SEVERE, e,
-            () -> "Error getting data from suite file ".concat(suiteFileName));
       }
     }
-    return suite;
+    failedTests.addAll(readReports(reportFiles, logger));
+    return failedTests;
   }
 
-  static void addNonJythonTest(Set<String> processedClasses, Logger logger, TestSuite suite,
-      String className) {
-    if (!className.contains("/")) { // filter out jython tests
-      addTest(processedClasses, logger, suite, className);
-    } else {
-      logger.warning(() -> "Skipped Jython test ".concat(className));
-    }
+  /**
+   * Reads the given logs concurrently, where the failed tests are merged in the order of the given
+   * URLs.
+   */
+  static TestSelection readLogs(List<String> urls, Logger logger) {
+    return readAll(urls, urls.size(), RepeatFailedTests::readLog, "URL", logger);
   }
 
-  static void addTest(Set<String> processedClasses, Logger logger, TestSuite suite,
-      String className) {
-    if (processedClasses.add(className)) {
+  /**
+   * Reads the failed tests of the given report files concurrently, where the failed tests are
+   * merged in the order of the given files.
+   */
+  static TestSelection readReports(List<Path> reportFiles, Logger logger) {
+    return readAll(reportFiles, Runtime.getRuntime().availableProcessors(),
+        RepeatFailedTests::readReport, "suite file", logger);
+  }
+
+  static TestSelection readReport(Path reportFile, Logger logger)
+      throws IOException, XMLStreamException {
+    TestSelection failedTests = new TestSelection();
+    TestReportScanner.scan(reportFile,
+        (className, methodName) -> addNonJythonTest(failedTests, logger, className, methodName));
+    return failedTests;
+  }
+
+  private static <S> TestSelection readAll(List<S> sources, int maxThreads,
+      SourceReader<S> sourceReader, String sourceType, Logger logger) {
+    TestSelection failedTests = new TestSelection();
+    if (sources.size() == 1) {
+      S source = sources.get(0);
       try {
-        Class<?> failedClass = Class.forName(className);
-        if (TestCase.class.isAssignableFrom(failedClass)) {
-          @SuppressWarnings("unchecked")
-          Class<TestCase> testCase = (Class<TestCase>) failedClass;
-          suite.addTestSuite(testCase);
-        } else {
-          suite.addTest(new JUnit4TestAdapter(failedClass));
-        }
+        failedTests.addAll(sourceReader.read(source, logger));
       } catch (Exception e) {
-        logger.severe(
-            String.format("Unable to load class %s (%s)", className, e.getClass().getName()));
+        logger.log(Level.SEVERE, e,
+            () -> String.format("Error getting data from %s %s", sourceType, source));
       }
+      return failedTests;
     }
+    if (sources.isEmpty()) {
+      return failedTests;
+    }
+    int threads = Math.min(sources.size(), maxThreads);
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads),
+        new DaemonThreadFactory(THREAD_NUMBER, "log-reader-"));
+    try {
+      List<Future<TestSelection>> futures = new ArrayList<>(sources.size());
+      for (S source : sources) {
+        futures.add(executor.submit(() -> sourceReader.read(source, logger)));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        S source = sources.get(i);
+        try {
+          failedTests.addAll(futures.get(i).get());
+        } catch (ExecutionException e) {
+          logger.log(Level.SEVERE, e.getCause(),
+              () -> String.format("Error getting data from %s %s", sourceType, source));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          logger.log(Level.SEVERE, e,
+              () -> String.format("Interrupted getting data from %s %s", sourceType, source));
+          break;
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    return failedTests;
   }
 
-  static final class TestReportFilter extends DefaultHandler {
-    private final Set<String> processedClasses;
-    private final Logger logger;
-    private final TestSuite suite;
+  /**
+   * Reads the failed tests of a single log or report.
+   */
+  private interface SourceReader<S> {
+    TestSelection read(S source, Logger logger) throws Exception;
+  }
 
-    TestReportFilter(Set<String> processedClasses, Logger logger, TestSuite suite) {
-      this.processedClasses = processedClasses;
-      this.logger = logger;
-      this.suite = suite;
+  static TestSelection readLog(String url, Logger logger) throws IOException {
+    TestSelection failedTests = new TestSelection();
+    try (InputStream in = openLog(url)) {
+      LOG_SCANNER.scan(in,
+          (className, methodName) -> addNonJythonTest(failedTests, logger, className, methodName));
     }
+    return failedTests;
+  }
 
-    @Override
-    public void startElement(String uri, String localName, String qName, Attributes atts)
-        throws SAXException {
-      if ("testcase".equals(qName)) {
-        addTest(processedClasses, logger, suite, atts.getValue("classname"));
+  /**
+   * Opens the log of the given URL, where local files are read through a large buffer and gzip
+   * compressed content is decompressed transparently. The URL is parsed leniently, accepting
+   * unencoded characters such as spaces or Windows file paths as before.
+   */
+  @SuppressWarnings("deprecation")
+  static InputStream openLog(String url) throws IOException {
+    URL logUrl = new URL(url);
+    BufferedInputStream in;
+    if ("file".equalsIgnoreCase(logUrl.getProtocol())) {
+      in = new BufferedInputStream(openFile(logUrl), FILE_BUFFER_SIZE);
+    } else {
+      in = new BufferedInputStream(logUrl.openStream(), BUFFER_SIZE);
+    }
+    try {
+      in.mark(2);
+      int magic = in.read() | (in.read() << 8);
+      in.reset();
+      if (magic == GZIPInputStream.GZIP_MAGIC) {
+        return new GZIPInputStream(in, BUFFER_SIZE);
       }
+      return in;
+    } catch (IOException | RuntimeException e) {
+      in.close();
+      throw e;
+    }
+  }
+
+  private static InputStream openFile(URL url) throws IOException {
+    Path file;
+    try {
+      file = Paths.get(url.toURI());
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      // not a valid URI, let the URL handler resolve the file
+      return url.openStream();
+    }
+    return Channels.newInputStream(FileChannel.open(file));
+  }
+
+  static void addNonJythonTest(TestSelection failedTests, Logger logger, String className,
+      String methodName) {
+    if (!className.contains("/")) { // filter out jython tests
+      failedTests.add(className, methodName);
+    } else {
+      logger.warning(() -> "Skipped Jython test ".concat(className));
+    }
+  }
+
+  static void addTests(TestSelection failedTests, Logger logger, TestSuite suite) {
+    List<TestClassEntry> entries = new ArrayList<>(failedTests.classNames().size());
+    for (String className : failedTests.classNames()) {
+      entries.add(new TestClassEntry(className, TestClassKind.UNKNOWN,
+          failedTests.methodNames(className)));
+    }
+    try (TestLoader loader = new TestLoader(RepeatFailedTests.class.getClassLoader(), false,
+        TestLoader.severe(logger))) {
+      TestHistory.addTests(TestHistory.fromSystemProperties(), loader.load(entries), suite);
     }
   }
 }
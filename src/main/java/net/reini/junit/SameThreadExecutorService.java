@@ -24,19 +24,51 @@
 
 package net.reini.junit;
 
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Simple implementation of a {@link ExecutorService} executing all tasks in the caller thread.
  *
+ * In the queue draining mode, tasks submitted by a running task are queued instead of being run
+ * recursively and are run by the outermost call once the running task has completed. This avoids
+ * deep stacks for tasks submitting further tasks, as for example event loops do. A running task
+ * waiting for the future of a queued task, including the use of {@link #invokeAll(Collection)}
+ * and {@link #invokeAny(Collection)}, runs the queued tasks until the future is done. If a task
+ * fails, the failures of the other tasks run by the same call are added as suppressed exceptions.
+ *
+ * Tasks are rejected after shutdown, whereas {@link #awaitTermination(long, TimeUnit)} waits until
+ * all tasks in flight in any thread are completed.
+ *
  * @author Patrick Reinhart
  */
 public final class SameThreadExecutorService extends AbstractExecutorService {
+  private final boolean queueNested;
+  private final ThreadLocal<Drain> currentDrain;
+  private final Set<Drain> drains;
+  private final ReentrantLock lock;
+  private final Condition terminated;
   private boolean shutdown;
+  private int inFlight;
 
   /**
    * Creates new executor service instance.
@@ -44,38 +76,288 @@ public final class SameThreadExecutorService extends AbstractExecutorService {
    * @return the newly created instance
    */
   public static ExecutorService create() {
-    return new SameThreadExecutorService();
+    return create(false);
   }
 
-  private SameThreadExecutorService() {}
+  /**
+   * Creates new executor service instance.
+   * 
+   * @param queueNested <code>true</code> if tasks submitted by running tasks should be queued
+   * @return the newly created instance
+   */
+  public static ExecutorService create(boolean queueNested) {
+    return new SameThreadExecutorService(queueNested);
+  }
+
+  private SameThreadExecutorService(boolean queueNested) {
+    this.queueNested = queueNested;
+    this.currentDrain = new ThreadLocal<>();
+    this.drains = ConcurrentHashMap.newKeySet();
+    this.lock = new ReentrantLock();
+    this.terminated = lock.newCondition();
+  }
 
   @Override
   public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
-    return true;
+    long nanos = unit.toNanos(timeout);
+    lock.lock();
+    try {
+      while (!shutdown || inFlight > 0) {
+        if (nanos <= 0) {
+          return false;
+        }
+        nanos = terminated.awaitNanos(nanos);
+      }
+      return true;
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
   public boolean isShutdown() {
-    return shutdown;
+    lock.lock();
+    try {
+      return shutdown;
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
   public boolean isTerminated() {
-    return shutdown;
+    lock.lock();
+    try {
+      return shutdown && inFlight == 0;
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
   public void shutdown() {
-    shutdown = true;
+    lock.lock();
+    try {
+      shutdown = true;
+      if (inFlight == 0) {
+        terminated.signalAll();
+      }
+    } finally {
+      lock.unlock();
+    }
   }
 
+  /**
+   * Shuts down the executor and removes all queued tasks not yet run.
+   *
+   * @return the queued tasks not being run
+   */
   @Override
   public List<Runnable> shutdownNow() {
-    return Collections.emptyList();
+    shutdown();
+    List<Runnable> tasks = new ArrayList<>();
+    for (Drain drain : drains) {
+      Runnable task;
+      while ((task = drain.queue.poll()) != null) {
+        tasks.add(task);
+      }
+    }
+    completed(tasks.size());
+    return tasks;
   }
 
   @Override
   public void execute(Runnable command) {
-    command.run();
+    Objects.requireNonNull(command);
+    lock.lock();
+    try {
+      if (shutdown) {
+        throw new RejectedExecutionException("Executor has been shut down");
+      }
+      inFlight++;
+    } finally {
+      lock.unlock();
+    }
+    Drain drain = currentDrain.get();
+    if (drain != null) {
+      drain.queue.add(command);
+    } else if (queueNested) {
+      drain(command);
+    } else {
+      try {
+        command.run();
+      } finally {
+        completed(1);
+      }
+    }
+  }
+
+  @Override
+  protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+    return new DrainingFuture<>(Executors.callable(runnable, value));
+  }
+
+  @Override
+  protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+    return new DrainingFuture<>(callable);
+  }
+
+  /**
+   * Runs the given tasks one after the other when called by a running task in the queue draining
+   * mode, as the completion service used otherwise would wait for tasks not being run.
+   */
+  @Override
+  public <T> T invokeAny(Collection<? extends Callable<T>> tasks)
+      throws InterruptedException, ExecutionException {
+    try {
+      return currentDrain.get() == null ? super.invokeAny(tasks) : invokeEach(tasks, 0, null);
+    } catch (TimeoutException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Runs the given tasks one after the other when called by a running task in the queue draining
+   * mode, as the completion service used otherwise would wait for tasks not being run.
+   */
+  @Override
+  public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    if (currentDrain.get() == null) {
+      return super.invokeAny(tasks, timeout, unit);
+    }
+    return invokeEach(tasks, System.nanoTime() + unit.toNanos(timeout), unit);
+  }
+
+  private <T> T invokeEach(Collection<? extends Callable<T>> tasks, long deadline, TimeUnit unit)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    if (tasks.isEmpty()) {
+      throw new IllegalArgumentException("No tasks given");
+    }
+    ExecutionException failure = null;
+    for (Callable<T> task : tasks) {
+      if (unit != null && System.nanoTime() - deadline >= 0) {
+        throw new TimeoutException();
+      }
+      try {
+        return submit(task).get();
+      } catch (ExecutionException e) {
+        failure = e;
+      }
+    }
+    throw failure;
+  }
+
+  /**
+   * Runs the given command and all commands queued by running commands.
+   */
+  private void drain(Runnable command) {
+    Drain drain = new Drain();
+    drain.queue.add(command);
+    drains.add(drain);
+    currentDrain.set(drain);
+    try {
+      while (drain.runNext()) {
+        // run all queued commands
+      }
+    } finally {
+      currentDrain.remove();
+      drains.remove(drain);
+    }
+    drain.rethrow();
+  }
+
+  /**
+   * Runs queued commands of the current thread until the given future is done.
+   */
+  private void help(Future<?> future) {
+    Drain drain = currentDrain.get();
+    if (drain != null) {
+      while (!future.isDone() && drain.runNext()) {
+        // run queued commands the future may depend on
+      }
+    }
+  }
+
+  private void completed(int tasks) {
+    if (tasks > 0) {
+      lock.lock();
+      try {
+        inFlight -= tasks;
+        if (shutdown && inFlight == 0) {
+          terminated.signalAll();
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * The commands queued by the running commands of a thread and their failures.
+   */
+  private final class Drain {
+    final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final List<Throwable> failures = new ArrayList<>();
+
+    boolean runNext() {
+      Runnable task = queue.poll();
+      if (task == null) {
+        return false;
+      }
+      try {
+        task.run();
+      } catch (RuntimeException | Error e) {
+        failures.add(e);
+      } finally {
+        completed(1);
+      }
+      return true;
+    }
+
+    void rethrow() {
+      Throwable primary = null;
+      for (Throwable failure : failures) {
+        if (failure instanceof Error) {
+          primary = failure;
+          break;
+        } else if (primary == null) {
+          primary = failure;
+        }
+      }
+      if (primary != null) {
+        for (Throwable failure : failures) {
+          if (failure != primary) {
+            primary.addSuppressed(failure);
+          }
+        }
+        if (primary instanceof Error) {
+          throw (Error) primary;
+        }
+        throw (RuntimeException) primary;
+      }
+    }
+  }
+
+  /**
+   * Future running the queued commands when being waited for by a running command.
+   */
+  private final class DrainingFuture<V> extends FutureTask<V> {
+    DrainingFuture(Callable<V> callable) {
+      super(callable);
+    }
+
+    @Override
+    public V get() throws InterruptedException, ExecutionException {
+      help(this);
+      return super.get();
+    }
+
+    @Override
+    public V get(long timeout, TimeUnit unit)
+        throws InterruptedException, ExecutionException, TimeoutException {
+      help(this);
+      return super.get(timeout, unit);
+    }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,256 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32;
+
+/**
+ * Classifies test classes based on their class file content only, without loading the class
+ * itself. The super class chain is followed using the class files provided by the given class
+ * loader. The parsed super classes are cached, as most test classes share the same base classes.
+ *
+ * As the kind of a class depends on its whole super class chain, persisted classifications are
+ * validated using the {@link #fingerprint(String)} of the super class chain, which changes if any
+ * of the super class files changes, including the ones contained in a jar file.
+ *
+ * @author Patrick Reinhart
+ */
+final class TestClassClassifier {
+  private static final String TEST_CASE = "junit/framework/TestCase";
+  private static final String OBJECT = "java/lang/Object";
+
+  private final ClassLoader loader;
+  private final ConcurrentMap<String, Optional<ClassFile>> superClasses;
+
+  TestClassClassifier(ClassLoader loader) {
+    this.loader = loader;
+    this.superClasses = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Classifies the given class file.
+   *
+   * @param classFile the class file to be read
+   * @return the test class kind
+   */
+  TestClassKind classify(Path classFile) {
+    try {
+      return classify(Files.readAllBytes(classFile));
+    } catch (IOException e) {
+      return TestClassKind.UNKNOWN;
+    }
+  }
+
+  /**
+   * Classifies the given class file content.
+   *
+   * @param classFile the class file content
+   * @return the test class kind
+   */
+  TestClassKind classify(byte[] classFile) {
+    try {
+      return classify(ClassFileInfo.read(classFile));
+    } catch (IOException e) {
+      return TestClassKind.UNKNOWN;
+    }
+  }
+
+  /**
+   * Classifies the given class using the class file provided by the class loader.
+   *
+   * @param className the binary class name
+   * @return the test class kind
+   */
+  TestClassKind classify(String className) {
+    Optional<ClassFile> classFile = read(className.replace('.', '/'));
+    return classFile.isPresent() ? classify(classFile.get().info) : TestClassKind.UNKNOWN;
+  }
+
+  TestClassKind classify(ClassFileInfo info) {
+    if (info.isAbstract()) {
+      return TestClassKind.NONE;
+    }
+    boolean annotated = false;
+    for (ClassFileInfo current = info;;) {
+      // JUnit runs a class having a suite method using the test returned by it
+      annotated |= current.runWith || current.testMethods || current.suiteMethod;
+      String superName = current.superName;
+      if (superName == null || OBJECT.equals(superName)) {
+        return annotated ? TestClassKind.JUNIT4 : TestClassKind.NONE;
+      }
+      if (TEST_CASE.equals(superName)) {
+        return TestClassKind.JUNIT3;
+      }
+      Optional<ClassFile> superClass = superClass(superName);
+      if (!superClass.isPresent()) {
+        return TestClassKind.UNKNOWN;
+      }
+      current = superClass.get().info;
+    }
+  }
+
+  /**
+   * Counts the tests of the given test class using the class files of the class and its super
+   * classes, the same way as JUnit does when creating the test. These are the public test methods
+   * without parameters of a JUnit 3 test case or the methods annotated with
+   * <code>org.junit.Test</code> of a JUnit 4 test class. If test method names are given, only the
+   * matching test methods are counted, unless any of them does not match.
+   *
+   * @param className the binary class name
+   * @param kind the test class kind
+   * @param methodNames the test methods to be run or <code>null</code> to run all test methods
+   * @return the number of tests or <code>-1</code> if they can not be counted without loading the
+   *         class, such as for non public classes or classes being run with a specific runner or
+   *         suite method
+   */
+  int countTests(String className, TestClassKind kind, Set<String> methodNames) {
+    Optional<ClassFile> classFile = read(className.replace('.', '/'));
+    if (!classFile.isPresent() || !classFile.get().info.isPublic()) {
+      return -1;
+    }
+    Set<String> tests = new HashSet<>();
+    Set<String> methods = new HashSet<>();
+    for (ClassFileInfo current = classFile.get().info;;) {
+      if (kind == TestClassKind.JUNIT3) {
+        for (String method : current.publicMethods) {
+          String methodName = ClassFileInfo.methodName(method);
+          methods.add(methodName);
+          if (methodName.startsWith("test") && method.endsWith(")V")) {
+            tests.add(methodName);
+          }
+        }
+      } else if (current.runWith || current.suiteMethod) {
+        return -1;
+      } else {
+        for (String method : current.junit4TestMethods) {
+          tests.add(method);
+          methods.add(ClassFileInfo.methodName(method));
+        }
+      }
+      String superName = current.superName;
+      if (TEST_CASE.equals(superName) && kind == TestClassKind.JUNIT3
+          || (superName == null || OBJECT.equals(superName)) && kind == TestClassKind.JUNIT4) {
+        break;
+      }
+      Optional<ClassFile> superClass = superName == null ? Optional.empty() : superClass(superName);
+      if (!superClass.isPresent()) {
+        return -1;
+      }
+      current = superClass.get().info;
+    }
+    if (tests.isEmpty()) {
+      // JUnit reports a missing test as a failure of its own
+      return -1;
+    }
+    if (methodNames != null && methods.containsAll(methodNames)) {
+      return kind == TestClassKind.JUNIT3 ? methodNames.size() : countSelected(tests, methodNames);
+    }
+    return tests.size();
+  }
+
+  private static int countSelected(Set<String> tests, Set<String> methodNames) {
+    int selected = 0;
+    for (String test : tests) {
+      if (methodNames.contains(ClassFileInfo.methodName(test))) {
+        selected++;
+      }
+    }
+    return selected;
+  }
+
+  /**
+   * Returns the fingerprint of the class files of the given super class and all of its own super
+   * classes up to <code>java.lang.Object</code> or <code>junit.framework.TestCase</code>.
+   *
+   * @param superName the internal name of the super class or <code>null</code> if there is none
+   * @return the super class chain fingerprint
+   */
+  long fingerprint(String superName) {
+    long fingerprint = 0;
+    for (String name = superName; name != null && !OBJECT.equals(name)
+        && !TEST_CASE.equals(name);) {
+      Optional<ClassFile> superClass = superClass(name);
+      if (!superClass.isPresent()) {
+        return fingerprint * 31 - 1;
+      }
+      fingerprint = fingerprint * 31 + superClass.get().checksum;
+      name = superClass.get().info.superName;
+    }
+    return fingerprint;
+  }
+
+  /**
+   * @return the internal names of all super classes read so far
+   */
+  Set<String> superClassNames() {
+    return new TreeSet<>(superClasses.keySet());
+  }
+
+  private Optional<ClassFile> superClass(String internalName) {
+    Optional<ClassFile> superClass = superClasses.get(internalName);
+    if (superClass == null) {
+      superClass = read(internalName);
+      superClasses.putIfAbsent(internalName, superClass);
+    }
+    return superClass;
+  }
+
+  private Optional<ClassFile> read(String internalName) {
+    try (InputStream in = loader.getResourceAsStream(internalName.concat(".class"))) {
+      if (in != null) {
+        byte[] bytes = in.readAllBytes();
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes);
+        return Optional.of(new ClassFile(ClassFileInfo.read(bytes), checksum.getValue()));
+      }
+    } catch (IOException e) {
+      // handled as an unknown class file
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * A parsed class file and its checksum.
+   */
+  static final class ClassFile {
+    final ClassFileInfo info;
+    final long checksum;
+
+    ClassFile(ClassFileInfo info, long checksum) {
+      this.info = info;
+      this.checksum = checksum;
+    }
+  }
+}
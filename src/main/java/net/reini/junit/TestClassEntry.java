@@ -0,0 +1,59 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import java.util.Set;
+
+/**
+ * A test class candidate consisting of the class name, its (potentially unknown) kind and the
+ * optional names of the test methods to be run.
+ *
+ * @author Patrick Reinhart
+ */
+final class TestClassEntry {
+  final String className;
+  final TestClassKind kind;
+  final Set<String> methodNames;
+
+  TestClassEntry(String className, TestClassKind kind) {
+    this(className, kind, null);
+  }
+
+  /**
+   * @param className the test class name
+   * @param kind the test class kind
+   * @param methodNames the test methods to be run or <code>null</code> to run all test methods
+   */
+  TestClassEntry(String className, TestClassKind kind, Set<String> methodNames) {
+    this.className = className;
+    this.kind = kind;
+    this.methodNames = methodNames;
+  }
+
+  @Override
+  public String toString() {
+    return className;
+  }
+}
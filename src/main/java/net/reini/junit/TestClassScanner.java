@@ -0,0 +1,298 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.module.ModuleReader;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+import net.reini.junit.TestScanIndex.DirectoryRecord;
+import net.reini.junit.TestScanIndex.FileRecord;
+
+/**
+ * Scans a class output directory for test class files. Each directory is listed exactly once
+ * using {@link Files#walkFileTree} limited to a depth of one, so that the file type is taken from
+ * the {@link BasicFileAttributes} delivered by the walk itself. Sub directories are scanned in
+ * parallel on a {@link ForkJoinPool}. Each test class file found is classified by reading its class
+ * file header, so that abstract and non test classes never need to be loaded.
+ *
+ * If a {@link TestScanIndex} is given, unchanged directories are not listed again and unchanged
+ * class files are not classified again, unless one of their super classes changed.
+ *
+ * Modules are scanned using the resource names listed by their {@link ModuleReader}.
+ *
+ * @author Patrick Reinhart
+ */
+final class TestClassScanner {
+  static final String TEST_CLASS_SUFFIX = "Test.class";
+  private static final String CLASS_SUFFIX = ".class";
+
+  private final ForkJoinPool pool;
+  private final TestClassClassifier classifier;
+  private final TestScanIndex index;
+
+  TestClassScanner(ForkJoinPool pool, TestClassClassifier classifier, TestScanIndex index) {
+    this.pool = pool;
+    this.classifier = classifier;
+    this.index = index;
+  }
+
+  /**
+   * Scans the given directory and all of its sub directories.
+   *
+   * @param directory the directory to start with
+   * @param packageName the package name corresponding to the given directory
+   * @return the scanned package tree
+   * @throws IOException if a directory could not be read
+   */
+  PackageNode scan(Path directory, String packageName) throws IOException {
+    try {
+      return pool.invoke(new DirectoryTask(directory, "", packageName));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Scans the given package and all of its sub packages of a module.
+   *
+   * @param reader the module reader
+   * @param packageName the package name to start with
+   * @return the scanned package tree
+   * @throws IOException if the module content could not be read
+   */
+  PackageNode scan(ModuleReader reader, String packageName) throws IOException {
+    String prefix = packageName.isEmpty() ? "" : packageName.replace('.', '/').concat("/");
+    ResourceNode root = new ResourceNode();
+    try (Stream<String> resources = reader.list()) {
+      resources.filter(resource -> resource.startsWith(prefix))
+          .filter(resource -> resource.endsWith(TEST_CLASS_SUFFIX))
+          .forEach(resource -> root.add(resource, prefix.length()));
+    }
+    return root.toPackageNode("", packageName, reader);
+  }
+
+  static String className(String packageName, String fileName) {
+    String simpleName = fileName.substring(0, fileName.length() - CLASS_SUFFIX.length());
+    if (packageName.isEmpty()) {
+      return simpleName;
+    }
+    return new StringBuilder(packageName.length() + simpleName.length() + 1).append(packageName)
+        .append('.').append(simpleName).toString();
+  }
+
+  static String childPackage(String packageName, String directoryName) {
+    return packageName.isEmpty() ? directoryName : packageName + '.' + directoryName;
+  }
+
+  /**
+   * Result of a directory scan containing the sorted sub packages and test classes.
+   */
+  static final class PackageNode {
+    final String name;
+    final String packageName;
+    final List<PackageNode> packages;
+    final List<TestClassEntry> classes;
+
+    PackageNode(String name, String packageName, List<PackageNode> packages,
+        List<TestClassEntry> classes) {
+      this.name = name;
+      this.packageName = packageName;
+      this.packages = packages;
+      this.classes = classes;
+    }
+  }
+
+  final class ResourceNode {
+    private final Map<String, ResourceNode> directories = new TreeMap<>();
+    private final Map<String, String> classFiles = new TreeMap<>();
+
+    void add(String resource, int start) {
+      int end = resource.indexOf('/', start);
+      if (end < 0) {
+        classFiles.put(resource.substring(start), resource);
+      } else {
+        directories.computeIfAbsent(resource.substring(start, end), name -> new ResourceNode())
+            .add(resource, end + 1);
+      }
+    }
+
+    PackageNode toPackageNode(String name, String packageName, ModuleReader reader)
+        throws IOException {
+      List<PackageNode> packages = new ArrayList<>(directories.size());
+      for (Map.Entry<String, ResourceNode> directory : directories.entrySet()) {
+        String directoryName = directory.getKey();
+        packages.add(directory.getValue().toPackageNode(directoryName,
+            childPackage(packageName, directoryName), reader));
+      }
+      List<TestClassEntry> classes = new ArrayList<>(classFiles.size());
+      for (Map.Entry<String, String> classFile : classFiles.entrySet()) {
+        TestClassKind kind = TestClassKind.UNKNOWN;
+        Optional<InputStream> content = reader.open(classFile.getValue());
+        if (content.isPresent()) {
+          try (InputStream in = content.get()) {
+            kind = classifier.classify(in.readAllBytes());
+          }
+        }
+        if (kind != TestClassKind.NONE) {
+          classes.add(new TestClassEntry(className(packageName, classFile.getKey()), kind));
+        }
+      }
+      return new PackageNode(name, packageName, packages, classes);
+    }
+  }
+
+  final class DirectoryTask extends RecursiveTask<PackageNode> {
+    private final Path directory;
+    private final String name;
+    private final String packageName;
+
+    DirectoryTask(Path directory, String name, String packageName) {
+      this.directory = directory;
+      this.name = name;
+      this.packageName = packageName;
+    }
+
+    @Override
+    protected PackageNode compute() {
+      DirectoryRecord record;
+      try {
+        record = scanDirectory();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      if (index != null) {
+        index.put(packageName, record);
+      }
+      List<DirectoryTask> subTasks = new ArrayList<>(record.directories.size());
+      for (String directoryName : record.directories) {
+        subTasks.add(new DirectoryTask(directory.resolve(directoryName), directoryName,
+            childPackage(packageName, directoryName)));
+      }
+      invokeAll(subTasks);
+      List<PackageNode> packages = new ArrayList<>(subTasks.size());
+      for (DirectoryTask subTask : subTasks) {
+        packages.add(subTask.join());
+      }
+      List<TestClassEntry> classes = new ArrayList<>(record.files.size());
+      for (Map.Entry<String, FileRecord> file : record.files.entrySet()) {
+        TestClassKind kind = file.getValue().kind;
+        if (kind != TestClassKind.NONE) {
+          classes.add(new TestClassEntry(className(packageName, file.getKey()), kind));
+        }
+      }
+      return new PackageNode(name, packageName, packages, classes);
+    }
+
+    private DirectoryRecord scanDirectory() throws IOException {
+      long modified = -1;
+      DirectoryRecord previous = null;
+      if (index != null) {
+        modified = TestScanIndex.toNanos(Files.getLastModifiedTime(directory));
+        previous = index.get(packageName);
+        if (previous != null && previous.modified == modified) {
+          try {
+            Map<String, BasicFileAttributes> classFiles = new TreeMap<>();
+            for (String fileName : previous.files.keySet()) {
+              classFiles.put(fileName,
+                  Files.readAttributes(directory.resolve(fileName), BasicFileAttributes.class));
+            }
+            return new DirectoryRecord(modified, previous.directories,
+                classify(classFiles, previous));
+          } catch (NoSuchFileException e) {
+            // the directory changed within the modification time resolution
+          }
+        }
+      }
+      List<String> directoryNames = new ArrayList<>();
+      Map<String, BasicFileAttributes> classFiles = new TreeMap<>();
+      list(directoryNames, classFiles);
+      Collections.sort(directoryNames);
+      return new DirectoryRecord(modified, directoryNames, classify(classFiles, previous));
+    }
+
+    private void list(final List<String> directoryNames,
+        final Map<String, BasicFileAttributes> classFiles) throws IOException {
+      Files.walkFileTree(directory, EnumSet.of(FileVisitOption.FOLLOW_LINKS), 1,
+          new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+              String fileName = file.getFileName().toString();
+              if (attrs.isDirectory()) {
+                directoryNames.add(fileName);
+              } else if (fileName.endsWith(TEST_CLASS_SUFFIX)) {
+                classFiles.put(fileName, attrs);
+              }
+              return FileVisitResult.CONTINUE;
+            }
+          });
+    }
+
+    private Map<String, FileRecord> classify(Map<String, BasicFileAttributes> classFiles,
+        DirectoryRecord record) {
+      Map<String, FileRecord> fileRecords = new TreeMap<>();
+      for (Map.Entry<String, BasicFileAttributes> classFile : classFiles.entrySet()) {
+        String fileName = classFile.getKey();
+        BasicFileAttributes attrs = classFile.getValue();
+        long size = attrs.size();
+        long modified = TestScanIndex.toNanos(attrs.lastModifiedTime());
+        FileRecord fileRecord = record == null ? null : record.files.get(fileName);
+        if (fileRecord == null || !fileRecord.matches(size, modified, classifier)) {
+          fileRecord = classify(directory.resolve(fileName), size, modified);
+        }
+        fileRecords.put(fileName, fileRecord);
+      }
+      return fileRecords;
+    }
+
+    private FileRecord classify(Path classFile, long size, long modified) {
+      try {
+        ClassFileInfo info = ClassFileInfo.read(Files.readAllBytes(classFile));
+        return new FileRecord(size, modified, classifier.classify(info), info.superName,
+            classifier.fingerprint(info.superName));
+      } catch (IOException e) {
+        return new FileRecord(size, modified, TestClassKind.UNKNOWN, null, 0);
+      }
+    }
+  }
+}
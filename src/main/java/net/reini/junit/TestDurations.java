@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static java.nio.file.Files.isRegularFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * Reads the test class durations from JUnit XML report files, as written by ANT, Gradle or Maven,
+ * summing up the `time` attribute of all `testcase` elements by their `classname` attribute. The
+ * report files are parsed using the {@link TestReportScanner}.
+ *
+ * @author Patrick Reinhart
+ */
+final class TestDurations {
+  static final String TIMINGS_PROPERTY = "test.shard.timings";
+
+  private static final ConcurrentMap<String, Map<String, Double>> DURATIONS =
+      new ConcurrentHashMap<>();
+
+  private TestDurations() {
+  }
+
+  /**
+   * Reads the durations of the report files given in the `test.shard.timings` system property.
+   * The report files of a property value are parsed only once and their durations are shared
+   * within the JVM, as the durations are requested by each test loader.
+   *
+   * @param logger the logger used to report unreadable files
+   * @return the test class durations in seconds by class name
+   */
+  static Map<String, Double> fromSystemProperties(Logger logger) {
+    String timings = System.getProperty(TIMINGS_PROPERTY, "").trim();
+    if (timings.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    return DURATIONS.computeIfAbsent(timings, t -> read(t, logger));
+  }
+
+  private static Map<String, Double> read(String timings, Logger logger) {
+    Map<String, Double> durations = new HashMap<>();
+    for (String reportFileName : timings.split(",")) {
+      if (!reportFileName.trim().isEmpty()) {
+        read(Paths.get(reportFileName.trim()), durations, logger);
+      }
+    }
+    return Collections.unmodifiableMap(durations);
+  }
+
+  /**
+   * Adds the durations of the given report file to the given durations.
+   *
+   * @param reportFile the JUnit XML report file
+   * @param durations the test class durations in seconds by class name
+   * @param logger the logger used to report unreadable files
+   */
+  static void read(Path reportFile, Map<String, Double> durations, Logger logger) {
+    if (isRegularFile(reportFile)) {
+      try {
+        TestReportScanner.scanTestCases(reportFile,
+            (className, methodName, time, failed) -> add(durations, className, time));
+      } catch (IOException | XMLStreamException e) {
+        logger.log(Level.SEVERE, e, () -> "Error getting data from report file " + reportFile);
+      }
+    } else {
+      logger.warning(() -> "Report file not found " + reportFile);
+    }
+  }
+
+  private static void add(Map<String, Double> durations, String className, String time) {
+    if (time != null) {
+      try {
+        // ANT may format larger values using grouping separators
+        double seconds = Double.parseDouble(time.replace(",", ""));
+        durations.merge(className, Double.valueOf(seconds), Double::sum);
+      } catch (NumberFormatException e) {
+        // not a valid duration, ignore it
+      }
+    }
+  }
+}
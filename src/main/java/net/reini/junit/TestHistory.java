@@ -0,0 +1,618 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.junit.runner.Describable;
+import org.junit.runner.Description;
+
+import junit.framework.AssertionFailedError;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestListener;
+import junit.framework.TestResult;
+import junit.framework.TestSuite;
+
+/**
+ * Persistent history of the recent test results of test classes and test methods, used to order
+ * the tests so that recently failing tests and fast tests are run first.
+ *
+ * For each test only a fixed size entry is kept, consisting of the outcomes of the last 64 runs as
+ * a bit set and an exponentially weighted moving average of the duration. The history file is
+ * append-only, where each run appends a result record of a few bytes per test. Test names are only
+ * written once, as result records refer to a test by a 64 bit hash of its name. If the file
+ * contains considerably more result records than tests, it is replaced by a compacted file having
+ * a single snapshot record per test. A lock file next to the history file is locked while the
+ * history is written, so that concurrently running JVMs, such as the ones of multiple shards, can
+ * share the same history file.
+ *
+ * The history is enabled using the `test.history` system property containing the history file:
+ *
+ * `-Dtest.history=build/test-history.bin`
+ *
+ * @author Patrick Reinhart
+ */
+final class TestHistory {
+  static final String HISTORY_PROPERTY = "test.history";
+
+  private static final int MAGIC = 0x54534849; // TSHI
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 8;
+  private static final byte NAME_RECORD = 1;
+  private static final byte RESULT_RECORD = 2;
+  private static final byte SNAPSHOT_RECORD = 3;
+  private static final int MAX_RUNS = Long.SIZE;
+  private static final int COMPACTION_FACTOR = 8;
+  private static final int COMPACTION_MINIMUM = 1024;
+  private static final ConcurrentMap<Path, TestHistory> HISTORIES = new ConcurrentHashMap<>();
+
+  private final Path historyFile;
+  private final Map<Long, Entry> entries;
+  private final List<Result> pending;
+  private int resultRecords;
+  private int validLength;
+
+  private TestHistory(Path historyFile) {
+    this.historyFile = historyFile;
+    this.entries = new HashMap<>();
+    this.pending = new ArrayList<>();
+  }
+
+  /**
+   * Returns the history as defined by the `test.history` system property. The history of a file
+   * is loaded only once and shared within the JVM.
+   *
+   * @return the history or <code>null</code> if no history is defined
+   */
+  static TestHistory fromSystemProperties() {
+    String historyFile = System.getProperty(HISTORY_PROPERTY, "").trim();
+    if (historyFile.isEmpty()) {
+      return null;
+    }
+    return HISTORIES.computeIfAbsent(Paths.get(historyFile).toAbsolutePath(), TestHistory::load);
+  }
+
+  /**
+   * Loads the history from the given file. A missing file results in an empty history, whereas an
+   * incomplete or invalid record, as left by an interrupted write, is ignored together with all
+   * records following it.
+   *
+   * @param historyFile the history file
+   * @return the loaded history
+   */
+  static TestHistory load(Path historyFile) {
+    TestHistory history = new TestHistory(historyFile);
+    if (Files.isRegularFile(historyFile)) {
+      try (FileChannel channel = FileChannel.open(historyFile, StandardOpenOption.READ)) {
+        history.read(channel);
+      } catch (IOException e) {
+        Logger.getLogger(TestHistory.class.getName()).log(Level.WARNING, e,
+            () -> "Ignoring unreadable test history ".concat(historyFile.toString()));
+        history.entries.clear();
+      }
+    }
+    return history;
+  }
+
+  /**
+   * Reads all valid records of the given history file channel, remembering the length of the
+   * valid content.
+   *
+   * @throws IOException if the file could not be read or has an invalid header
+   */
+  private synchronized void read(FileChannel channel) throws IOException {
+    entries.clear();
+    resultRecords = 0;
+    validLength = 0;
+    ByteBuffer content = ByteBuffer.allocate((int) channel.size());
+    while (content.hasRemaining() && channel.read(content, content.position()) >= 0) {
+      // read until the buffer is full
+    }
+    ByteArrayInputStream bytes = new ByteArrayInputStream(content.array(), 0, content.position());
+    DataInputStream in = new DataInputStream(bytes);
+    if (bytes.available() < HEADER_SIZE) {
+      // a new file or an incomplete header being overwritten by the next store
+      return;
+    }
+    if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+      throw new IOException("Invalid test history header");
+    }
+    try {
+      while (true) {
+        validLength = content.position() - bytes.available();
+        byte type = in.readByte();
+        long hash = in.readLong();
+        if (type == NAME_RECORD) {
+          String name = in.readUTF();
+          entry(hash).name = name;
+        } else if (type == RESULT_RECORD) {
+          boolean failed = in.readBoolean();
+          int durationMicros = in.readInt();
+          entry(hash).add(failed, durationMicros);
+          resultRecords++;
+        } else if (type == SNAPSHOT_RECORD) {
+          String name = in.readUTF();
+          long outcomes = in.readLong();
+          byte runs = in.readByte();
+          int durationMicros = in.readInt();
+          Entry entry = entry(hash);
+          entry.name = name;
+          entry.outcomes = outcomes;
+          entry.runs = runs;
+          entry.durationMicros = durationMicros;
+        } else {
+          throw new IOException("Invalid test history record type " + type);
+        }
+      }
+    } catch (EOFException e) {
+      // end of the history or an incomplete last record being overwritten by the next store
+    } catch (IOException e) {
+      // the invalid record and all following ones are overwritten by the next store
+      Logger.getLogger(TestHistory.class.getName()).log(Level.WARNING, e,
+          () -> "Ignoring invalid test history records of ".concat(historyFile.toString()));
+    }
+  }
+
+  private Entry entry(long hash) {
+    return entries.computeIfAbsent(Long.valueOf(hash), h -> new Entry());
+  }
+
+  /**
+   * @param name the test name
+   * @return the 64 bit FNV-1a hash of the given test name
+   */
+  static long hash(String name) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+      hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+    }
+    return hash;
+  }
+
+  /**
+   * @param className the test class name
+   * @param methodName the test method name or <code>null</code> for the test class
+   * @return the name of the test as used in the history
+   */
+  static String testName(String className, String methodName) {
+    return methodName == null ? className : className + '#' + methodName;
+  }
+
+  /**
+   * Returns the history entry of the given test.
+   *
+   * @param name the test name
+   * @return the entry or <code>null</code> if the test has no history
+   */
+  synchronized Entry get(String name) {
+    return entries.get(Long.valueOf(hash(name)));
+  }
+
+  /**
+   * Records a test result, which is kept in memory until the history is stored.
+   *
+   * @param name the test name
+   * @param failed <code>true</code> if the test failed
+   * @param durationNanos the test duration in nano seconds
+   */
+  synchronized void record(String name, boolean failed, long durationNanos) {
+    long hash = hash(name);
+    int durationMicros = (int) Math.min(Integer.MAX_VALUE, Math.max(0, durationNanos / 1000));
+    pending.add(new Result(name, hash, failed, durationMicros));
+    Entry entry = entry(hash);
+    entry.name = name;
+    entry.add(failed, durationMicros);
+  }
+
+  /**
+   * Appends all recorded results to the history file. The results appended by other JVMs in the
+   * meantime are merged, and the file is compacted if it contains too many result records.
+   *
+   * @throws IOException if the history file could not be written
+   */
+  synchronized void store() throws IOException {
+    if (pending.isEmpty()) {
+      return;
+    }
+    Path lockFile = historyFile.resolveSibling(historyFile.getFileName() + ".lock");
+    try (FileChannel lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE)) {
+      FileLock lock = lockChannel.lock();
+      try {
+        byte[] compacted;
+        try (FileChannel channel = FileChannel.open(historyFile, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+          compacted = store(channel);
+        }
+        if (compacted != null) {
+          replace(compacted);
+        }
+      } finally {
+        lock.release();
+      }
+    }
+  }
+
+  /**
+   * Appends the pending results to the given history file channel.
+   *
+   * @return the content of the compacted history file or <code>null</code> if appended
+   */
+  private byte[] store(FileChannel channel) throws IOException {
+    try {
+      read(channel);
+    } catch (IOException e) {
+      // start over with an empty history
+      Logger.getLogger(TestHistory.class.getName()).log(Level.WARNING, e,
+          () -> "Replacing unreadable test history ".concat(historyFile.toString()));
+      entries.clear();
+      resultRecords = 0;
+      validLength = 0;
+    }
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(buffer));
+    boolean compact = resultRecords + pending.size() > COMPACTION_MINIMUM
+        && resultRecords + pending.size() > COMPACTION_FACTOR * entries.size();
+    for (Result result : pending) {
+      Entry entry = entry(result.hash);
+      if (entry.name == null && !compact) {
+        out.writeByte(NAME_RECORD);
+        out.writeLong(result.hash);
+        out.writeUTF(result.name);
+      }
+      entry.name = result.name;
+      entry.add(result.failed, result.durationMicros);
+      if (!compact) {
+        out.writeByte(RESULT_RECORD);
+        out.writeLong(result.hash);
+        out.writeBoolean(result.failed);
+        out.writeInt(result.durationMicros);
+      }
+    }
+    pending.clear();
+    if (compact) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      for (Map.Entry<Long, Entry> entry : entries.entrySet()) {
+        Entry value = entry.getValue();
+        if (value.name != null) {
+          out.writeByte(SNAPSHOT_RECORD);
+          out.writeLong(entry.getKey().longValue());
+          out.writeUTF(value.name);
+          out.writeLong(value.outcomes);
+          out.writeByte(value.runs);
+          out.writeInt(value.durationMicros);
+        }
+      }
+      resultRecords = 0;
+    }
+    out.flush();
+    if (compact) {
+      return buffer.toByteArray();
+    }
+    long position = validLength;
+    channel.truncate(position);
+    if (position < HEADER_SIZE) {
+      position = channel.write(ByteBuffer.wrap(header()), 0);
+    }
+    ByteBuffer records = ByteBuffer.wrap(buffer.toByteArray());
+    while (records.hasRemaining()) {
+      position += channel.write(records, position);
+    }
+    channel.force(false);
+    return null;
+  }
+
+  /**
+   * Replaces the history file with the given content, so that it is never left truncated.
+   */
+  private void replace(byte[] content) throws IOException {
+    Path tempFile = Files.createTempFile(historyFile.toAbsolutePath().getParent(),
+        historyFile.getFileName().toString(), ".tmp");
+    try {
+      Files.write(tempFile, content);
+      try {
+        Files.move(tempFile, historyFile, REPLACE_EXISTING, ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempFile, historyFile, REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  private static byte[] header() {
+    return ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).array();
+  }
+
+  /**
+   * Sorts the given tests, so that tests having failed recently are first, followed by tests
+   * without history and the remaining tests, where tests of the same group are ordered by their
+   * duration. Tests having failed equally recently are ordered by their number of failures first.
+   * Suites not being a single test class are ordered by their best test. The sort is stable,
+   * keeping the order of tests not differing in their history.
+   *
+   * @param tests the tests to be sorted
+   */
+  void sort(List<Test> tests) {
+    Map<Test, long[]> ranks = new IdentityHashMap<>();
+    for (Test test : tests) {
+      ranks.put(test, rank(test));
+    }
+    tests.sort((t1, t2) -> compare(ranks.get(t1), ranks.get(t2)));
+  }
+
+  private long[] rank(Test test) {
+    if (test instanceof TestSuite && !TestSharding.isTestClassSuite((TestSuite) test)) {
+      long[] best = {2, 0, 0, Long.MAX_VALUE};
+      for (Enumeration<Test> tests = ((TestSuite) test).tests(); tests.hasMoreElements();) {
+        long[] rank = rank(tests.nextElement());
+        if (compare(rank, best) < 0) {
+          best = rank;
+        }
+      }
+      return best;
+    }
+    Entry entry = get(TestSharding.className(test));
+    if (entry == null || entry.runs == 0) {
+      return new long[] {1, 0, 0, 0};
+    }
+    if (entry.outcomes == 0) {
+      return new long[] {2, 0, 0, entry.durationMicros};
+    }
+    // the number of runs since the last failure, followed by the more often failing tests
+    return new long[] {0, Long.numberOfTrailingZeros(entry.outcomes), -entry.failures(),
+        entry.durationMicros};
+  }
+
+  private static int compare(long[] r1, long[] r2) {
+    for (int i = 0; i < r1.length; i++) {
+      int result = Long.compare(r1[i], r2[i]);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Adds the given tests to the suite, skipping <code>null</code> tests, where the tests are
+   * ordered by the given history if defined.
+   *
+   * @param history the history or <code>null</code> to keep the given order
+   * @param tests the tests to be added
+   * @param suite the suite to add the tests to
+   */
+  static void addTests(TestHistory history, List<Test> tests, TestSuite suite) {
+    List<Test> existingTests = new ArrayList<>(tests.size());
+    for (Test test : tests) {
+      if (test != null) {
+        existingTests.add(test);
+      }
+    }
+    if (history != null) {
+      history.sort(existingTests);
+    }
+    for (Test test : existingTests) {
+      suite.addTest(test);
+    }
+  }
+
+  /**
+   * Creates a suite containing the given suite, which records the results of all tests being run
+   * and stores them at the end of the run.
+   *
+   * @param suite the suite to be recorded
+   * @return the recording suite
+   */
+  TestSuite recording(TestSuite suite) {
+    return new RecordingTestSuite(suite, this);
+  }
+
+  /**
+   * The history of a single test, having a fixed size.
+   */
+  static final class Entry {
+    String name;
+    /** The outcomes of the last runs, where a set bit is a failure and bit 0 the latest run. */
+    long outcomes;
+    int runs;
+    int durationMicros;
+
+    void add(boolean failed, int durationMicros) {
+      outcomes = (outcomes << 1) | (failed ? 1 : 0);
+      // exponentially weighted moving average, weighting the latest duration with 1/4
+      this.durationMicros = runs == 0 ? durationMicros
+          : (int) ((3L * this.durationMicros + durationMicros) / 4);
+      runs = Math.min(runs + 1, MAX_RUNS);
+    }
+
+    /**
+     * @return the number of failures within the recorded runs
+     */
+    int failures() {
+      return Long.bitCount(outcomes);
+    }
+  }
+
+  private static final class Result {
+    final String name;
+    final long hash;
+    final boolean failed;
+    final int durationMicros;
+
+    Result(String name, long hash, boolean failed, int durationMicros) {
+      this.name = name;
+      this.hash = hash;
+      this.failed = failed;
+      this.durationMicros = durationMicros;
+    }
+  }
+
+  /**
+   * Suite recording the results of the test methods and test classes being run.
+   */
+  static final class RecordingTestSuite extends TestSuite {
+    private final TestHistory history;
+
+    RecordingTestSuite(TestSuite suite, TestHistory history) {
+      super(suite.getName());
+      this.history = history;
+      addTest(suite);
+    }
+
+    @Override
+    public void run(TestResult result) {
+      Recorder recorder = new Recorder(history);
+      result.addListener(recorder);
+      try {
+        super.run(result);
+      } finally {
+        result.removeListener(recorder);
+        recorder.finish();
+        try {
+          history.store();
+        } catch (IOException e) {
+          Logger.getLogger(TestHistory.class.getName()).log(Level.WARNING, e,
+              () -> "Unable to store test history ".concat(history.historyFile.toString()));
+        }
+      }
+    }
+  }
+
+  /**
+   * Listener recording the duration and outcome of each test method, where the test class results
+   * are summed up and recorded at the end of the run.
+   */
+  static final class Recorder implements TestListener {
+    private final TestHistory history;
+    private final Map<Test, long[]> running = new IdentityHashMap<>();
+    private final Map<String, long[]> classes = new LinkedHashMap<>();
+
+    Recorder(TestHistory history) {
+      this.history = history;
+    }
+
+    @Override
+    public synchronized void startTest(Test test) {
+      // start time and failure flag
+      running.put(test, new long[] {System.nanoTime(), 0});
+    }
+
+    @Override
+    public synchronized void addError(Test test, Throwable e) {
+      failed(test);
+    }
+
+    @Override
+    public synchronized void addFailure(Test test, AssertionFailedError e) {
+      failed(test);
+    }
+
+    private void failed(Test test) {
+      long[] state = running.get(test);
+      if (state != null) {
+        state[1] = 1;
+      }
+    }
+
+    @Override
+    public synchronized void endTest(Test test) {
+      long[] state = running.remove(test);
+      if (state == null) {
+        return;
+      }
+      long duration = System.nanoTime() - state[0];
+      String[] name = name(test);
+      boolean failed = state[1] != 0;
+      if (name[1] != null) {
+        history.record(testName(name[0], name[1]), failed, duration);
+      }
+      long[] classState = classes.computeIfAbsent(name[0], c -> new long[2]);
+      classState[0] += duration;
+      classState[1] |= state[1];
+    }
+
+    synchronized void finish() {
+      for (Map.Entry<String, long[]> entry : classes.entrySet()) {
+        long[] classState = entry.getValue();
+        history.record(entry.getKey(), classState[1] != 0, classState[0]);
+      }
+      classes.clear();
+    }
+
+    /**
+     * @return the test class name and method name, being <code>null</code> if unknown
+     */
+    static String[] name(Test test) {
+      if (test instanceof TestCase) {
+        return new String[] {test.getClass().getName(), ((TestCase) test).getName()};
+      }
+      if (test instanceof Describable) {
+        Description description = ((Describable) test).getDescription();
+        if (description.getClassName() != null && description.getMethodName() != null) {
+          return new String[] {description.getClassName(), description.getMethodName()};
+        }
+      }
+      // the display name of a test method is 'method(class)'
+      String name = String.valueOf(test);
+      int open = name.lastIndexOf('(');
+      if (open > 0 && name.endsWith(")")) {
+        return new String[] {name.substring(open + 1, name.length() - 1), name.substring(0, open)};
+      }
+      return new String[] {name, null};
+    }
+  }
+}
@@ -0,0 +1,554 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persistent test impact index recording the classes each class of the class output directories
+ * depends on, as read from their constant pools, see {@link ClassFileInfo#dependencies(byte[])}.
+ * The tests impacted by a change are all test classes depending directly or transitively on one
+ * of the changed classes.
+ *
+ * The index is updated incrementally, where only the class files having a different size or
+ * modification time than recorded are read again. The test classes depending on a changed class
+ * are classified again, as their kind depends on their super classes. The classes being added,
+ * changed or removed by an update are the changed classes since the last stored index.
+ *
+ * The index file contains the front coded sorted class names, followed by the dependencies of
+ * each class given as variable length encoded class numbers, restricted to the indexed classes.
+ *
+ * @author Patrick Reinhart
+ */
+final class TestImpactIndex {
+  static final String INDEX_PROPERTY = "test.impact.index";
+  static final String ROOTS_PROPERTY = "test.impact.roots";
+  static final String CHANGES_PROPERTY = "test.impact.changes";
+
+  private static final int MAGIC = 0x54494d58; // TIMX
+  private static final int VERSION = 2;
+  private static final String CLASS_SUFFIX = ".class";
+  private static final String JAVA_SUFFIX = ".java";
+
+  private final List<Path> roots;
+  private final NavigableMap<String, ClassRecord> classes;
+
+  private TestImpactIndex(List<Path> roots, NavigableMap<String, ClassRecord> classes) {
+    this.roots = roots;
+    this.classes = classes;
+  }
+
+  /**
+   * @return the index file as defined by the `test.impact.index` system property, defaulting to
+   *         `testimpact.index` within the current user directory
+   */
+  static Path indexFile() {
+    String indexFile = System.getProperty(INDEX_PROPERTY, "").trim();
+    if (indexFile.isEmpty()) {
+      return Paths.get(System.getProperty("user.dir"), "testimpact.index");
+    }
+    return Paths.get(indexFile);
+  }
+
+  /**
+   * @return the class output directories as defined by the comma separated `test.impact.roots`
+   *         system property, defaulting to the directories of the class path
+   */
+  static List<Path> roots() {
+    List<Path> roots = new ArrayList<>();
+    String rootsValue = System.getProperty(ROOTS_PROPERTY, "").trim();
+    if (rootsValue.isEmpty()) {
+      for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+        if (!entry.isEmpty() && Files.isDirectory(Paths.get(entry))) {
+          roots.add(Paths.get(entry).toAbsolutePath().normalize());
+        }
+      }
+    } else {
+      for (String root : rootsValue.split(",")) {
+        if (!root.trim().isEmpty()) {
+          roots.add(Paths.get(root.trim()).toAbsolutePath().normalize());
+        }
+      }
+    }
+    return roots;
+  }
+
+  /**
+   * Reads the changes as given by the `test.impact.changes` system property, containing comma
+   * separated class names or source and class files. A value starting with `@` denotes a file
+   * containing one change on each line, such as the output of `git diff --name-only`.
+   *
+   * @return the changes or <code>null</code> if not defined
+   * @throws IOException if the changes file could not be read
+   */
+  static List<String> changes() throws IOException {
+    String changesValue = System.getProperty(CHANGES_PROPERTY, "").trim();
+    if (changesValue.isEmpty()) {
+      return null;
+    }
+    List<String> changes = new ArrayList<>();
+    if (changesValue.startsWith("@")) {
+      for (String line : Files.readAllLines(Paths.get(changesValue.substring(1)),
+          StandardCharsets.UTF_8)) {
+        if (!line.trim().isEmpty()) {
+          changes.add(line.trim());
+        }
+      }
+    } else {
+      for (String change : changesValue.split(",")) {
+        if (!change.trim().isEmpty()) {
+          changes.add(change.trim());
+        }
+      }
+    }
+    return changes;
+  }
+
+  /**
+   * Loads the index from the given file. A missing or unreadable index file or one written for
+   * different class output directories results in an empty index.
+   *
+   * @param indexFile the index file
+   * @param roots the class output directories
+   * @param logger the logger receiving the warning for an unreadable index
+   * @return the loaded index
+   */
+  static TestImpactIndex load(Path indexFile, List<Path> roots, Logger logger) {
+    NavigableMap<String, ClassRecord> classes = new TreeMap<>();
+    if (Files.isRegularFile(indexFile)) {
+      try (DataInputStream in =
+          new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+        if (in.readInt() == MAGIC && in.readInt() == VERSION && readRoots(in).equals(roots)) {
+          read(in, classes);
+        }
+      } catch (IOException | RuntimeException e) {
+        logger.log(Level.WARNING, e,
+            () -> "Ignoring unreadable test impact index ".concat(indexFile.toString()));
+        classes.clear();
+      }
+    }
+    return new TestImpactIndex(roots, classes);
+  }
+
+  private static List<Path> readRoots(DataInput in) throws IOException {
+    List<Path> roots = new ArrayList<>();
+    for (int i = readVarInt(in); i > 0; i--) {
+      roots.add(Paths.get(in.readUTF()));
+    }
+    return roots;
+  }
+
+  private static void read(DataInput in, Map<String, ClassRecord> classes) throws IOException {
+    TestClassKind[] kinds = TestClassKind.values();
+    String[] names = new String[readVarInt(in)];
+    ClassRecord[] records = new ClassRecord[names.length];
+    String previous = "";
+    for (int i = 0; i < names.length; i++) {
+      names[i] = previous.substring(0, readVarInt(in)).concat(in.readUTF());
+      previous = names[i];
+      records[i] = new ClassRecord(readVarInt(in), in.readLong(), in.readLong(),
+          kinds[in.readByte()], null);
+    }
+    for (int i = 0; i < names.length; i++) {
+      String[] dependencies = new String[readVarInt(in)];
+      for (int d = 0; d < dependencies.length; d++) {
+        dependencies[d] = names[readVarInt(in)];
+      }
+      ClassRecord record = records[i];
+      classes.put(names[i], new ClassRecord(record.root, record.size, record.modified,
+          record.kind, dependencies));
+    }
+  }
+
+  /**
+   * Updates the index with the current content of the class output directories. Class files
+   * found in more than one directory are taken from the first one.
+   *
+   * @param classifier the classifier used to determine the kind of the test classes
+   * @return the added, changed and removed classes since the last update
+   * @throws IOException if a class output directory could not be read
+   */
+  Set<String> update(TestClassClassifier classifier) throws IOException {
+    Map<String, ClassFile> classFiles = new TreeMap<>();
+    for (int i = 0; i < roots.size(); i++) {
+      if (Files.isDirectory(roots.get(i))) {
+        list(i, classFiles);
+      }
+    }
+    Set<String> changed = new TreeSet<>(classes.keySet());
+    changed.removeAll(classFiles.keySet());
+    List<ClassFile> changedFiles = new ArrayList<>();
+    for (ClassFile classFile : classFiles.values()) {
+      ClassRecord record = classes.get(classFile.className);
+      if (record == null || !record.matches(classFile.root, classFile.attrs)) {
+        changed.add(classFile.className);
+        changedFiles.add(classFile);
+      }
+    }
+    classes.keySet().retainAll(classFiles.keySet());
+    try {
+      changedFiles.parallelStream().forEach(classFile -> classFile.read(classifier));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    for (ClassFile classFile : changedFiles) {
+      classes.put(classFile.className, classFile.record);
+    }
+    for (String className : dependents(changed)) {
+      ClassRecord record = classes.get(className);
+      ClassFile classFile = classFiles.get(className);
+      if (record != null && classFile != null && classFile.record == null
+          && classFile.isTestClass()) {
+        classes.put(className, new ClassRecord(record.root, record.size, record.modified,
+            classifier.classify(classFile.path), record.dependencies));
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Removes the given classes from the index, so that they are changed classes of the next
+   * update, such as the test classes having failed or not being run.
+   *
+   * @param classNames the classes to be removed
+   */
+  void invalidate(Collection<String> classNames) {
+    classes.keySet().removeAll(classNames);
+  }
+
+  private void list(int rootIndex, Map<String, ClassFile> classFiles) throws IOException {
+    Path root = roots.get(rootIndex);
+    Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+        new SimpleFileVisitor<Path>() {
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            String fileName = file.getFileName().toString();
+            if (attrs.isRegularFile() && fileName.endsWith(CLASS_SUFFIX)
+                && fileName.indexOf('-') < 0) { // skips module-info and package-info
+              String className = className(root.relativize(file));
+              classFiles.putIfAbsent(className, new ClassFile(rootIndex, className, file, attrs));
+            }
+            return FileVisitResult.CONTINUE;
+          }
+        });
+  }
+
+  private static String className(Path relativePath) {
+    StringBuilder className = new StringBuilder();
+    for (Path element : relativePath) {
+      if (className.length() > 0) {
+        className.append('.');
+      }
+      className.append(element.toString());
+    }
+    return className.substring(0, className.length() - CLASS_SUFFIX.length());
+  }
+
+  /**
+   * Resolves the given changes to the indexed classes. Source and class files are resolved to the
+   * class of the longest matching path suffix, where source files also include their nested
+   * classes. Files other than source or class files are ignored.
+   *
+   * @param changes the changed class names or files
+   * @param logger the logger receiving the warnings for unresolvable changes
+   * @return the changed classes
+   */
+  Set<String> resolve(List<String> changes, Logger logger) {
+    Set<String> changed = new TreeSet<>();
+    for (String change : changes) {
+      String className = null;
+      boolean nested = true;
+      if (change.endsWith(JAVA_SUFFIX) || change.endsWith(CLASS_SUFFIX)) {
+        nested = change.endsWith(JAVA_SUFFIX);
+        String path = change.substring(0, change.lastIndexOf('.')).replace('\\', '/');
+        for (int start = 0; className == null && start >= 0;) {
+          String candidate = path.substring(start).replace('/', '.');
+          if (classes.containsKey(candidate)) {
+            className = candidate;
+          }
+          int separator = path.indexOf('/', start);
+          start = separator < 0 ? -1 : separator + 1;
+        }
+      } else if (change.indexOf('/') >= 0 || change.indexOf('\\') >= 0) {
+        continue; // resources or build files
+      } else if (classes.containsKey(change)) {
+        className = change;
+      }
+      if (className == null) {
+        logger.warning(() -> "Ignored unknown change ".concat(change));
+        continue;
+      }
+      changed.add(className);
+      if (nested) {
+        // all names starting with the class name followed by '$', where '%' is the next character
+        changed.addAll(classes.subMap(className + '$', className + '%').keySet());
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Determines the test classes depending directly or transitively on the given classes.
+   *
+   * @param changed the changed classes
+   * @return the impacted test classes sorted by their name
+   */
+  List<TestClassEntry> impactedTests(Set<String> changed) {
+    Set<String> impacted = new TreeSet<>(changed);
+    impacted.addAll(dependents(changed));
+    List<TestClassEntry> tests = new ArrayList<>();
+    for (String className : impacted) {
+      ClassRecord record = classes.get(className);
+      if (record != null && record.kind != TestClassKind.NONE) {
+        tests.add(new TestClassEntry(className, record.kind));
+      }
+    }
+    return tests;
+  }
+
+  /**
+   * @return the classes depending directly or transitively on the given classes
+   */
+  private Set<String> dependents(Set<String> changed) {
+    Map<String, List<String>> dependents = new HashMap<>();
+    for (Map.Entry<String, ClassRecord> entry : classes.entrySet()) {
+      for (String dependency : entry.getValue().dependencies) {
+        dependents.computeIfAbsent(dependency, name -> new ArrayList<>()).add(entry.getKey());
+      }
+    }
+    Set<String> impacted = new HashSet<>();
+    Deque<String> pending = new ArrayDeque<>(changed);
+    while (!pending.isEmpty()) {
+      for (String dependent : dependents.getOrDefault(pending.poll(),
+          Collections.emptyList())) {
+        if (impacted.add(dependent)) {
+          pending.add(dependent);
+        }
+      }
+    }
+    return impacted;
+  }
+
+  /**
+   * @return the number of indexed classes
+   */
+  int size() {
+    return classes.size();
+  }
+
+  /**
+   * Stores the index to the given file.
+   *
+   * @param indexFile the index file
+   * @throws IOException if the index could not be written
+   */
+  void store(Path indexFile) throws IOException {
+    Map<String, Integer> numbers = new HashMap<>();
+    for (String className : classes.keySet()) {
+      numbers.put(className, numbers.size());
+    }
+    Path tempFile = Files.createTempFile(indexFile.toAbsolutePath().getParent(),
+        indexFile.getFileName().toString(), ".tmp");
+    try {
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        writeVarInt(out, roots.size());
+        for (Path root : roots) {
+          out.writeUTF(root.toString());
+        }
+        writeVarInt(out, classes.size());
+        String previous = "";
+        for (Map.Entry<String, ClassRecord> entry : classes.entrySet()) {
+          String className = entry.getKey();
+          int common = commonPrefix(previous, className);
+          writeVarInt(out, common);
+          out.writeUTF(className.substring(common));
+          previous = className;
+          ClassRecord record = entry.getValue();
+          writeVarInt(out, record.root);
+          out.writeLong(record.size);
+          out.writeLong(record.modified);
+          out.writeByte(record.kind.ordinal());
+        }
+        List<Integer> dependencies = new ArrayList<>();
+        for (ClassRecord record : classes.values()) {
+          dependencies.clear();
+          for (String dependency : record.dependencies) {
+            Integer number = numbers.get(dependency);
+            if (number != null) {
+              dependencies.add(number);
+            }
+          }
+          writeVarInt(out, dependencies.size());
+          for (Integer number : dependencies) {
+            writeVarInt(out, number.intValue());
+          }
+        }
+      }
+      try {
+        Files.move(tempFile, indexFile, REPLACE_EXISTING, ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempFile, indexFile, REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  private static int commonPrefix(String s1, String s2) {
+    int length = Math.min(s1.length(), s2.length());
+    int i = 0;
+    while (i < length && s1.charAt(i) == s2.charAt(i)) {
+      i++;
+    }
+    return i;
+  }
+
+  static void writeVarInt(DataOutput out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  static int readVarInt(DataInput in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Invalid variable length integer");
+  }
+
+  /**
+   * The indexed state of a single class file.
+   */
+  static final class ClassRecord {
+    final int root;
+    final long size;
+    final long modified;
+    final TestClassKind kind;
+    final String[] dependencies;
+
+    ClassRecord(int root, long size, long modified, TestClassKind kind, String[] dependencies) {
+      this.root = root;
+      this.size = size;
+      this.modified = modified;
+      this.kind = kind;
+      this.dependencies = dependencies;
+    }
+
+    boolean matches(int otherRoot, BasicFileAttributes attrs) {
+      return root == otherRoot && size == attrs.size()
+          && modified == TestScanIndex.toNanos(attrs.lastModifiedTime());
+    }
+  }
+
+  /**
+   * A class file found by an update, which is read if it changed.
+   */
+  static final class ClassFile {
+    final int root;
+    final String className;
+    final Path path;
+    final BasicFileAttributes attrs;
+    ClassRecord record;
+
+    ClassFile(int root, String className, Path path, BasicFileAttributes attrs) {
+      this.root = root;
+      this.className = className;
+      this.path = path;
+      this.attrs = attrs;
+    }
+
+    boolean isTestClass() {
+      return path.getFileName().toString().endsWith(TestClassScanner.TEST_CLASS_SUFFIX);
+    }
+
+    void read(TestClassClassifier classifier) {
+      byte[] bytes;
+      try {
+        bytes = Files.readAllBytes(path);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      TestClassKind kind = TestClassKind.NONE;
+      String[] dependencies;
+      try {
+        dependencies = ClassFileInfo.dependencies(bytes).toArray(new String[0]);
+        if (isTestClass()) {
+          kind = classifier.classify(bytes);
+        }
+      } catch (IOException e) {
+        // invalid class files do not depend on anything
+        dependencies = new String[0];
+      }
+      record = new ClassRecord(root, attrs.size(), TestScanIndex.toNanos(attrs.lastModifiedTime()),
+          kind, dependencies);
+    }
+  }
+}
@@ -0,0 +1,382 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.junit.runner.Description;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.NoTestsRemainException;
+
+import junit.framework.JUnit4TestAdapter;
+import junit.framework.JUnit4TestAdapterCache;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Loads and classifies test classes and creates their {@link Test} instances. The classes are
+ * loaded without being initialized in parallel on a bounded pool if the class loader is registered
+ * as parallel capable. The {@link Test} instances are always created on the calling thread in the
+ * original order, so that test constructors and static initializers are never run concurrently.
+ * Load failures are reported to the {@link FailureHandler} on the calling thread in the original
+ * order as well.
+ *
+ * The loader pool is created on first use and reused by subsequent load calls until the loader is
+ * closed.
+ *
+ * The number of loader threads defaults to the number of available processors and can be set
+ * using the `test.loader.threads` system property.
+ *
+ * When the `test.lazy` system property is set to `true`, {@link LazyTest} instances are created,
+ * which only keep the class name and test count until they are actually run. The tests are
+ * counted using the class files, so that the test class is neither loaded nor instantiated before
+ * it is run. Test classes, whose tests can not be counted this way, such as the ones being run
+ * with a specific runner, are loaded and their test is created once for counting and released
+ * right away, which only reduces the retained heap.
+ *
+ * Test classes given with the names of the test methods to be run are created containing only
+ * those methods. These are {@link TestCase} instances of the given methods for JUnit 3 test classes
+ * and a method filter for JUnit 4 test classes.
+ *
+ * If a {@link TestSharding} is defined, only the test classes of the selected shard are loaded,
+ * where the shards are assigned based on the candidates of a single load call.
+ *
+ * @author Patrick Reinhart
+ */
+final class TestLoader implements AutoCloseable {
+  static final String THREADS_PROPERTY = "test.loader.threads";
+  static final String LAZY_PROPERTY = "test.lazy";
+
+  private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+  private final ClassLoader classLoader;
+  private final boolean skipAbstract;
+  private final int threads;
+  private final boolean lazy;
+  private final TestSharding sharding;
+  private final FailureHandler failureHandler;
+  private final TestClassClassifier classifier;
+  private ExecutorService executor;
+
+  /**
+   * Handles the failure of loading a test class.
+   */
+  interface FailureHandler {
+    void failed(String className, Throwable failure);
+  }
+
+  /**
+   * Creates a failure handler logging a severe message containing the class name and the failure
+   * type, where errors are passed on to the caller.
+   *
+   * @param logger the logger to be used
+   * @return the failure handler
+   */
+  static FailureHandler severe(Logger logger) {
+    return (className, failure) -> {
+      if (failure instanceof Error) {
+        throw (Error) failure;
+      }
+      logger.severe(String.format("Unable to load class %s (%s)", className,
+          failure.getClass().getName()));
+    };
+  }
+
+  TestLoader(ClassLoader classLoader, boolean skipAbstract, FailureHandler failureHandler) {
+    this(classLoader, skipAbstract,
+        Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()),
+        Boolean.getBoolean(LAZY_PROPERTY), TestSharding.fromSystemProperties(), failureHandler);
+  }
+
+  TestLoader(ClassLoader classLoader, boolean skipAbstract, int threads, boolean lazy,
+      TestSharding sharding, FailureHandler failureHandler) {
+    this.classLoader = classLoader;
+    this.skipAbstract = skipAbstract;
+    this.threads = classLoader != null && classLoader.isRegisteredAsParallelCapable() ? threads : 1;
+    this.lazy = lazy;
+    this.sharding = sharding;
+    this.failureHandler = failureHandler;
+    this.classifier = lazy && classLoader != null ? new TestClassClassifier(classLoader) : null;
+  }
+
+  /**
+   * Loads all given test classes.
+   *
+   * @param entries the test class candidates
+   * @return the tests in the order of the given candidates, containing <code>null</code> for
+   *         skipped, failed or candidates of other shards
+   */
+  List<Test> load(List<TestClassEntry> entries) {
+    boolean[] selected = select(entries);
+    List<Future<ResolvedEntry>> futures = null;
+    if (Math.min(threads, entries.size()) > 1) {
+      ExecutorService pool = executor();
+      futures = new ArrayList<>(entries.size());
+      for (int i = 0; i < entries.size(); i++) {
+        TestClassEntry entry = entries.get(i);
+        futures.add(selected[i] ? pool.submit(() -> resolve(entry)) : null);
+      }
+    }
+    List<Test> tests = new ArrayList<>(entries.size());
+    for (int i = 0; i < entries.size(); i++) {
+      TestClassEntry entry = entries.get(i);
+      if (!selected[i]) {
+        tests.add(null);
+        continue;
+      }
+      Test test = null;
+      try {
+        ResolvedEntry resolved = futures == null ? resolve(entry) : futures.get(i).get();
+        test = resolved == null ? null : createTest(entry, resolved);
+      } catch (ExecutionException e) {
+        failureHandler.failed(entry.className, e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        failureHandler.failed(entry.className, e);
+      } catch (Throwable t) {
+        failureHandler.failed(entry.className, t);
+      }
+      tests.add(test);
+    }
+    return tests;
+  }
+
+  private synchronized ExecutorService executor() {
+    if (executor == null) {
+      executor = Executors.newFixedThreadPool(threads,
+          new DaemonThreadFactory(THREAD_NUMBER, "test-loader-"));
+    }
+    return executor;
+  }
+
+  /**
+   * Shuts down the loader pool, if any.
+   */
+  @Override
+  public synchronized void close() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  private boolean[] select(List<TestClassEntry> entries) {
+    if (sharding == null) {
+      boolean[] selected = new boolean[entries.size()];
+      Arrays.fill(selected, true);
+      return selected;
+    }
+    List<String> classNames = new ArrayList<>(entries.size());
+    for (TestClassEntry entry : entries) {
+      classNames.add(entry.className);
+    }
+    return sharding.select(classNames);
+  }
+
+  Test createTest(TestClassEntry entry) throws ClassNotFoundException {
+    ResolvedEntry resolved = resolve(entry);
+    return resolved == null ? null : createTest(entry, resolved);
+  }
+
+  /**
+   * Resolves the given candidate without running any code of the test class. Lazy tests are
+   * counted using the class files, otherwise the class is loaded without initializing it.
+   *
+   * @return the resolved candidate or <code>null</code> if the candidate is to be skipped
+   */
+  private ResolvedEntry resolve(TestClassEntry entry) throws ClassNotFoundException {
+    if (entry.kind == TestClassKind.NONE) {
+      return null;
+    }
+    if (classifier != null) {
+      TestClassKind kind = entry.kind;
+      if (kind == TestClassKind.UNKNOWN) {
+        kind = classifier.classify(entry.className);
+      }
+      if (kind == TestClassKind.JUNIT3 || kind == TestClassKind.JUNIT4) {
+        int testCount = classifier.countTests(entry.className, kind, entry.methodNames);
+        if (testCount >= 0) {
+          return new ResolvedEntry(null, kind, testCount);
+        }
+      }
+    }
+    Class<?> clazz = Class.forName(entry.className, false, classLoader);
+    if (entry.kind == TestClassKind.UNKNOWN && skipAbstract
+        && Modifier.isAbstract(clazz.getModifiers())) {
+      return null;
+    }
+    TestClassKind kind = entry.kind;
+    if (kind == TestClassKind.UNKNOWN) {
+      kind = TestCase.class.isAssignableFrom(clazz) ? TestClassKind.JUNIT3 : TestClassKind.JUNIT4;
+    }
+    return new ResolvedEntry(clazz, kind, -1);
+  }
+
+  private Test createTest(TestClassEntry entry, ResolvedEntry resolved) {
+    if (resolved.clazz == null) {
+      return new LazyTest(entry.className, resolved.kind, classLoader, entry.methodNames,
+          resolved.testCount);
+    }
+    Test test = createTest(resolved.clazz, resolved.kind, entry.methodNames);
+    if (lazy) {
+      // the test count is taken from the created test, which is released right away
+      return new LazyTest(entry.className, resolved.kind, classLoader, entry.methodNames,
+          test.countTestCases());
+    }
+    return test;
+  }
+
+  static Test createTest(Class<?> clazz, TestClassKind kind) {
+    return createTest(clazz, kind, null);
+  }
+
+  /**
+   * Creates the test of the given class, running only the given test methods. All test methods
+   * are run if any of the given methods does not exist, so that a test is never lost due to a
+   * method name not being resolvable, such as for some parameterized tests.
+   *
+   * @param clazz the test class
+   * @param kind the test class kind
+   * @param methodNames the test methods to be run or <code>null</code> to run all test methods
+   * @return the test
+   */
+  static Test createTest(Class<?> clazz, TestClassKind kind, Set<String> methodNames) {
+    if (kind == TestClassKind.JUNIT3) {
+      Class<? extends TestCase> testClass = clazz.asSubclass(TestCase.class);
+      if (methodNames != null && allPublicMethods(clazz, methodNames)) {
+        TestSuite suite = new TestSuite(clazz.getName());
+        for (String methodName : methodNames) {
+          suite.addTest(TestSuite.createTest(testClass, methodName));
+        }
+        return suite;
+      }
+      return new TestSuite(testClass);
+    }
+    JUnit4TestAdapter adapter = newAdapter(clazz);
+    if (methodNames != null) {
+      MethodNameFilter filter = new MethodNameFilter(methodNames);
+      try {
+        adapter.filter(filter);
+      } catch (NoTestsRemainException e) {
+        return newAdapter(clazz);
+      }
+      if (!filter.matchedAll()) {
+        return newAdapter(clazz);
+      }
+    }
+    return adapter;
+  }
+
+  /**
+   * Creates the adapter of the given JUnit 4 test class using its own adapter cache, as the
+   * default cache shared by all adapters is not thread safe and the adapters may be run
+   * concurrently by a {@link ParallelTestSuite}.
+   */
+  static JUnit4TestAdapter newAdapter(Class<?> clazz) {
+    return new JUnit4TestAdapter(clazz, new JUnit4TestAdapterCache());
+  }
+
+  private static boolean allPublicMethods(Class<?> clazz, Set<String> methodNames) {
+    for (String methodName : methodNames) {
+      try {
+        clazz.getMethod(methodName);
+      } catch (NoSuchMethodException e) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * A resolved test class candidate, being either a loaded class or a lazy test class counted
+   * using its class files.
+   */
+  static final class ResolvedEntry {
+    final Class<?> clazz;
+    final TestClassKind kind;
+    final int testCount;
+
+    ResolvedEntry(Class<?> clazz, TestClassKind kind, int testCount) {
+      this.clazz = clazz;
+      this.kind = kind;
+      this.testCount = testCount;
+    }
+  }
+
+  /**
+   * Filter accepting the test methods of the given names, recording the names being matched.
+   */
+  static final class MethodNameFilter extends Filter {
+    private final Set<String> methodNames;
+    private final Set<String> matched;
+
+    MethodNameFilter(Set<String> methodNames) {
+      this.methodNames = methodNames;
+      this.matched = new HashSet<>();
+    }
+
+    /**
+     * @return <code>true</code> if all method names matched a test method
+     */
+    boolean matchedAll() {
+      return matched.containsAll(methodNames);
+    }
+
+    @Override
+    public boolean shouldRun(Description description) {
+      if (description.isTest()) {
+        String methodName = description.getMethodName();
+        if (methodNames.contains(methodName)) {
+          matched.add(methodName);
+          return true;
+        }
+        return false;
+      }
+      for (Description child : description.getChildren()) {
+        if (shouldRun(child)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public String describe() {
+      return "methods " + methodNames;
+    }
+  }
+}
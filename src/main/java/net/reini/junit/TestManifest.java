@@ -0,0 +1,502 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.reini.junit.TestClassScanner.PackageNode;
+
+/**
+ * A parsed custom test manifest. The manifest files are read as UTF-8, where each line contains
+ * one of the following:
+ *
+ * - a comment starting with `#` or an empty line, which are ignored
+ * - a test class name, such as `net.reini.demo.SomeTest`
+ * - a single test method, such as `net.reini.demo.SomeTest#testSomething`
+ * - all test classes of a package, such as `net.reini.demo.*`
+ * - all test classes of a package and its sub packages, such as `net.reini.demo.**`
+ * - `@include` followed by the path of another manifest, relative to the including one
+ *
+ * Package wildcards are resolved by scanning the class path directories and jar files of the
+ * package for test class files, see {@link TestClassScanner}.
+ *
+ * The resolved test classes are stored in a compiled binary form within the cache directory,
+ * keyed by the digest of all manifest contents and a fingerprint of the class path. The class
+ * path fingerprint contains the size and modification time of its jar files, whereas the
+ * directories and class files found by the package wildcards are validated against their
+ * modification time, so that a repeated run skips the resolution and package scans altogether.
+ * The super classes used to classify the found test classes are validated by their checksums,
+ * as they may be located elsewhere. There is a single cache file per manifest file, which is
+ * replaced whenever the manifest is resolved again, so that the cache directory does not grow.
+ *
+ * @author Patrick Reinhart
+ */
+final class TestManifest {
+  static final String CACHE_PROPERTY = "custom.tests.cache";
+  static final String INCLUDE = "@include";
+
+  private static final int MAGIC = 0x54534d46; // TSMF
+  private static final int VERSION = 3;
+  private static final String CACHE_SUFFIX = ".testmanifest";
+
+  private final Path manifestFile;
+  private final List<String> lines;
+  private final byte[] digest;
+
+  private TestManifest(Path manifestFile, List<String> lines, byte[] digest) {
+    this.manifestFile = manifestFile;
+    this.lines = lines;
+    this.digest = digest;
+  }
+
+  /**
+   * Reads the given manifest including all manifests included by it. Includes already being read
+   * are skipped with a warning, in order to break include cycles.
+   *
+   * @param manifestFile the manifest file
+   * @param logger the logger receiving the warnings for skipped lines
+   * @return the manifest
+   * @throws IOException if a manifest file could not be read
+   */
+  static TestManifest read(Path manifestFile, Logger logger) throws IOException {
+    List<String> lines = new ArrayList<>();
+    MessageDigest digest = sha256();
+    Path path = manifestFile.toAbsolutePath().normalize();
+    read(path, new HashSet<>(), lines, digest, logger);
+    return new TestManifest(path, lines, digest.digest());
+  }
+
+  private static void read(Path manifestFile, Set<Path> including, List<String> lines,
+      MessageDigest digest, Logger logger) throws IOException {
+    byte[] content = Files.readAllBytes(manifestFile);
+    digest.update(longBytes(content.length));
+    digest.update(content);
+    including.add(manifestFile);
+    for (String rawLine : new String(content, StandardCharsets.UTF_8).split("\\R")) {
+      String line = rawLine.trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      if (line.startsWith(INCLUDE)) {
+        Path include =
+            manifestFile.resolveSibling(line.substring(INCLUDE.length()).trim()).normalize();
+        if (including.contains(include)) {
+          logger.warning(() -> "Skipped recursive include ".concat(include.toString()));
+        } else {
+          read(include, including, lines, digest, logger);
+        }
+      } else if (!line.contains("/")) { // filter out jython tests
+        lines.add(line);
+      } else {
+        logger.warning(() -> "Skipped Jython test ".concat(line));
+      }
+    }
+    including.remove(manifestFile);
+  }
+
+  /**
+   * @return the selector lines of all manifests in the order of their occurrence
+   */
+  List<String> lines() {
+    return lines;
+  }
+
+  /**
+   * @return the SHA-256 digest of all manifest contents in the order they were read
+   */
+  byte[] digest() {
+    return digest.clone();
+  }
+
+  /**
+   * Resolves the test classes of this manifest, using the compiled form of a previous resolution
+   * within the given cache directory if it is still valid.
+   *
+   * @param loader the class loader used to resolve the package wildcards
+   * @param cacheDir the cache directory or <code>null</code> if no cache is to be used
+   * @param logger the logger receiving cache warnings
+   * @return the test class entries in the order of the manifest
+   * @throws IOException if a package could not be scanned
+   */
+  List<TestClassEntry> resolve(ClassLoader loader, Path cacheDir, Logger logger)
+      throws IOException {
+    if (cacheDir == null) {
+      return resolve(loader).entries();
+    }
+    byte[] key = cacheKey();
+    Path cacheFile = cacheDir.resolve(cacheFileName());
+    List<TestClassEntry> entries = readCache(cacheFile, key, loader, logger);
+    if (entries != null) {
+      return entries;
+    }
+    Resolution resolution = resolve(loader);
+    try {
+      Files.createDirectories(cacheDir);
+      writeCache(cacheFile, key, resolution);
+    } catch (IOException e) {
+      logger.log(Level.WARNING, e, () -> "Unable to store test manifest cache ".concat(
+          cacheFile.toString()));
+    }
+    return resolution.entries();
+  }
+
+  /**
+   * @return the cache directory as defined by the `custom.tests.cache` system property or
+   *         <code>null</code> if disabled using `none`
+   */
+  static Path cacheDirectory() {
+    String cacheDir = System.getProperty(CACHE_PROPERTY, "").trim();
+    if ("none".equals(cacheDir)) {
+      return null;
+    }
+    if (cacheDir.isEmpty()) {
+      return Paths.get(System.getProperty("java.io.tmpdir"), "customtests-cache");
+    }
+    return Paths.get(cacheDir);
+  }
+
+  /**
+   * @return the name of the cache file of this manifest, being the digest of the manifest path
+   */
+  String cacheFileName() {
+    return toHex(sha256().digest(manifestFile.toString().getBytes(StandardCharsets.UTF_8)))
+        .concat(CACHE_SUFFIX);
+  }
+
+  Resolution resolve(ClassLoader loader) throws IOException {
+    Resolution resolution = new Resolution();
+    TestClassClassifier classifier = new TestClassClassifier(loader);
+    for (String line : lines) {
+      if (line.endsWith(".**")) {
+        addPackage(loader, classifier, line.substring(0, line.length() - 3), true, resolution);
+      } else if (line.endsWith(".*")) {
+        addPackage(loader, classifier, line.substring(0, line.length() - 2), false, resolution);
+      } else {
+        int separator = line.indexOf('#');
+        if (separator < 0) {
+          resolution.add(line, null, TestClassKind.UNKNOWN);
+        } else {
+          resolution.add(line.substring(0, separator), line.substring(separator + 1),
+              TestClassKind.UNKNOWN);
+        }
+      }
+    }
+    for (String superName : classifier.superClassNames()) {
+      resolution.superClasses.put(superName, Long.valueOf(classifier.fingerprint(superName)));
+    }
+    return resolution;
+  }
+
+  private static void addPackage(ClassLoader loader, TestClassClassifier classifier,
+      String packageName, boolean recursive, Resolution resolution) throws IOException {
+    String packagePath = packageName.replace('.', '/');
+    TestClassScanner scanner = new TestClassScanner(ForkJoinPool.commonPool(), classifier, null);
+    for (Enumeration<URL> urls = loader.getResources(packagePath); urls.hasMoreElements();) {
+      URL url = urls.nextElement();
+      switch (url.getProtocol()) {
+        case "file":
+          Path directory = toPath(url);
+          resolution.add(scanner.scan(directory, packageName), directory, recursive, true);
+          break;
+        case "jar":
+          URL jarFile = ((JarURLConnection) url.openConnection()).getJarFileURL();
+          try (FileSystem jarFileSystem = FileSystems.newFileSystem(toPath(jarFile))) {
+            Path jarDirectory = jarFileSystem.getPath("/".concat(packagePath));
+            // the jar file itself is part of the class path fingerprint
+            resolution.add(scanner.scan(jarDirectory, packageName), jarDirectory, recursive,
+                false);
+          }
+          break;
+        default:
+          throw new IOException("Unsupported test class location ".concat(url.toString()));
+      }
+    }
+  }
+
+  private static Path toPath(URL url) throws IOException {
+    try {
+      return Paths.get(url.toURI());
+    } catch (URISyntaxException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * The key of the compiled manifest, being the digest of the manifest contents and the class
+   * path fingerprint. The fingerprint consists of all class path entries, including the size and
+   * modification time of the jar files.
+   */
+  byte[] cacheKey() {
+    MessageDigest key = sha256();
+    try (DataOutputStream out =
+        new DataOutputStream(new DigestOutputStream(OutputStream.nullOutputStream(), key))) {
+      out.write(digest);
+      for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+        out.writeUTF(entry);
+        try {
+          BasicFileAttributes attrs =
+              Files.readAttributes(Paths.get(entry), BasicFileAttributes.class);
+          if (attrs.isRegularFile()) {
+            out.writeLong(attrs.size());
+            out.writeLong(TestScanIndex.toNanos(attrs.lastModifiedTime()));
+          }
+        } catch (IOException | InvalidPathException e) {
+          // a missing entry is fingerprinted by its name only
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    return key.digest();
+  }
+
+  /**
+   * Reads the compiled manifest with the given key.
+   *
+   * @return the test class entries or <code>null</code> if the cache file is missing, unreadable
+   *         or any of its watched files or super classes have been changed
+   */
+  static List<TestClassEntry> readCache(Path cacheFile, byte[] key, ClassLoader loader,
+      Logger logger) {
+    if (!Files.isRegularFile(cacheFile)) {
+      return null;
+    }
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        return null;
+      }
+      byte[] cacheKey = new byte[in.readUnsignedByte()];
+      in.readFully(cacheKey);
+      if (!Arrays.equals(key, cacheKey)) {
+        return null;
+      }
+      for (int i = in.readInt(); i > 0; i--) {
+        Path path = Paths.get(in.readUTF());
+        long size = in.readLong();
+        long modified = in.readLong();
+        try {
+          BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+          if (attrs.size() != size || TestScanIndex.toNanos(attrs.lastModifiedTime()) != modified) {
+            return null;
+          }
+        } catch (NoSuchFileException e) {
+          return null;
+        }
+      }
+      TestClassClassifier classifier = new TestClassClassifier(loader);
+      for (int i = in.readInt(); i > 0; i--) {
+        String superName = in.readUTF();
+        if (classifier.fingerprint(superName) != in.readLong()) {
+          return null;
+        }
+      }
+      TestClassKind[] kinds = TestClassKind.values();
+      int count = in.readInt();
+      List<TestClassEntry> entries = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        String className = in.readUTF();
+        TestClassKind kind = kinds[in.readByte()];
+        int methodCount = in.readInt();
+        Set<String> methodNames = null;
+        if (methodCount >= 0) {
+          methodNames = new LinkedHashSet<>();
+          for (int m = 0; m < methodCount; m++) {
+            methodNames.add(in.readUTF());
+          }
+        }
+        entries.add(new TestClassEntry(className, kind, methodNames));
+      }
+      return entries;
+    } catch (IOException | RuntimeException e) {
+      logger.log(Level.WARNING, e,
+          () -> "Ignoring unreadable test manifest cache ".concat(cacheFile.toString()));
+      return null;
+    }
+  }
+
+  static void writeCache(Path cacheFile, byte[] key, Resolution resolution) throws IOException {
+    List<TestClassEntry> entries = resolution.entries();
+    Path tempFile = Files.createTempFile(cacheFile.toAbsolutePath().getParent(),
+        cacheFile.getFileName().toString(), ".tmp");
+    try {
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeByte(key.length);
+        out.write(key);
+        out.writeInt(resolution.watched.size());
+        for (Map.Entry<Path, BasicFileAttributes> watched : resolution.watched.entrySet()) {
+          BasicFileAttributes attrs = watched.getValue();
+          out.writeUTF(watched.getKey().toString());
+          out.writeLong(attrs.size());
+          out.writeLong(TestScanIndex.toNanos(attrs.lastModifiedTime()));
+        }
+        out.writeInt(resolution.superClasses.size());
+        for (Map.Entry<String, Long> superClass : resolution.superClasses.entrySet()) {
+          out.writeUTF(superClass.getKey());
+          out.writeLong(superClass.getValue().longValue());
+        }
+        out.writeInt(entries.size());
+        for (TestClassEntry entry : entries) {
+          out.writeUTF(entry.className);
+          out.writeByte(entry.kind.ordinal());
+          if (entry.methodNames == null) {
+            out.writeInt(-1);
+          } else {
+            out.writeInt(entry.methodNames.size());
+            for (String methodName : entry.methodNames) {
+              out.writeUTF(methodName);
+            }
+          }
+        }
+      }
+      try {
+        Files.move(tempFile, cacheFile, REPLACE_EXISTING, ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempFile, cacheFile, REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static byte[] longBytes(long value) {
+    byte[] bytes = new byte[Long.BYTES];
+    for (int i = bytes.length - 1; i >= 0; i--) {
+      bytes[i] = (byte) value;
+      value >>>= 8;
+    }
+    return bytes;
+  }
+
+  private static String toHex(byte[] bytes) {
+    StringBuilder hex = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+    }
+    return hex.toString();
+  }
+
+  /**
+   * The resolved test classes together with the files and directories they were found in.
+   */
+  static final class Resolution {
+    private final TestSelection selection = new TestSelection();
+    private final Map<String, TestClassKind> kinds = new HashMap<>();
+    final Map<Path, BasicFileAttributes> watched = new LinkedHashMap<>();
+    final Map<String, Long> superClasses = new TreeMap<>();
+
+    void add(String className, String methodName, TestClassKind kind) {
+      selection.add(className, methodName);
+      TestClassKind previous = kinds.putIfAbsent(className, kind);
+      if (previous == TestClassKind.UNKNOWN) {
+        kinds.put(className, kind);
+      }
+    }
+
+    void add(PackageNode node, Path directory, boolean recursive, boolean watch)
+        throws IOException {
+      if (watch) {
+        watch(directory);
+      }
+      if (recursive) {
+        for (PackageNode packageNode : node.packages) {
+          add(packageNode, directory.resolve(packageNode.name), true, watch);
+        }
+      }
+      for (TestClassEntry entry : node.classes) {
+        if (watch) {
+          String className = entry.className;
+          watch(directory.resolve(className.substring(className.lastIndexOf('.') + 1)
+              .concat(".class")));
+        }
+        add(entry.className, null, entry.kind);
+      }
+    }
+
+    private void watch(Path path) throws IOException {
+      Path absolutePath = path.toAbsolutePath();
+      watched.put(absolutePath, Files.readAttributes(absolutePath, BasicFileAttributes.class));
+    }
+
+    List<TestClassEntry> entries() {
+      List<TestClassEntry> entries = new ArrayList<>(selection.classNames().size());
+      for (String className : selection.classNames()) {
+        entries.add(
+            new TestClassEntry(className, kinds.get(className), selection.methodNames(className)));
+      }
+      return entries;
+    }
+  }
+}
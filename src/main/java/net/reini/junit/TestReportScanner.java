@@ -0,0 +1,222 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Scans JUnit XML report files, as written by ANT, Gradle or Maven, for failed test classes and
+ * methods using a streaming StAX reader. Only `testcase` elements having a `failure` or `error`
+ * child element are reported, where the text content of the report is never accumulated. All
+ * test cases including their `time` attribute can be scanned using a {@link TestCaseHandler}.
+ *
+ * The report files are given as a file, a directory containing report files or a glob pattern
+ * such as `build/test-results/**&#47;TEST-*.xml`.
+ *
+ * @author Patrick Reinhart
+ */
+final class TestReportScanner {
+  private static final String GLOB_CHARACTERS = "*?[{";
+  private static final String REPORT_SUFFIX = ".xml";
+  private static final XMLInputFactory INPUT_FACTORY = newInputFactory();
+
+  private TestReportScanner() {
+  }
+
+  /**
+   * Receives the test cases of a report file.
+   */
+  interface TestCaseHandler {
+    /**
+     * @param className the test class name
+     * @param methodName the test method name or <code>null</code> if not known
+     * @param time the value of the `time` attribute or <code>null</code> if missing
+     * @param failed <code>true</code> if the test case has a failure or an error
+     */
+    void testCase(String className, String methodName, String time, boolean failed);
+  }
+
+  private static XMLInputFactory newInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    return factory;
+  }
+
+  /**
+   * Resolves the report files of the given file, directory or glob pattern. Directories are
+   * searched recursively for `.xml` files.
+   *
+   * @param location the report file, directory or glob pattern
+   * @return the report files sorted by their path
+   * @throws IOException if a directory could not be read
+   */
+  static List<Path> resolve(String location) throws IOException {
+    List<Path> reportFiles = new ArrayList<>();
+    int globStart = indexOfGlob(location);
+    if (globStart < 0) {
+      Path path = Paths.get(location);
+      if (Files.isDirectory(path)) {
+        collect(path, p -> p.getFileName().toString().endsWith(REPORT_SUFFIX), reportFiles);
+      } else if (Files.isRegularFile(path)) {
+        reportFiles.add(path);
+      }
+    } else {
+      // walk from the last directory in front of the first glob character
+      int baseEnd = Math.max(location.lastIndexOf('/', globStart),
+          location.lastIndexOf(File.separatorChar, globStart));
+      Path base = Paths.get(baseEnd < 0 ? "." : location.substring(0, baseEnd + 1));
+      PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + location);
+      if (Files.isDirectory(base)) {
+        collect(base, p -> matcher.matches(baseEnd < 0 ? base.relativize(p) : p), reportFiles);
+      }
+    }
+    return reportFiles;
+  }
+
+  private static int indexOfGlob(String location) {
+    for (int i = 0; i < location.length(); i++) {
+      if (GLOB_CHARACTERS.indexOf(location.charAt(i)) >= 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static void collect(Path directory, PathMatcher matcher, List<Path> reportFiles)
+      throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      paths.filter(p -> Files.isRegularFile(p) && matcher.matches(p)).sorted()
+          .forEachOrdered(reportFiles::add);
+    }
+  }
+
+  /**
+   * Scans the given report file for failed test cases.
+   *
+   * @param reportFile the JUnit XML report file
+   * @param failures receives the class and method names of the failed test cases, where the
+   *        method name is <code>null</code> if not known
+   * @throws IOException if the report file could not be read
+   * @throws XMLStreamException if the report file is not well formed
+   */
+  static void scan(Path reportFile, BiConsumer<String, String> failures)
+      throws IOException, XMLStreamException {
+    scanTestCases(reportFile, failedTestCases(failures));
+  }
+
+  static void scan(InputStream in, BiConsumer<String, String> failures)
+      throws XMLStreamException {
+    scanTestCases(in, failedTestCases(failures));
+  }
+
+  private static TestCaseHandler failedTestCases(BiConsumer<String, String> failures) {
+    return (className, methodName, time, failed) -> {
+      if (failed) {
+        failures.accept(className, methodName);
+      }
+    };
+  }
+
+  /**
+   * Scans the given report file for all test cases.
+   *
+   * @param reportFile the JUnit XML report file
+   * @param handler receives the test cases
+   * @throws IOException if the report file could not be read
+   * @throws XMLStreamException if the report file is not well formed
+   */
+  static void scanTestCases(Path reportFile, TestCaseHandler handler)
+      throws IOException, XMLStreamException {
+    try (InputStream in = Files.newInputStream(reportFile)) {
+      scanTestCases(in, handler);
+    }
+  }
+
+  static void scanTestCases(InputStream in, TestCaseHandler handler) throws XMLStreamException {
+    XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(in);
+    try {
+      String suiteName = null;
+      String className = null;
+      String methodName = null;
+      String time = null;
+      boolean failed = false;
+      int depth = 0;
+      int testCaseDepth = -1;
+      while (reader.hasNext()) {
+        int event = reader.next();
+        if (event == XMLStreamConstants.START_ELEMENT) {
+          depth++;
+          String name = reader.getLocalName();
+          if (testCaseDepth < 0) {
+            if ("testcase".equals(name)) {
+              className = reader.getAttributeValue(null, "classname");
+              if (className == null) {
+                className = suiteName;
+              }
+              methodName = reader.getAttributeValue(null, "name");
+              time = reader.getAttributeValue(null, "time");
+              failed = false;
+              testCaseDepth = depth;
+            } else if ("testsuite".equals(name)) {
+              suiteName = reader.getAttributeValue(null, "name");
+            }
+          } else if (depth == testCaseDepth + 1
+              && ("failure".equals(name) || "error".equals(name))) {
+            failed = true;
+          }
+        } else if (event == XMLStreamConstants.END_ELEMENT) {
+          if (depth == testCaseDepth) {
+            if (className != null) {
+              handler.testCase(className, methodName, time, failed);
+            }
+            testCaseDepth = -1;
+          }
+          depth--;
+        }
+      }
+    } finally {
+      reader.close();
+    }
+  }
+}
@@ -0,0 +1,243 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persistent index of previous test class scans. For each scanned package directory the index
+ * keeps the directory modification time, its sub directories and all test class file candidates
+ * including their size, modification time, test class kind, super class name and the fingerprint
+ * of the super class chain.
+ *
+ * A directory, whose modification time did not change since the last scan, is not listed again
+ * and the test class kind of an unchanged class file is taken from the index instead of reading
+ * the class file again, as long as the fingerprint of its super class chain did not change
+ * either.
+ *
+ * @author Patrick Reinhart
+ */
+final class TestScanIndex {
+  private static final int MAGIC = 0x54534958; // TSIX
+  private static final int VERSION = 3;
+
+  private final Path indexFile;
+  private final String root;
+  private final Map<String, DirectoryRecord> previous;
+  private final ConcurrentMap<String, DirectoryRecord> current;
+
+  private TestScanIndex(Path indexFile, String root, Map<String, DirectoryRecord> previous) {
+    this.indexFile = indexFile;
+    this.root = root;
+    this.previous = previous;
+    this.current = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Loads the index from the given file. A missing or unreadable index file or one written for a
+   * different class path root results in an empty index.
+   *
+   * @param indexFile the index file
+   * @param root the class path root directory the package names are relative to
+   * @return the loaded index
+   */
+  static TestScanIndex load(Path indexFile, Path root) {
+    String rootName = root.toAbsolutePath().toString();
+    Map<String, DirectoryRecord> records = new HashMap<>();
+    if (Files.isRegularFile(indexFile)) {
+      try (DataInputStream in =
+          new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+        if (in.readInt() == MAGIC && in.readInt() == VERSION && rootName.equals(in.readUTF())) {
+          TestClassKind[] kinds = TestClassKind.values();
+          for (int i = in.readInt(); i > 0; i--) {
+            String packageName = in.readUTF();
+            long modified = in.readLong();
+            List<String> directories = new ArrayList<>();
+            for (int d = in.readInt(); d > 0; d--) {
+              directories.add(in.readUTF());
+            }
+            Map<String, FileRecord> files = new TreeMap<>();
+            for (int f = in.readInt(); f > 0; f--) {
+              String fileName = in.readUTF();
+              long size = in.readLong();
+              long fileModified = in.readLong();
+              TestClassKind kind = kinds[in.readByte()];
+              String superName = in.readUTF();
+              files.put(fileName, new FileRecord(size, fileModified, kind,
+                  superName.isEmpty() ? null : superName, in.readLong()));
+            }
+            records.put(packageName, new DirectoryRecord(modified, directories, files));
+          }
+        }
+      } catch (IOException | RuntimeException e) {
+        Logger.getLogger(TestScanIndex.class.getName()).log(Level.WARNING, e,
+            () -> "Ignoring unreadable scan index ".concat(indexFile.toString()));
+        records.clear();
+      }
+    }
+    return new TestScanIndex(indexFile, rootName, records);
+  }
+
+  static long toNanos(FileTime time) {
+    return time.to(TimeUnit.NANOSECONDS);
+  }
+
+  DirectoryRecord get(String packageName) {
+    return previous.get(packageName);
+  }
+
+  void put(String packageName, DirectoryRecord record) {
+    current.put(packageName, record);
+  }
+
+  /**
+   * Stores the records of the current scan together with all previous records not belonging to
+   * the scanned <code>basePackage</code>.
+   *
+   * @param basePackage the base package of the current scan
+   * @throws IOException if the index could not be written
+   */
+  void store(String basePackage) throws IOException {
+    Map<String, DirectoryRecord> records = new TreeMap<>(current);
+    String prefix = basePackage.concat(".");
+    for (Map.Entry<String, DirectoryRecord> entry : previous.entrySet()) {
+      String packageName = entry.getKey();
+      if (!basePackage.isEmpty() && !packageName.equals(basePackage)
+          && !packageName.startsWith(prefix)) {
+        records.putIfAbsent(packageName, entry.getValue());
+      }
+    }
+    Path tempFile = Files.createTempFile(indexFile.toAbsolutePath().getParent(),
+        indexFile.getFileName().toString(), ".tmp");
+    try {
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(root);
+        out.writeInt(records.size());
+        for (Map.Entry<String, DirectoryRecord> entry : records.entrySet()) {
+          DirectoryRecord record = entry.getValue();
+          out.writeUTF(entry.getKey());
+          out.writeLong(record.modified);
+          out.writeInt(record.directories.size());
+          for (String directory : record.directories) {
+            out.writeUTF(directory);
+          }
+          out.writeInt(record.files.size());
+          for (Map.Entry<String, FileRecord> file : record.files.entrySet()) {
+            FileRecord fileRecord = file.getValue();
+            out.writeUTF(file.getKey());
+            out.writeLong(fileRecord.size);
+            out.writeLong(fileRecord.modified);
+            out.writeByte(fileRecord.kind.ordinal());
+            out.writeUTF(fileRecord.superName == null ? "" : fileRecord.superName);
+            out.writeLong(fileRecord.superFingerprint);
+          }
+        }
+      }
+      try {
+        Files.move(tempFile, indexFile, REPLACE_EXISTING, ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempFile, indexFile, REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  /**
+   * Scan result of a single package directory.
+   */
+  static final class DirectoryRecord {
+    final long modified;
+    final List<String> directories;
+    final Map<String, FileRecord> files;
+
+    DirectoryRecord(long modified, List<String> directories, Map<String, FileRecord> files) {
+      this.modified = modified;
+      this.directories = Collections.unmodifiableList(directories);
+      this.files = Collections.unmodifiableMap(files);
+    }
+  }
+
+  /**
+   * Scan result of a single test class file.
+   */
+  static final class FileRecord {
+    final long size;
+    final long modified;
+    final TestClassKind kind;
+    final String superName;
+    final long superFingerprint;
+
+    /**
+     * @param size the class file size
+     * @param modified the class file modification time in nanoseconds
+     * @param kind the test class kind
+     * @param superName the internal super class name or <code>null</code> if unknown
+     * @param superFingerprint the fingerprint of the super class chain
+     */
+    FileRecord(long size, long modified, TestClassKind kind, String superName,
+        long superFingerprint) {
+      this.size = size;
+      this.modified = modified;
+      this.kind = kind;
+      this.superName = superName;
+      this.superFingerprint = superFingerprint;
+    }
+
+    /**
+     * Checks whether the recorded kind is still valid for a class file of the given size and
+     * modification time, where the super class chain must not have changed either.
+     */
+    boolean matches(long size, long modified, TestClassClassifier classifier) {
+      return this.size == size && this.modified == modified && kind != TestClassKind.UNKNOWN
+          && classifier.fingerprint(superName) == superFingerprint;
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A selection of test classes and optionally their test methods, in the order of their first
+ * occurrence, such as the failed tests collected from logs or reports. Either single methods of a
+ * class are selected or the whole class, where a class selection always supersedes its method
+ * selections.
+ *
+ * @author Patrick Reinhart
+ */
+final class TestSelection {
+  private final Map<String, Set<String>> methodsByClass = new LinkedHashMap<>();
+
+  /**
+   * Adds a test class or a single test method.
+   *
+   * @param className the test class
+   * @param methodName the test method or <code>null</code> to select the whole class
+   */
+  void add(String className, String methodName) {
+    Set<String> methodNames = methodsByClass.get(className);
+    if (methodName == null) {
+      methodsByClass.put(className, null);
+    } else if (methodNames != null || !methodsByClass.containsKey(className)) {
+      if (methodNames == null) {
+        methodNames = new LinkedHashSet<>();
+        methodsByClass.put(className, methodNames);
+      }
+      methodNames.add(methodName);
+    }
+  }
+
+  /**
+   * Adds all tests of the given selection.
+   *
+   * @param selection the selection to be added
+   */
+  void addAll(TestSelection selection) {
+    for (Map.Entry<String, Set<String>> entry : selection.methodsByClass.entrySet()) {
+      if (entry.getValue() == null) {
+        add(entry.getKey(), null);
+      } else {
+        for (String methodName : entry.getValue()) {
+          add(entry.getKey(), methodName);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the selected test classes
+   */
+  Set<String> classNames() {
+    return methodsByClass.keySet();
+  }
+
+  /**
+   * @param className the selected test class
+   * @return the selected methods of the given class or <code>null</code> for the whole class
+   */
+  Set<String> methodNames(String className) {
+    return methodsByClass.get(className);
+  }
+
+  @Override
+  public String toString() {
+    return methodsByClass.toString();
+  }
+}
@@ -0,0 +1,296 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import junit.framework.JUnit4TestAdapter;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Selects the tests of one shard out of a number of shards, in order to split a test run across
+ * multiple JVMs. Each test class is assigned to exactly one shard, either by a stable hash of its
+ * class name, by distributing the test classes round-robin in the order of the suite or by
+ * balancing the durations of the test classes taken from previous test reports.
+ *
+ * The shard to be run is defined using the `test.shard` system property having the format
+ * `index/count`, where the index starts with `1`. The optional `test.shard.mode` system
+ * property selects the distribution being either `hash` (the default), `roundrobin` or
+ * `duration`:
+ *
+ * `-Dtest.shard=3/16 -Dtest.shard.mode=roundrobin`
+ *
+ * The `duration` mode reads the test class durations from the JUnit XML report files of a previous
+ * run given in the `test.shard.timings` system property, separated by comma (`,`). The test
+ * classes are then assigned longest first to the shard having the least total duration so far,
+ * where test classes without a known duration count with the average duration:
+ *
+ * `-Dtest.shard=1/4 -Dtest.shard.mode=duration -Dtest.shard.timings=/somedir/TESTS-TestSuites.xml`
+ *
+ * The suite builders apply the sharding before any test class is loaded. Already built suites can
+ * be sliced using {@link #slice(TestSuite)}.
+ *
+ * @author Patrick Reinhart
+ */
+public final class TestSharding {
+  static final String SHARD_PROPERTY = "test.shard";
+  static final String MODE_PROPERTY = "test.shard.mode";
+
+  /**
+   * The test class distribution mode.
+   */
+  public enum Mode {
+    /** Distribution using a stable hash of the test class name. */
+    HASH,
+    /** Round-robin distribution in the order of the test classes. */
+    ROUNDROBIN,
+    /** Distribution balancing the test class durations of previous runs. */
+    DURATION
+  }
+
+  private final int index;
+  private final int count;
+  private final Mode mode;
+  private final Map<String, Double> durations;
+
+  private TestSharding(int index, int count, Mode mode, Map<String, Double> durations) {
+    this.index = index;
+    this.count = count;
+    this.mode = mode;
+    this.durations = durations;
+  }
+
+  /**
+   * Creates a new sharding instance for the given shard.
+   *
+   * @param shard the shard to be selected, starting with <code>1</code>
+   * @param shardCount the total number of shards
+   * @param mode the distribution mode
+   * @return the sharding instance
+   * @throws IllegalArgumentException if the shard is not within the shard count
+   */
+  public static TestSharding of(int shard, int shardCount, Mode mode) {
+    return of(shard, shardCount, mode, Collections.emptyMap());
+  }
+
+  /**
+   * Creates a new sharding instance for the given shard balancing the given test class durations.
+   *
+   * @param shard the shard to be selected, starting with <code>1</code>
+   * @param shardCount the total number of shards
+   * @param durations the test class durations in seconds by class name
+   * @return the sharding instance
+   * @throws IllegalArgumentException if the shard is not within the shard count
+   */
+  public static TestSharding byDuration(int shard, int shardCount,
+      Map<String, Double> durations) {
+    return of(shard, shardCount, Mode.DURATION, durations);
+  }
+
+  private static TestSharding of(int shard, int shardCount, Mode mode,
+      Map<String, Double> durations) {
+    if (shardCount < 1 || shard < 1 || shard > shardCount) {
+      throw new IllegalArgumentException(
+          String.format("Invalid shard %d of %d shards", shard, shardCount));
+    }
+    return new TestSharding(shard - 1, shardCount, mode, durations);
+  }
+
+  /**
+   * Creates the sharding instance as defined by the system properties.
+   *
+   * @return the sharding instance or <code>null</code> if no sharding is defined
+   * @throws IllegalArgumentException if the sharding definition is invalid
+   */
+  public static TestSharding fromSystemProperties() {
+    String shard = System.getProperty(SHARD_PROPERTY, "").trim();
+    if (shard.isEmpty()) {
+      return null;
+    }
+    int separator = shard.indexOf('/');
+    if (separator < 0) {
+      throw new IllegalArgumentException("Invalid shard definition ".concat(shard));
+    }
+    Mode mode = Mode.valueOf(System.getProperty(MODE_PROPERTY, Mode.HASH.name()).trim()
+        .toUpperCase(Locale.ROOT).replace("-", "").replace("_", ""));
+    Map<String, Double> durations = Collections.emptyMap();
+    if (mode == Mode.DURATION) {
+      Logger logger = Logger.getLogger(TestSharding.class.getName());
+      durations = TestDurations.fromSystemProperties(logger);
+    }
+    return of(Integer.parseInt(shard.substring(0, separator).trim()),
+        Integer.parseInt(shard.substring(separator + 1).trim()), mode, durations);
+  }
+
+  /**
+   * @return the distribution mode
+   */
+  public Mode getMode() {
+    return mode;
+  }
+
+  /**
+   * Selects the test classes belonging to this shard. All shards need to be given the same test
+   * classes in the same order.
+   *
+   * @param classNames all test class names
+   * @return the selection flags in the order of the given test classes
+   */
+  public boolean[] select(List<String> classNames) {
+    boolean[] selected = new boolean[classNames.size()];
+    if (mode == Mode.DURATION) {
+      int[] shards = balance(classNames);
+      for (int i = 0; i < shards.length; i++) {
+        selected[i] = shards[i] == index;
+      }
+    } else if (mode == Mode.ROUNDROBIN) {
+      for (int i = 0; i < selected.length; i++) {
+        selected[i] = i % count == index;
+      }
+    } else {
+      for (int i = 0; i < selected.length; i++) {
+        int hash = classNames.get(i).hashCode();
+        selected[i] = Math.floorMod(hash ^ (hash >>> 16), count) == index;
+      }
+    }
+    return selected;
+  }
+
+  /**
+   * Assigns the test classes longest first to the shard with the least total duration.
+   */
+  private int[] balance(List<String> classNames) {
+    int size = classNames.size();
+    double[] times = new double[size];
+    double knownTime = 0;
+    int known = 0;
+    for (int i = 0; i < size; i++) {
+      Double duration = durations.get(classNames.get(i));
+      times[i] = duration == null ? -1 : duration.doubleValue();
+      if (duration != null) {
+        knownTime += times[i];
+        known++;
+      }
+    }
+    double defaultTime = known == 0 ? 1 : knownTime / known;
+    Integer[] order = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      if (times[i] < 0) {
+        times[i] = defaultTime;
+      }
+      order[i] = Integer.valueOf(i);
+    }
+    Arrays.sort(order, (i1, i2) -> {
+      int result = Double.compare(times[i2.intValue()], times[i1.intValue()]);
+      return result == 0 ? Integer.compare(i1.intValue(), i2.intValue()) : result;
+    });
+    double[] loads = new double[count];
+    int[] shards = new int[size];
+    for (Integer position : order) {
+      int shard = 0;
+      for (int s = 1; s < count; s++) {
+        if (loads[s] < loads[shard]) {
+          shard = s;
+        }
+      }
+      loads[shard] += times[position.intValue()];
+      shards[position.intValue()] = shard;
+    }
+    return shards;
+  }
+
+  /**
+   * Slices the given suite returning a new suite containing the test classes of this shard only.
+   * The test classes are either tests not being a {@link TestSuite} or suites containing
+   * {@link TestCase} instances directly, such as suites of JUnit 3 test classes. Suites left
+   * empty are removed.
+   *
+   * @param suite the suite to be sliced
+   * @return the sliced suite
+   */
+  public TestSuite slice(TestSuite suite) {
+    List<String> classNames = new ArrayList<>();
+    collectClassNames(suite, classNames);
+    return slice(suite, select(classNames), new int[1]);
+  }
+
+  private static void collectClassNames(TestSuite suite, List<String> classNames) {
+    for (Enumeration<Test> tests = suite.tests(); tests.hasMoreElements();) {
+      Test test = tests.nextElement();
+      if (test instanceof TestSuite && !isTestClassSuite((TestSuite) test)) {
+        collectClassNames((TestSuite) test, classNames);
+      } else {
+        classNames.add(className(test));
+      }
+    }
+  }
+
+  private static TestSuite slice(TestSuite suite, boolean[] selected, int[] position) {
+    TestSuite slice = new TestSuite(suite.getName());
+    for (Enumeration<Test> tests = suite.tests(); tests.hasMoreElements();) {
+      Test test = tests.nextElement();
+      if (test instanceof TestSuite && !isTestClassSuite((TestSuite) test)) {
+        TestSuite subSlice = slice((TestSuite) test, selected, position);
+        if (subSlice.testCount() > 0) {
+          slice.addTest(subSlice);
+        }
+      } else if (selected[position[0]++]) {
+        slice.addTest(test);
+      }
+    }
+    return slice;
+  }
+
+  static boolean isTestClassSuite(TestSuite suite) {
+    for (Enumeration<Test> tests = suite.tests(); tests.hasMoreElements();) {
+      if (tests.nextElement() instanceof TestCase) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static String className(Test test) {
+    if (test instanceof JUnit4TestAdapter) {
+      return ((JUnit4TestAdapter) test).getTestClass().getName();
+    } else if (test instanceof LazyTest) {
+      return ((LazyTest) test).getClassName();
+    } else if (test instanceof TestSuite) {
+      return ((TestSuite) test).getName();
+    } else if (test instanceof TestCase) {
+      return test.getClass().getName();
+    }
+    return String.valueOf(test);
+  }
+}
@@ -0,0 +1,390 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of a {@link ScheduledExecutorService} driven by a virtual clock, which only
+ * advances when told to do so. The tasks are run in the thread calling {@link #advanceBy(Duration)}
+ * or {@link #runUntilIdle()} in the order of their scheduled time, where tasks scheduled for the
+ * same time are run in the order of their submission. Code under test reading the current time
+ * from {@link #getClock()} sees the time of the task currently running.
+ *
+ * This allows time dependent code, such as retries with a back-off, to be tested without waiting
+ * for the actual delays.
+ *
+ * @author Patrick Reinhart
+ */
+public final class VirtualClockExecutorService extends AbstractExecutorService
+    implements ScheduledExecutorService {
+  private final Instant start;
+  private final Clock clock;
+  private final PriorityQueue<ScheduledTask<?>> queue;
+  private long nanos;
+  private long sequence;
+  private boolean shutdown;
+
+  /**
+   * Creates new executor service instance with a virtual clock starting at the epoch in UTC.
+   *
+   * @return the newly created instance
+   */
+  public static VirtualClockExecutorService create() {
+    return create(Instant.EPOCH, ZoneOffset.UTC);
+  }
+
+  /**
+   * Creates new executor service instance with a virtual clock starting at the given instant.
+   *
+   * @param start the start time of the virtual clock
+   * @param zone the time zone of the virtual clock
+   * @return the newly created instance
+   */
+  public static VirtualClockExecutorService create(Instant start, ZoneId zone) {
+    return new VirtualClockExecutorService(start, zone);
+  }
+
+  private VirtualClockExecutorService(Instant start, ZoneId zone) {
+    this.start = Objects.requireNonNull(start);
+    this.clock = new VirtualClock(Objects.requireNonNull(zone));
+    this.queue = new PriorityQueue<>();
+  }
+
+  /**
+   * @return the virtual clock of this executor
+   */
+  public Clock getClock() {
+    return clock;
+  }
+
+  /**
+   * @return the current time of the virtual clock
+   */
+  public synchronized Instant now() {
+    return start.plusNanos(nanos);
+  }
+
+  /**
+   * @return the number of tasks waiting to be run
+   */
+  public synchronized int getQueuedCount() {
+    return queue.size();
+  }
+
+  /**
+   * Advances the virtual clock by the given duration and runs all tasks scheduled up to the new
+   * time, including those being scheduled by the tasks themselves. Durations exceeding the range
+   * of the virtual clock advance it to its maximum time. Periodic tasks, whose next run would be
+   * at or beyond the maximum time, are not rescheduled.
+   *
+   * @param duration the duration to advance the virtual clock
+   * @return the number of tasks run
+   * @throws IllegalArgumentException if the duration is negative
+   */
+  public int advanceBy(Duration duration) {
+    if (duration.isNegative()) {
+      throw new IllegalArgumentException("Negative duration ".concat(duration.toString()));
+    }
+    long target;
+    synchronized (this) {
+      target = triggerTime(toNanos(duration));
+    }
+    int count = runUntil(target);
+    synchronized (this) {
+      nanos = Math.max(nanos, target);
+    }
+    return count;
+  }
+
+  /**
+   * Runs all tasks being due at the current time of the virtual clock, including those being
+   * submitted by the tasks themselves, without advancing the virtual clock.
+   *
+   * @return the number of tasks run
+   */
+  public int runUntilIdle() {
+    long target;
+    synchronized (this) {
+      target = nanos;
+    }
+    return runUntil(target);
+  }
+
+  private int runUntil(long target) {
+    int count = 0;
+    ScheduledTask<?> task;
+    while ((task = nextTask(target)) != null) {
+      task.run();
+      count++;
+    }
+    return count;
+  }
+
+  private synchronized ScheduledTask<?> nextTask(long target) {
+    ScheduledTask<?> task = queue.peek();
+    if (task == null || task.time > target) {
+      return null;
+    }
+    queue.poll();
+    nanos = Math.max(nanos, task.time);
+    return task;
+  }
+
+  private synchronized <V> ScheduledTask<V> enqueue(ScheduledTask<V> task) {
+    if (shutdown) {
+      throw new RejectedExecutionException("Executor has been shut down");
+    }
+    queue.add(task);
+    return task;
+  }
+
+  private synchronized void reschedule(ScheduledTask<?> task) {
+    if (!shutdown) {
+      queue.add(task);
+    }
+  }
+
+  private synchronized void remove(ScheduledTask<?> task) {
+    queue.remove(task);
+  }
+
+  private synchronized <V> ScheduledTask<V> newTask(Callable<V> callable, long delayNanos,
+      long period) {
+    return new ScheduledTask<>(callable, triggerTime(delayNanos), period, sequence++);
+  }
+
+  /**
+   * Returns the virtual time after the given delay, saturating at the maximum time instead of
+   * overflowing the same way as the {@link java.util.concurrent.ScheduledThreadPoolExecutor} does.
+   */
+  private long triggerTime(long delayNanos) {
+    return add(nanos, delayNanos);
+  }
+
+  private static long add(long time, long delayNanos) {
+    long delay = Math.max(0, delayNanos);
+    return delay > Long.MAX_VALUE - time ? Long.MAX_VALUE : time + delay;
+  }
+
+  private static long toNanos(Duration duration) {
+    try {
+      return duration.toNanos();
+    } catch (ArithmeticException e) {
+      return Long.MAX_VALUE;
+    }
+  }
+
+  private static Callable<Object> callable(Runnable command) {
+    return Executors.callable(Objects.requireNonNull(command));
+  }
+
+  @Override
+  public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+    return enqueue(newTask(callable(command), unit.toNanos(delay), 0));
+  }
+
+  @Override
+  public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+    return enqueue(newTask(Objects.requireNonNull(callable), unit.toNanos(delay), 0));
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period,
+      TimeUnit unit) {
+    if (period <= 0) {
+      throw new IllegalArgumentException("Invalid period " + period);
+    }
+    return enqueue(newTask(callable(command), unit.toNanos(initialDelay), unit.toNanos(period)));
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay,
+      long delay, TimeUnit unit) {
+    if (delay <= 0) {
+      throw new IllegalArgumentException("Invalid delay " + delay);
+    }
+    return enqueue(newTask(callable(command), unit.toNanos(initialDelay), -unit.toNanos(delay)));
+  }
+
+  /**
+   * Queues the given command to be run at the current time of the virtual clock.
+   */
+  @Override
+  public void execute(Runnable command) {
+    schedule(command, 0, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns immediately, as the tasks are only run when the virtual clock is advanced.
+   *
+   * @return <code>true</code> if the executor has been shut down and all tasks have been run
+   */
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) {
+    return isTerminated();
+  }
+
+  @Override
+  public synchronized boolean isShutdown() {
+    return shutdown;
+  }
+
+  @Override
+  public synchronized boolean isTerminated() {
+    return shutdown && queue.isEmpty();
+  }
+
+  /**
+   * Shuts down the executor. Already scheduled tasks are still run when the virtual clock is
+   * advanced, whereas periodic tasks are not scheduled again.
+   */
+  @Override
+  public synchronized void shutdown() {
+    shutdown = true;
+  }
+
+  @Override
+  public synchronized List<Runnable> shutdownNow() {
+    shutdown = true;
+    List<Runnable> tasks = new ArrayList<>(queue.size());
+    ScheduledTask<?> task;
+    while ((task = queue.poll()) != null) {
+      tasks.add(task);
+    }
+    return tasks;
+  }
+
+  final class ScheduledTask<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+    /** positive for a fixed rate, negative for a fixed delay and zero for a single run */
+    private final long period;
+    private final long sequence;
+    long time;
+
+    ScheduledTask(Callable<V> callable, long time, long period, long sequence) {
+      super(callable);
+      this.time = time;
+      this.period = period;
+      this.sequence = sequence;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      synchronized (VirtualClockExecutorService.this) {
+        return unit.convert(time - nanos, TimeUnit.NANOSECONDS);
+      }
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      if (other == this) {
+        return 0;
+      }
+      if (other instanceof ScheduledTask) {
+        ScheduledTask<?> task = (ScheduledTask<?>) other;
+        int result = Long.compare(time, task.time);
+        return result == 0 ? Long.compare(sequence, task.sequence) : result;
+      }
+      return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public boolean isPeriodic() {
+      return period != 0;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      if (cancelled) {
+        remove(this);
+      }
+      return cancelled;
+    }
+
+    @Override
+    public void run() {
+      if (!isPeriodic()) {
+        super.run();
+      } else if (runAndReset()) {
+        boolean saturated;
+        synchronized (VirtualClockExecutorService.this) {
+          time = period > 0 ? add(time, period) : triggerTime(-period);
+          saturated = time == Long.MAX_VALUE;
+        }
+        if (!saturated) {
+          // otherwise the task would stay due forever once the clock reached its maximum time
+          reschedule(this);
+        }
+      }
+    }
+  }
+
+  final class VirtualClock extends Clock {
+    private final ZoneId zone;
+
+    VirtualClock(ZoneId zone) {
+      this.zone = zone;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId newZone) {
+      return zone.equals(newZone) ? this : new VirtualClock(newZone);
+    }
+
+    @Override
+    public Instant instant() {
+      return now();
+    }
+
+    @Override
+    public String toString() {
+      return "VirtualClock[" + zone + "]";
+    }
+  }
+}
@@ -0,0 +1,312 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Implementation of a {@link ExecutorService} executing each task in a new virtual thread, so that
+ * many blocking tasks can be run concurrently without sizing a thread pool. The tasks in flight
+ * are tracked, so that {@link #awaitTermination(long, TimeUnit)} waits for all of them to be
+ * completed.
+ *
+ * If enabled on creation, the virtual threads being pinned to their carrier thread are counted
+ * using the `jdk.VirtualThreadPinned` flight recorder event. The events are delivered with a small
+ * delay, all of them are consumed once the executor has terminated.
+ *
+ * @author Patrick Reinhart
+ */
+public final class VirtualThreadExecutorService extends AbstractExecutorService {
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+  private static final AtomicInteger EXECUTOR_NUMBER = new AtomicInteger();
+
+  private final String namePrefix;
+  private final ThreadFactory threadFactory;
+  private final Set<Thread> threads;
+  private final ReentrantLock lock;
+  private final Condition terminated;
+  private final AtomicInteger maxActive;
+  private final LongAdder completed;
+  private final LongAdder pinned;
+  private final LongAdder pinnedNanos;
+  private final AtomicBoolean terminating;
+  private final RecordingStream pinningMonitor;
+  private boolean shutdown;
+  private boolean done;
+  private int active;
+
+  /**
+   * Creates new executor service instance.
+   *
+   * @return the newly created instance
+   */
+  public static VirtualThreadExecutorService create() {
+    return create(false);
+  }
+
+  /**
+   * Creates new executor service instance.
+   *
+   * @param monitorPinning <code>true</code> if pinned virtual threads should be counted
+   * @return the newly created instance
+   */
+  public static VirtualThreadExecutorService create(boolean monitorPinning) {
+    return new VirtualThreadExecutorService(monitorPinning);
+  }
+
+  private VirtualThreadExecutorService(boolean monitorPinning) {
+    namePrefix = "test-virtual-" + EXECUTOR_NUMBER.incrementAndGet() + '-';
+    threadFactory = Thread.ofVirtual().name(namePrefix, 1).factory();
+    threads = ConcurrentHashMap.newKeySet();
+    lock = new ReentrantLock();
+    terminated = lock.newCondition();
+    maxActive = new AtomicInteger();
+    completed = new LongAdder();
+    pinned = new LongAdder();
+    pinnedNanos = new LongAdder();
+    terminating = new AtomicBoolean();
+    pinningMonitor = monitorPinning ? startPinningMonitor() : null;
+  }
+
+  private RecordingStream startPinningMonitor() {
+    RecordingStream stream = new RecordingStream();
+    stream.enable(PINNED_EVENT).withThreshold(Duration.ZERO);
+    stream.onEvent(PINNED_EVENT, this::pinned);
+    stream.startAsync();
+    return stream;
+  }
+
+  private void pinned(RecordedEvent event) {
+    RecordedThread thread = event.getThread();
+    String threadName = thread == null ? null : thread.getJavaName();
+    if (threadName != null && threadName.startsWith(namePrefix)) {
+      pinned.increment();
+      pinnedNanos.add(event.getDuration().toNanos());
+    }
+  }
+
+  /**
+   * @return the number of tasks currently running
+   */
+  public int getActiveCount() {
+    lock.lock();
+    try {
+      return active;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the maximum number of tasks having been running at the same time
+   */
+  public int getMaxActiveCount() {
+    return maxActive.get();
+  }
+
+  /**
+   * @return the number of completed tasks
+   */
+  public long getCompletedCount() {
+    return completed.sum();
+  }
+
+  /**
+   * @return the number of times a virtual thread was pinned to its carrier thread, always
+   *         <code>0</code> if pinning is not monitored
+   */
+  public long getPinnedCount() {
+    return pinned.sum();
+  }
+
+  /**
+   * @return the total time virtual threads were pinned to their carrier thread
+   */
+  public Duration getPinnedTime() {
+    return Duration.ofNanos(pinnedNanos.sum());
+  }
+
+  /**
+   * @return the number of carrier threads available to run virtual threads
+   */
+  public int getCarrierParallelism() {
+    return Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+        Runtime.getRuntime().availableProcessors());
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    lock.lock();
+    try {
+      while (!done) {
+        if (nanos <= 0) {
+          return false;
+        }
+        nanos = terminated.awaitNanos(nanos);
+      }
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean isShutdown() {
+    lock.lock();
+    try {
+      return shutdown;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean isTerminated() {
+    lock.lock();
+    try {
+      return done;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void shutdown() {
+    boolean terminate;
+    lock.lock();
+    try {
+      shutdown = true;
+      terminate = active == 0;
+    } finally {
+      lock.unlock();
+    }
+    if (terminate) {
+      terminate();
+    }
+  }
+
+  /**
+   * Shuts down the executor and interrupts all running tasks. As each task is started right away,
+   * there are never any tasks waiting to be executed.
+   *
+   * @return always an empty list
+   */
+  @Override
+  public List<Runnable> shutdownNow() {
+    shutdown();
+    for (Thread thread : threads) {
+      thread.interrupt();
+    }
+    return Collections.emptyList();
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    Objects.requireNonNull(command);
+    lock.lock();
+    try {
+      if (shutdown) {
+        throw new RejectedExecutionException("Executor has been shut down");
+      }
+      maxActive.accumulateAndGet(++active, Math::max);
+    } finally {
+      lock.unlock();
+    }
+    Thread thread = null;
+    try {
+      thread = threadFactory.newThread(() -> run(command));
+      threads.add(thread);
+      thread.start();
+    } catch (RuntimeException | Error e) {
+      if (thread != null) {
+        threads.remove(thread);
+      }
+      completed(null);
+      throw e;
+    }
+  }
+
+  private void run(Runnable command) {
+    try {
+      command.run();
+    } finally {
+      completed(Thread.currentThread());
+    }
+  }
+
+  private void completed(Thread thread) {
+    if (thread != null) {
+      threads.remove(thread);
+      completed.increment();
+    }
+    boolean terminate;
+    lock.lock();
+    try {
+      terminate = --active == 0 && shutdown;
+    } finally {
+      lock.unlock();
+    }
+    if (terminate) {
+      terminate();
+    }
+  }
+
+  private void terminate() {
+    if (terminating.compareAndSet(false, true)) {
+      if (pinningMonitor != null) {
+        // consumes all pending events before closing the stream
+        pinningMonitor.stop();
+        pinningMonitor.close();
+      }
+      lock.lock();
+      try {
+        done = true;
+        terminated.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
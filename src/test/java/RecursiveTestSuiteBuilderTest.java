@@ -22,8 +22,10 @@
  * THE SOFTWARE.
  */
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -33,9 +35,33 @@ import junit.framework.TestSuite;
 import junit.swingui.TestRunnerTest;
 import junitx.framework.AssertTest;
 import junitx.util.PrivateAccessorTest;
+import net.reini.junit.ContinuousTestRunnerTest;
 import net.reini.junit.CustomTestSuiteTest;
+import net.reini.junit.FailureLogScannerTest;
+import net.reini.junit.FlakyTestDetectorTest;
+import net.reini.junit.FlakyTestTest;
+import net.reini.junit.InstrumentedExecutorServiceTest;
+import net.reini.junit.LatencyHistogramTest;
+import net.reini.junit.LazyTestTest;
 import net.reini.junit.NetReiniJunitTest;
+import net.reini.junit.ParallelTestSuiteTest;
 import net.reini.junit.RecursiveTestSuiteBuilder;
+import net.reini.junit.RepeatFailedTestsTest;
+import net.reini.junit.SameThreadExecutorServiceTest;
+import net.reini.junit.SuiteMethodTest;
+import net.reini.junit.TestClassClassifierTest;
+import net.reini.junit.TestClassScannerTest;
+import net.reini.junit.TestDurationsTest;
+import net.reini.junit.TestHistoryTest;
+import net.reini.junit.TestImpactIndexTest;
+import net.reini.junit.TestLoaderTest;
+import net.reini.junit.TestManifestTest;
+import net.reini.junit.TestReportScannerTest;
+import net.reini.junit.TestScanIndexTest;
+import net.reini.junit.TestSelectionTest;
+import net.reini.junit.TestShardingTest;
+import net.reini.junit.VirtualClockExecutorServiceTest;
+import net.reini.junit.VirtualThreadExecutorServiceTest;
 import net.reini.junit.pkg1.NetReiniJunitPkg1_FirstTest;
 import net.reini.junit.pkg1.NetReiniJunitPkg1_SecondTest;
 import net.reini.junit.pkg2.NetReiniJunitPkg2Test;
@@ -49,8 +75,32 @@ public class RecursiveTestSuiteBuilderTest {
     testClasses.add(TestRunnerTest.class);
     testClasses.add(AssertTest.class);
     testClasses.add(PrivateAccessorTest.class);
+    testClasses.add(ContinuousTestRunnerTest.class);
     testClasses.add(CustomTestSuiteTest.class);
+    testClasses.add(FailureLogScannerTest.class);
+    testClasses.add(FlakyTestDetectorTest.class);
+    testClasses.add(FlakyTestTest.class);
+    testClasses.add(InstrumentedExecutorServiceTest.class);
+    testClasses.add(LatencyHistogramTest.class);
+    testClasses.add(LazyTestTest.class);
     testClasses.add(NetReiniJunitTest.class);
+    testClasses.add(ParallelTestSuiteTest.class);
+    testClasses.add(RepeatFailedTestsTest.class);
+    testClasses.add(SameThreadExecutorServiceTest.class);
+    testClasses.add(SuiteMethodTest.class);
+    testClasses.add(TestClassClassifierTest.class);
+    testClasses.add(TestClassScannerTest.class);
+    testClasses.add(TestDurationsTest.class);
+    testClasses.add(TestHistoryTest.class);
+    testClasses.add(TestImpactIndexTest.class);
+    testClasses.add(TestLoaderTest.class);
+    testClasses.add(TestManifestTest.class);
+    testClasses.add(TestReportScannerTest.class);
+    testClasses.add(TestScanIndexTest.class);
+    testClasses.add(TestSelectionTest.class);
+    testClasses.add(TestShardingTest.class);
+    testClasses.add(VirtualClockExecutorServiceTest.class);
+    testClasses.add(VirtualThreadExecutorServiceTest.class);
     testClasses.add(NetReiniJunitPkg1_FirstTest.class);
     testClasses.add(NetReiniJunitPkg1_SecondTest.class);
     testClasses.add(NetReiniJunitPkg2Test.class);
@@ -66,6 +116,33 @@ public class RecursiveTestSuiteBuilderTest {
     assertTrue("test classes not in the suite: " + testClasses, testClasses.isEmpty());
   }
 
+  @Test
+  public void testSameTreeAsFileBasedBuild() throws Exception {
+    File baseDir = new File(RecursiveTestSuiteBuilderTest.class
+        .getResource("RecursiveTestSuiteBuilderTest.class").toURI()).getParentFile();
+    TestSuite fileSuite = new TestSuite("file");
+    RecursiveTestSuiteBuilder.build(baseDir.getAbsolutePath().length(), "", baseDir,
+        RecursiveTestSuiteBuilder.getFilenameFilter(), fileSuite);
+    TestSuite pathSuite = new TestSuite("path");
+    RecursiveTestSuiteBuilder.build(baseDir.toPath(), "", pathSuite);
+
+    assertEquals(describe(fileSuite, new StringBuilder()).toString(),
+        describe(pathSuite, new StringBuilder()).toString());
+  }
+
+  private StringBuilder describe(TestSuite suite, StringBuilder description) {
+    int testCount = suite.testCount();
+    for (int i = 0; i < testCount; i++) {
+      junit.framework.Test test = suite.testAt(i);
+      if (test instanceof TestSuite) {
+        description.append(((TestSuite) test).getName()).append('[');
+        describe((TestSuite) test, description).append(']');
+      } else {
+        description.append(test).append(',');
+      }
+    }
+    return description;
+  }
 
   private void walkSuite(TestSuite suite, List<Class<?>> testClasses)
       throws ClassNotFoundException {
@@ -25,11 +25,41 @@
 package junitx.util;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.junit.Test;
 
+import junitx.util.PrivateAccessor.BooleanFieldAccessor;
+import junitx.util.PrivateAccessor.DoubleFieldAccessor;
+import junitx.util.PrivateAccessor.FieldAccessor;
+import junitx.util.PrivateAccessor.IntFieldAccessor;
+import junitx.util.PrivateAccessor.LongFieldAccessor;
+
 public class PrivateAccessorTest {
+  private static final String CONSTANT = "constant";
+
+  private final long finalField = 1;
+  private static long staticField;
+
   private String stringField;
+  private int intField;
+  private double doubleField;
+  private boolean booleanField;
+
+  public interface PrimitiveMethod {
+    long call(PrivateAccessorTest test, long argument1, int argument2);
+  }
+
+  public interface StaticMethod {
+    String call(String argument);
+  }
 
   @Test
   public void testPrivateAccessor() {
@@ -54,6 +84,16 @@ public class PrivateAccessorTest {
     assertEquals("someValue", PrivateAccessor.getField(this, "stringField"));
   }
 
+  @Test
+  public void testGetField_static() throws Exception {
+    assertEquals(CONSTANT, PrivateAccessor.getField(this, "CONSTANT"));
+  }
+
+  @Test
+  public void testGetField_superClass() throws Exception {
+    assertEquals(null, PrivateAccessor.getField(new PrivateAccessorTest() {}, "stringField"));
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testSetField_argumentsNull() throws Exception {
     PrivateAccessor.setField(null, null, null);
@@ -70,6 +110,45 @@ public class PrivateAccessorTest {
     assertEquals("myValue", stringField);
   }
 
+  @Test
+  public void testSetField_final() throws Exception {
+    PrivateAccessor.setField(this, "finalField", Long.valueOf(2));
+    assertEquals(Long.valueOf(2), PrivateAccessor.getField(this, "finalField"));
+  }
+
+  @Test
+  public void testSetField_widening() throws Exception {
+    PrivateAccessor.setField(this, "finalField", Integer.valueOf(3));
+    assertEquals(Long.valueOf(3), PrivateAccessor.getField(this, "finalField"));
+  }
+
+  @Test(expected = NoSuchFieldException.class)
+  public void testSetField_staticFinal() throws Exception {
+    PrivateAccessor.setField(this, "CONSTANT", "other");
+  }
+
+  @Test(expected = NoSuchFieldException.class)
+  public void testSetField_wrongType() throws Exception {
+    PrivateAccessor.setField(this, "stringField", Integer.valueOf(1));
+  }
+
+  @Test(expected = NoSuchFieldException.class)
+  public void testSetField_nullPrimitive() throws Exception {
+    PrivateAccessor.setField(this, "finalField", null);
+  }
+
+  @Test
+  public void testGetField_record() throws Exception {
+    Coordinates coordinates = new Coordinates(4);
+    assertEquals(Integer.valueOf(4), PrivateAccessor.getField(coordinates, "x"));
+    try {
+      PrivateAccessor.setField(coordinates, "x", Integer.valueOf(5));
+      fail("exception expected");
+    } catch (NoSuchFieldException e) {
+      assertEquals(4, coordinates.x());
+    }
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testInvoke_argumentNull() throws Throwable {
     PrivateAccessor.invoke(null, null, null, null);
@@ -86,18 +165,337 @@ public class PrivateAccessorTest {
         new Class[] {Long.class, Boolean.class}, new Object[] {Long.valueOf(123), Boolean.TRUE}));
   }
 
+  @Test(expected = NoSuchMethodException.class)
+  public void testInvoke_wrongArguments() throws Throwable {
+    PrivateAccessor.invoke(this, "theMethod", new Class[] {Long.class, Boolean.class},
+        new Object[] {"123", Boolean.TRUE});
+  }
+
+  @Test
+  public void testInvoke_primitive() throws Throwable {
+    assertEquals(Long.valueOf(5), PrivateAccessor.invoke(this, "thePrimitiveMethod",
+        new Class[] {long.class, int.class}, new Object[] {Long.valueOf(2), Integer.valueOf(3)}));
+    assertEquals(null, PrivateAccessor.invoke(this, "theFinalizingMethod", null, null));
+  }
+
   @Test(expected = RuntimeException.class)
   public void testInvoke_withInvocationException() throws Throwable {
     PrivateAccessor.invoke(this, "theFailingMethod", new Class[0], null);
   }
 
+  @Test
+  public void testInvoke_resolved() throws Throwable {
+    assertEquals("object", PrivateAccessor.invoke(this, "overloaded", Integer.valueOf(1)));
+    assertEquals("object", PrivateAccessor.invoke(this, "overloaded", Long.valueOf(1)));
+    assertEquals("string", PrivateAccessor.invoke(this, "overloaded", "1"));
+    assertEquals("string", PrivateAccessor.invoke(this, "overloaded", (Object) null));
+    assertEquals("object", PrivateAccessor.invoke(this, "overloaded", Boolean.TRUE));
+    assertEquals("123 true", PrivateAccessor.invoke(this, "theMethod", 123L, true));
+    assertEquals(null, PrivateAccessor.invoke(this, "theFinalizingMethod"));
+  }
+
+  @Test
+  public void testInvoke_resolvedUnboxed() throws Throwable {
+    assertEquals("int", PrivateAccessor.invoke(this, "widened", Integer.valueOf(1)));
+    assertEquals("long", PrivateAccessor.invoke(this, "widened", Long.valueOf(1)));
+    assertEquals("int", PrivateAccessor.invoke(this, "widened", Short.valueOf((short) 1)));
+    assertEquals("integer", PrivateAccessor.invoke(this, "boxed", Integer.valueOf(1)));
+    assertEquals("long", PrivateAccessor.invoke(this, "boxed", Long.valueOf(1)));
+  }
+
+  @Test(expected = NoSuchMethodException.class)
+  public void testInvoke_resolvedAmbiguous() throws Throwable {
+    PrivateAccessor.invoke(this, "ambiguous", "1", "2");
+  }
+
+  @Test(expected = NoSuchMethodException.class)
+  public void testInvoke_resolvedNotApplicable() throws Throwable {
+    PrivateAccessor.invoke(this, "overloaded", 1, 2);
+  }
+
+  @Test
+  public void testInvokeStatic() throws Throwable {
+    assertEquals("static value", PrivateAccessor.invokeStatic(PrivateAccessorTest.class,
+        "theStaticMethod", new Class[] {String.class}, new Object[] {"value"}));
+    assertEquals("static value",
+        PrivateAccessor.invokeStatic(PrivateAccessorTest.class, "theStaticMethod", "value"));
+  }
+
+  @Test(expected = NoSuchMethodException.class)
+  public void testInvokeStatic_instanceMethod() throws Throwable {
+    PrivateAccessor.invokeStatic(PrivateAccessorTest.class, "theFinalizingMethod");
+  }
+
+  @Test
+  public void testStaticField() throws Exception {
+    assertEquals(CONSTANT, PrivateAccessor.getStaticField(PrivateAccessorTest.class, "CONSTANT"));
+    PrivateAccessor.setStaticField(PrivateAccessorTest.class, "staticField", Integer.valueOf(9));
+    assertEquals(9L, staticField);
+    assertEquals(Long.valueOf(9),
+        PrivateAccessor.getStaticField(PrivateAccessorTest.class, "staticField"));
+  }
+
+  @Test(expected = NoSuchFieldException.class)
+  public void testGetStaticField_instanceField() throws Exception {
+    PrivateAccessor.getStaticField(PrivateAccessorTest.class, "stringField");
+  }
+
+  @Test(expected = NoSuchFieldException.class)
+  public void testSetStaticField_final() throws Exception {
+    PrivateAccessor.setStaticField(PrivateAccessorTest.class, "CONSTANT", "other");
+  }
+
+  @Test
+  public void testSnapshot() throws Exception {
+    stringField = "value";
+    intField = 3;
+    Shadowing shadowing = new Shadowing();
+    shadowing.stringField = "shadowing";
+    Map<String, Object> snapshot = PrivateAccessor.snapshot(shadowing);
+    assertEquals("[stringField, finalField, junitx.util.PrivateAccessorTest.stringField, "
+        + "intField, doubleField, booleanField]", snapshot.keySet().toString());
+    assertEquals("shadowing", snapshot.get("stringField"));
+    assertEquals(Long.valueOf(1), snapshot.get("finalField"));
+    assertEquals(null, snapshot.get("junitx.util.PrivateAccessorTest.stringField"));
+    assertEquals(Integer.valueOf(0), snapshot.get("intField"));
+
+    assertEquals("value", PrivateAccessor.snapshot(this).get("stringField"));
+    assertEquals(Integer.valueOf(3), PrivateAccessor.snapshot(this).get("intField"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSnapshot_argumentNull() throws Exception {
+    PrivateAccessor.snapshot(null);
+  }
+
+  @Test
+  public void testFieldAccessor() throws Exception {
+    FieldAccessor<PrivateAccessorTest, String> accessor =
+        PrivateAccessor.fieldAccessor(PrivateAccessorTest.class, "stringField", String.class);
+    accessor.set(this, "myValue");
+    assertEquals("myValue", stringField);
+    assertEquals("myValue", accessor.get(this));
+  }
+
+  @Test
+  public void testFieldAccessor_boxed() throws Exception {
+    FieldAccessor<PrivateAccessorTest, Integer> accessor =
+        PrivateAccessor.fieldAccessor(PrivateAccessorTest.class, "intField", Integer.class);
+    accessor.set(this, Integer.valueOf(4));
+    assertEquals(4, intField);
+    assertEquals(Integer.valueOf(4), accessor.get(this));
+  }
+
+  @Test
+  public void testFieldAccessor_superClass() throws Exception {
+    PrivateAccessorTest test = new PrivateAccessorTest() {};
+    @SuppressWarnings("rawtypes")
+    FieldAccessor<? extends PrivateAccessorTest, Object> accessor =
+        PrivateAccessor.fieldAccessor(test.getClass(), "stringField", Object.class);
+    ((FieldAccessor) accessor).set(test, "inherited");
+    assertEquals("inherited", test.stringField);
+  }
+
+  @Test
+  public void testFieldAccessor_superType() throws Exception {
+    FieldAccessor<PrivateAccessorTest, Object> accessor =
+        PrivateAccessor.fieldAccessor(PrivateAccessorTest.class, "intField", Object.class);
+    accessor.set(this, Integer.valueOf(5));
+    assertEquals(5, intField);
+    assertEquals(Integer.valueOf(5), accessor.get(this));
+    assertSame(accessor,
+        PrivateAccessor.fieldAccessor(PrivateAccessorTest.class, "intField", Number.class));
+  }
+
+  @Test
+  public void testFieldAccessor_methodHandle() throws Exception {
+    @SuppressWarnings("unchecked")
+    FieldAccessor<PrivateAccessorTest, Object> accessor = AccessorGenerator.methodHandleAccessor(
+        PrivateAccessorTest.class.getDeclaredField("stringField"), FieldAccessor.class, "get",
+        "set");
+    accessor.set(this, "handle");
+    assertEquals("handle", stringField);
+    assertEquals("handle", accessor.get(this));
+
+    @SuppressWarnings("unchecked")
+    LongFieldAccessor<PrivateAccessorTest> longAccessor = AccessorGenerator.methodHandleAccessor(
+        PrivateAccessorTest.class.getDeclaredField("staticField"), LongFieldAccessor.class,
+        "getLong", "setLong");
+    longAccessor.setLong(null, 9);
+    assertEquals(9, staticField);
+    assertEquals(9, longAccessor.getLong(this));
+
+    @SuppressWarnings("unchecked")
+    LongFieldAccessor<PrivateAccessorTest> finalAccessor = AccessorGenerator.methodHandleAccessor(
+        PrivateAccessorTest.class.getDeclaredField("finalField"), LongFieldAccessor.class,
+        "getLong", "setLong");
+    assertEquals(1, finalAccessor.getLong(this));
+    try {
+      finalAccessor.setLong(this, 2);
+      fail("UnsupportedOperationException expected");
+    } catch (UnsupportedOperationException e) {
+      assertEquals(1, finalField);
+    }
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testFieldAccessor_final() throws Exception {
+    FieldAccessor<PrivateAccessorTest, String> accessor =
+        PrivateAccessor.fieldAccessor(PrivateAccessorTest.class, "CONSTANT", String.class);
+    assertEquals(CONSTANT, accessor.get(null));
+    accessor.set(null, "other");
+  }
+
+  @Test(expected = NoSuchFieldException.class)
+  public void testFieldAccessor_unknownField() throws Exception {
+    PrivateAccessor.fieldAccessor(PrivateAccessorTest.class, "someField", String.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFieldAccessor_wrongType() throws Exception {
+    PrivateAccessor.fieldAccessor(PrivateAccessorTest.class, "stringField", Integer.class);
+  }
+
+  @Test
+  public void testPrimitiveFieldAccessors() throws Exception {
+    IntFieldAccessor<PrivateAccessorTest> intAccessor =
+        PrivateAccessor.intFieldAccessor(PrivateAccessorTest.class, "intField");
+    intAccessor.setInt(this, 7);
+    assertEquals(7, intAccessor.getInt(this));
+
+    LongFieldAccessor<PrivateAccessorTest> longAccessor =
+        PrivateAccessor.longFieldAccessor(PrivateAccessorTest.class, "staticField");
+    longAccessor.setLong(null, Long.MAX_VALUE);
+    assertEquals(Long.MAX_VALUE, staticField);
+    assertEquals(Long.MAX_VALUE, longAccessor.getLong(this));
+
+    DoubleFieldAccessor<PrivateAccessorTest> doubleAccessor =
+        PrivateAccessor.doubleFieldAccessor(PrivateAccessorTest.class, "doubleField");
+    doubleAccessor.setDouble(this, 1.5);
+    assertEquals(1.5, doubleAccessor.getDouble(this), 0);
+
+    BooleanFieldAccessor<PrivateAccessorTest> booleanAccessor =
+        PrivateAccessor.booleanFieldAccessor(PrivateAccessorTest.class, "booleanField");
+    assertFalse(booleanAccessor.getBoolean(this));
+    booleanAccessor.setBoolean(this, true);
+    assertTrue(booleanField);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPrimitiveFieldAccessor_wrongType() throws Exception {
+    PrivateAccessor.intFieldAccessor(PrivateAccessorTest.class, "finalField");
+  }
+
+  @Test
+  public void testMethodAccessor() throws Exception {
+    PrimitiveMethod accessor = PrivateAccessor.methodAccessor(PrivateAccessorTest.class,
+        "thePrimitiveMethod", PrimitiveMethod.class);
+    assertEquals(5, accessor.call(this, 2, 3));
+  }
+
+  @Test
+  public void testMethodAccessor_generic() throws Exception {
+    @SuppressWarnings("unchecked")
+    Function<String, Object> accessor = PrivateAccessor
+        .methodAccessor(PrivateAccessorTest.class, "theStaticMethod", Function.class);
+    assertEquals("static value", accessor.apply("value"));
+  }
+
+  @Test
+  public void testMethodAccessor_static() throws Exception {
+    StaticMethod accessor = PrivateAccessor.methodAccessor(PrivateAccessorTest.class,
+        "theStaticMethod", StaticMethod.class);
+    assertEquals("static value", accessor.call("value"));
+  }
+
+  @Test(expected = NoSuchMethodException.class)
+  public void testMethodAccessor_unknownMethod() throws Exception {
+    PrivateAccessor.methodAccessor(PrivateAccessorTest.class, "someMethod", Supplier.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMethodAccessor_noFunctionalInterface() throws Exception {
+    PrivateAccessor.methodAccessor(PrivateAccessorTest.class, "theMethod", Runnable[].class);
+  }
+
+  @SuppressWarnings("unused")
+  private String overloaded(int argument) {
+    return "int";
+  }
+
+  @SuppressWarnings("unused")
+  private String overloaded(long argument) {
+    return "long";
+  }
+
+  @SuppressWarnings("unused")
+  private String overloaded(Object argument) {
+    return "object";
+  }
+
+  @SuppressWarnings("unused")
+  private String overloaded(String argument) {
+    return "string";
+  }
+
+  @SuppressWarnings("unused")
+  private String widened(int argument) {
+    return "int";
+  }
+
+  @SuppressWarnings("unused")
+  private String widened(long argument) {
+    return "long";
+  }
+
+  @SuppressWarnings("unused")
+  private String boxed(long argument) {
+    return "long";
+  }
+
+  @SuppressWarnings("unused")
+  private String boxed(Integer argument) {
+    return "integer";
+  }
+
+  @SuppressWarnings("unused")
+  private String ambiguous(String argument1, Object argument2) {
+    return "first";
+  }
+
+  @SuppressWarnings("unused")
+  private String ambiguous(Object argument1, String argument2) {
+    return "second";
+  }
+
+  @SuppressWarnings("unused")
+  private static String theStaticMethod(String argument) {
+    return "static ".concat(argument);
+  }
+
   @SuppressWarnings("unused")
   private String theMethod(Long argument1, Boolean argument2) {
     return String.format("%s %s", argument1, argument2);
   }
 
+  @SuppressWarnings("unused")
+  private long thePrimitiveMethod(long argument1, int argument2) {
+    return argument1 + argument2;
+  }
+
+  @SuppressWarnings("unused")
+  private void theFinalizingMethod() {
+  }
+
   @SuppressWarnings("unused")
   private void theFailingMethod() {
     throw new RuntimeException();
   }
+
+  public static class Shadowing extends PrivateAccessorTest {
+    String stringField;
+  }
+
+  public record Coordinates(int x) {
+  }
 }
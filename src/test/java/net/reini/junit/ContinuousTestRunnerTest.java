@@ -0,0 +1,153 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import junit.framework.JUnit4TestAdapter;
+import junit.framework.TestResult;
+import junit.framework.TestSuite;
+import net.reini.junit.ContinuousTestRunner.ReloadingClassLoader;
+
+public class ContinuousTestRunnerTest {
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private List<Path> roots;
+  private Path indexFile;
+  private ContinuousTestRunner runner;
+
+  @Before
+  public void setUp() throws Exception {
+    Path root = tempFolder.newFolder("classes").toPath();
+    roots = Collections.singletonList(root);
+    for (Class<?> type : new Class<?>[] {TestSelection.class, TestSelectionTest.class,
+        LatencyHistogram.class, LatencyHistogram.Snapshot.class, LatencyHistogramTest.class}) {
+      Path classFile = classFile(type);
+      Files.createDirectories(classFile.getParent());
+      try (InputStream in = type.getResourceAsStream(classFile.getFileName().toString())) {
+        Files.write(classFile, in.readAllBytes());
+      }
+    }
+    indexFile = root.resolveSibling("testimpact.index");
+    runner = newRunner();
+  }
+
+  @Test
+  public void testReloadingClassLoader() throws Exception {
+    try (ReloadingClassLoader loader = newLoader();
+        ReloadingClassLoader otherLoader = newLoader()) {
+      Class<?> reloaded = loader.loadClass(TestSelection.class.getName());
+      assertSame(loader, reloaded.getClassLoader());
+      assertNotSame(reloaded, otherLoader.loadClass(TestSelection.class.getName()));
+      assertSame(TestClassEntry.class, loader.loadClass(TestClassEntry.class.getName()));
+    }
+  }
+
+  @Test
+  public void testBuildSuite() throws Exception {
+    try (ReloadingClassLoader loader = newLoader()) {
+      assertEquals(2, changedTests(runner.buildSuite(loader, false)).testCount());
+      assertNull(runner.buildSuite(loader, false));
+    }
+    Path changedFile = classFile(TestSelection.class);
+    Files.setLastModifiedTime(changedFile,
+        FileTime.fromMillis(Files.getLastModifiedTime(changedFile).toMillis() - 10_000));
+
+    try (ReloadingClassLoader loader = newLoader()) {
+      TestSuite suite = changedTests(runner.buildSuite(loader, false));
+      assertEquals(1, suite.testCount());
+      Class<?> testClass = ((JUnit4TestAdapter) suite.testAt(0)).getTestClass();
+      assertEquals(TestSelectionTest.class.getName(), testClass.getName());
+      assertSame(loader, testClass.getClassLoader());
+    }
+  }
+
+  @Test
+  public void testBuildSuite_all() throws Exception {
+    try (ReloadingClassLoader loader = newLoader()) {
+      runner.buildSuite(loader, false);
+      assertEquals(new JUnit4TestAdapter(TestSelectionTest.class).countTestCases()
+          + new JUnit4TestAdapter(LatencyHistogramTest.class).countTestCases(),
+          runner.buildSuite(loader, true).countTestCases());
+    }
+  }
+
+  @Test
+  public void testBuildSuite_storedAfterRun() throws Exception {
+    try (ReloadingClassLoader loader = newLoader()) {
+      TestResult stopped = new TestResult();
+      stopped.stop();
+      runner.buildSuite(loader, false).run(stopped);
+    }
+    assertTrue(Files.exists(indexFile));
+    ContinuousTestRunner stoppedRunner = newRunner();
+    try (ReloadingClassLoader loader = newLoader()) {
+      // the test classes not being run remain changed
+      junit.framework.Test suite = stoppedRunner.buildSuite(loader, false);
+      assertEquals(2, changedTests(suite).testCount());
+      suite.run(new TestResult());
+    }
+
+    ContinuousTestRunner passedRunner = newRunner();
+    try (ReloadingClassLoader loader = newLoader()) {
+      assertNull(passedRunner.buildSuite(loader, false));
+    }
+  }
+
+  private static TestSuite changedTests(junit.framework.Test suite) {
+    return (TestSuite) ((TestSuite) suite).testAt(0);
+  }
+
+  private ContinuousTestRunner newRunner() {
+    return new ContinuousTestRunner(roots, indexFile,
+        Logger.getLogger(ContinuousTestRunnerTest.class.getName()));
+  }
+
+  private ReloadingClassLoader newLoader() throws Exception {
+    return new ReloadingClassLoader(roots, getClass().getClassLoader());
+  }
+
+  private Path classFile(Class<?> type) {
+    return roots.get(0).resolve(type.getName().replace('.', '/').concat(".class"));
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import net.reini.junit.FailureLogScanner.Format;
+
+public class FailureLogScannerTest {
+  private static final Pattern TEST_NAME = Pattern.compile("\\[junit\\] Running (.+)$");
+  private static final Pattern TEST_RESULT =
+      Pattern.compile("\\[junit\\] Tests run: [0-9]+, Failures: ([0-9]+), Errors: ([0-9]+),");
+  private static final Pattern GRADLE_NAME = Pattern.compile("^\\[.+\\] (.+) > .*FAILED$");
+
+  private static final String[] LINES = {
+      "    [junit] Running a.FirstTest",
+      "    [junit] Tests run: 12, Failures: 1, Errors: 0, Time elapsed: 0.1 sec",
+      "    [junit] Running a.SecondTest",
+      "    [junit] Tests run: 3, Failures: 0, Errors: 0, Time elapsed: 0.1 sec",
+      "    [junit] Running a.ThirdTest",
+      "    [junit] Tests run: 3, Failures: 0, Errors: 2, Time elapsed: 0.1 sec",
+      "    [junit] Running a.FourthTest",
+      "    [junit] Tests run: 3, Failures: x, Errors: 2, Time elapsed: 0.1 sec",
+      "[2026-10-17T10:00:00] b.FirstTest > testSomething FAILED",
+      "[test] b.SecondTest > testSomething PASSED",
+      "[test] b.ThirdTest > testSomething[1] FAILED",
+      "b.FourthTest > testSomething FAILED",
+      "[test] > FAILED",
+      "compiling 1234 source files to /some/directory",
+      "[javac] warning: [deprecation] something has been deprecated",
+      ""};
+
+  @Test
+  public void testScan_ant() throws IOException {
+    assertEquals(Arrays.asList("a.FirstTest", "a.ThirdTest"),
+        scan(String.join("\n", LINES), Format.ANT));
+  }
+
+  @Test
+  public void testScan_gradle() throws IOException {
+    assertEquals(Arrays.asList("b.FirstTest", "b.ThirdTest"),
+        scan(String.join("\r\n", LINES), Format.GRADLE));
+  }
+
+  @Test
+  public void testScan_gradleMethods() throws IOException {
+    List<String> failures = new ArrayList<>();
+    String log = String.join("\n", LINES) + "\n[test] b.FifthTest > testOther() FAILED";
+    new FailureLogScanner(Format.GRADLE).scan(
+        new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8)),
+        (className, methodName) -> failures.add(className + '#' + methodName));
+
+    assertEquals(Arrays.asList("b.FirstTest#testSomething", "b.ThirdTest#testSomething[1]",
+        "b.FifthTest#testOther"), failures);
+  }
+
+  @Test
+  public void testScan_surefire() throws IOException {
+    String log = "[INFO] Running c.FirstTest\n"
+        + "[ERROR] Tests run: 2, Failures: 1, Errors: 0, Skipped: 0, Time elapsed: 0.1 s"
+        + " <<< FAILURE! - in c.FirstTest\n"
+        + "[ERROR] Tests run: 2, Failures: 0, Errors: 1, Skipped: 0, Time elapsed: 0.1 s"
+        + " <<< ERROR! -- in c.SecondTest\n"
+        + "[ERROR] c.SecondTest.testOther -- Time elapsed: 0.01 s <<< ERROR!\n"
+        + "[INFO] Tests run: 2, Failures: 0, Errors: 0, Skipped: 0, Time elapsed: 0.1 s"
+        + " - in c.ThirdTest";
+    assertEquals(Arrays.asList("c.FirstTest", "c.SecondTest"), scan(log, Format.SUREFIRE));
+  }
+
+  @Test
+  public void testScan_sameAsRegex() throws IOException {
+    Random random = new Random(4711);
+    StringBuilder log = new StringBuilder();
+    for (int i = 0; i < 20_000; i++) {
+      int line = random.nextInt(LINES.length);
+      if (line < 8) {
+        // the ANT lines always come in pairs
+        line &= ~1;
+        log.append(LINES[line]).append('\n');
+        line++;
+      }
+      log.append(LINES[line]).append('\n');
+    }
+    // lines longer than the read buffer
+    log.append("[junit] Running ").append(new String(new char[200_000]).replace('\0', 'x'));
+    log.append("\n    [junit] Tests run: 1, Failures: 1, Errors: 0,");
+
+    assertEquals(scanRegex(log.toString()), scan(log.toString(), Format.ANT, Format.GRADLE));
+  }
+
+  private static List<String> scan(String log, Format... formats) throws IOException {
+    List<String> classNames = new ArrayList<>();
+    // deliver the content in small chunks in order to split lines between reads
+    InputStream in = new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8)) {
+      @Override
+      public synchronized int read(byte[] b, int off, int len) {
+        return super.read(b, off, Math.min(len, 1000));
+      }
+    };
+    new FailureLogScanner(formats).scan(in,
+        (className, methodName) -> classNames.add(className));
+    return classNames;
+  }
+
+  /**
+   * The former regular expression based implementation.
+   */
+  private static List<String> scanRegex(String log) throws IOException {
+    List<String> classNames = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new StringReader(log))) {
+      String line = null;
+      while ((line = reader.readLine()) != null) {
+        Matcher nameMatcher = TEST_NAME.matcher(line);
+        if (nameMatcher.find()) {
+          line = reader.readLine();
+          if (line != null) {
+            Matcher resultMatcher = TEST_RESULT.matcher(line);
+            if (resultMatcher.find()) {
+              if (!"0".equals(resultMatcher.group(2)) || !"0".equals(resultMatcher.group(1))) {
+                classNames.add(nameMatcher.group(1));
+              }
+            }
+          }
+        }
+        if (line != null) {
+          Matcher gradleNameMatcher = GRADLE_NAME.matcher(line);
+          if (gradleNameMatcher.matches()) {
+            classNames.add(gradleNameMatcher.group(1));
+          }
+        }
+      }
+    }
+    return classNames;
+  }
+}
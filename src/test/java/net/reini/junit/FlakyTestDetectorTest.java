@@ -0,0 +1,99 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import junit.framework.JUnit4TestAdapter;
+import junit.framework.TestResult;
+import junit.framework.TestSuite;
+
+public class FlakyTestDetectorTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @After
+  public void tearDown() {
+    System.clearProperty("error.suite.files");
+    System.clearProperty(FlakyTestDetector.REPETITIONS_PROPERTY);
+    System.clearProperty(FlakyTestDetector.MODE_PROPERTY);
+  }
+
+  @Test
+  public void testSuite() throws IOException {
+    String className = FlakyTestTest.Fixture.class.getName();
+    Path reportFile = folder.newFile("TEST-flaky.xml").toPath();
+    Files.write(reportFile, ("<testsuite name=\"" + className + "\">"
+        + "<testcase classname=\"" + className + "\" name=\"testFailing\"><failure/></testcase>"
+        + "<testcase classname=\"" + className + "\" name=\"testPassing\"><error/></testcase>"
+        + "<testcase classname=\"" + className + "\" name=\"testError\"/>"
+        + "</testsuite>").getBytes(StandardCharsets.UTF_8));
+    System.setProperty("error.suite.files", reportFile.toString());
+    System.setProperty(FlakyTestDetector.REPETITIONS_PROPERTY, "3");
+    System.setProperty(FlakyTestDetector.MODE_PROPERTY, "warm");
+
+    TestSuite suite = (TestSuite) FlakyTestDetector.suite();
+    assertEquals(2, suite.testCount());
+    TestResult result = new TestResult();
+    suite.run(result);
+
+    assertEquals(2, result.runCount());
+    assertEquals(1, result.failureCount());
+    FlakyTest failing = (FlakyTest) suite.testAt(0);
+    assertEquals(FlakyTest.Verdict.FAILING, failing.getStatistics().getVerdict());
+    assertEquals(3, failing.getStatistics().getRuns());
+    FlakyTest fixed = (FlakyTest) suite.testAt(1);
+    assertEquals(FlakyTest.Verdict.FIXED, fixed.getStatistics().getVerdict());
+  }
+
+  @Test
+  public void testNewSuite() {
+    TestSuite tests = new TestSuite("tests");
+    tests.addTest(new TestSuite(FlakyTestTest.Fixture.class));
+    tests.addTest(new JUnit4TestAdapter(NetReiniJunitTest.class));
+
+    TestSuite suite = FlakyTestDetector.newSuite("flaky", tests, 2, FlakyTest.Mode.FRESH);
+    assertEquals(6, suite.testCount());
+    for (int i = 0; i < suite.testCount(); i++) {
+      assertTrue(suite.testAt(i) instanceof FlakyTest);
+    }
+  }
+
+  @Test
+  public void testSuite_empty() {
+    assertEquals(0, FlakyTestDetector.suite().countTestCases());
+  }
+}
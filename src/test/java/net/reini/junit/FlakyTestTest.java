@@ -0,0 +1,194 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.JUnit4TestAdapter;
+import junit.framework.TestCase;
+import junit.framework.TestResult;
+import junit.framework.TestSuite;
+
+public class FlakyTestTest {
+  private static int runs;
+
+  @Before
+  public void setUp() {
+    runs = 0;
+  }
+
+  @Test
+  public void testRun_failing() {
+    FlakyTest flakyTest = flakyTest("testFailing", 3, FlakyTest.Mode.FRESH);
+    TestResult result = new TestResult();
+    flakyTest.run(result);
+
+    assertEquals(1, result.runCount());
+    assertEquals(1, result.failureCount());
+    assertEquals("always", result.failures().nextElement().thrownException().getMessage());
+    assertEquals(FlakyTest.Verdict.FAILING, flakyTest.getStatistics().getVerdict());
+    assertEquals(3, flakyTest.getStatistics().getRuns());
+  }
+
+  @Test
+  public void testRun_error() {
+    TestResult result = new TestResult();
+    flakyTest("testError", 2, FlakyTest.Mode.FRESH).run(result);
+
+    assertEquals(0, result.failureCount());
+    assertEquals(1, result.errorCount());
+  }
+
+  @Test
+  public void testRun_flaky() {
+    FlakyTest flakyTest = flakyTest("testEverySecond", 4, FlakyTest.Mode.FRESH);
+    TestResult result = new TestResult();
+    flakyTest.run(result);
+
+    FlakyTest.Statistics statistics = flakyTest.getStatistics();
+    assertEquals(FlakyTest.Verdict.FLAKY, statistics.getVerdict());
+    assertEquals(2, statistics.getPasses());
+    assertEquals(0.5, statistics.getPassRate(), 0);
+    assertEquals(1, result.failureCount());
+    assertTrue(result.failures().nextElement().thrownException().getMessage()
+        .contains("2 of 4 passed"));
+  }
+
+  @Test
+  public void testRun_fixed() {
+    FlakyTest flakyTest = flakyTest("testPassing", 5, FlakyTest.Mode.FRESH);
+    TestResult result = new TestResult();
+    flakyTest.run(result);
+
+    assertTrue(result.wasSuccessful());
+    assertEquals(1, result.runCount());
+    assertEquals(FlakyTest.Verdict.FIXED, flakyTest.getStatistics().getVerdict());
+    assertEquals(5, runs);
+  }
+
+  @Test
+  public void testRun_warm() {
+    FlakyTest flakyTest = flakyTest("testFreshInstance", 3, FlakyTest.Mode.WARM);
+    flakyTest.run(new TestResult());
+
+    assertEquals(1, flakyTest.getStatistics().getPasses());
+  }
+
+  @Test
+  public void testRun_fresh() {
+    FlakyTest flakyTest = flakyTest("testFreshInstance", 3, FlakyTest.Mode.FRESH);
+    flakyTest.run(new TestResult());
+
+    assertEquals(3, flakyTest.getStatistics().getPasses());
+  }
+
+  @Test
+  public void testRun_stopped() {
+    TestResult result = new TestResult();
+    result.stop();
+    FlakyTest flakyTest = flakyTest("testPassing", 3, FlakyTest.Mode.FRESH);
+    flakyTest.run(result);
+
+    assertEquals(0, runs);
+    assertEquals(0, flakyTest.getStatistics().getRuns());
+  }
+
+  @Test
+  public void testGetStatistics_notRun() {
+    assertNull(flakyTest("testPassing", 1, FlakyTest.Mode.FRESH).getStatistics());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidRepetitions() {
+    flakyTest("testPassing", 0, FlakyTest.Mode.FRESH);
+  }
+
+  @Test
+  public void testStatistics() {
+    FlakyTest.Statistics statistics =
+        new FlakyTest.Statistics(4, 3, new long[] {2_000_000, 4_000_000, 4_000_000, 6_000_000});
+
+    assertEquals(0.75, statistics.getPassRate(), 0);
+    assertEquals(2_000_000, statistics.getMinNanos());
+    assertEquals(6_000_000, statistics.getMaxNanos());
+    assertEquals(4_000_000, statistics.getMeanNanos(), 1e-6);
+    assertEquals(8e12 / 3, statistics.getVarianceNanos(), 1);
+    assertEquals("FLAKY, 3 of 4 passed (75.0%), mean 4.000 ms, stddev 1.633 ms, min 2.000 ms,"
+        + " max 6.000 ms", statistics.toString());
+  }
+
+  @Test
+  public void testNewInstance() {
+    TestCase testCase = (TestCase) TestSuite.createTest(Fixture.class, "testPassing");
+    TestCase fresh = (TestCase) FlakyTest.newInstance(testCase);
+    assertNotSame(testCase, fresh);
+    assertEquals("testPassing", fresh.getName());
+
+    JUnit4TestAdapter adapter = new JUnit4TestAdapter(NetReiniJunitTest.class);
+    JUnit4TestAdapter freshAdapter = (JUnit4TestAdapter) FlakyTest.newInstance(adapter);
+    assertNotSame(adapter, freshAdapter);
+    assertEquals(1, freshAdapter.countTestCases());
+
+    JUnit4TestAdapter classAdapter = new JUnit4TestAdapter(FlakyTestTest.class);
+    assertSame(classAdapter, FlakyTest.newInstance(classAdapter));
+  }
+
+  private static FlakyTest flakyTest(String methodName, int repetitions, FlakyTest.Mode mode) {
+    return new FlakyTest(TestSuite.createTest(Fixture.class, methodName), repetitions, mode);
+  }
+
+  public static class Fixture extends TestCase {
+    private int instanceRuns;
+
+    public void testFailing() {
+      fail("always");
+    }
+
+    public void testError() {
+      throw new IllegalStateException("error");
+    }
+
+    public void testEverySecond() {
+      if (runs++ % 2 == 0) {
+        fail("every second");
+      }
+    }
+
+    public void testPassing() {
+      runs++;
+    }
+
+    public void testFreshInstance() {
+      assertEquals(0, instanceRuns++);
+    }
+  }
+}
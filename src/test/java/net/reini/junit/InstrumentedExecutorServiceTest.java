@@ -0,0 +1,162 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class InstrumentedExecutorServiceTest {
+  @Test
+  public void testSameThread() throws Exception {
+    ExecutorService delegate = SameThreadExecutorService.create();
+    InstrumentedExecutorService executor = InstrumentedExecutorService.wrap(delegate);
+    assertSame(delegate, executor.getDelegate());
+    Future<String> future = executor.submit(() -> "done");
+    try {
+      executor.execute(() -> {
+        throw new IllegalStateException();
+      });
+      fail("exception expected");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    executor.shutdown();
+    try {
+      executor.execute(() -> fail());
+      fail("rejection expected");
+    } catch (RejectedExecutionException e) {
+      // expected
+    }
+
+    assertEquals("done", future.get());
+    assertTrue(executor.isShutdown());
+    assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+    InstrumentedExecutorService.Snapshot snapshot = executor.snapshot();
+    assertEquals(3, snapshot.getSubmitted());
+    assertEquals(2, snapshot.getCompleted());
+    assertEquals(1, snapshot.getFailed());
+    assertEquals(1, snapshot.getRejected());
+    assertEquals(0, snapshot.getActive());
+    assertEquals(1, snapshot.getMaxActive());
+    assertEquals(2, snapshot.getQueueWait().getCount());
+    assertEquals(2, snapshot.getRunTime().getCount());
+  }
+
+  @Test
+  public void testThreadPool() throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    InstrumentedExecutorService executor = InstrumentedExecutorService.wrap(pool);
+    CountDownLatch running = new CountDownLatch(2);
+    CountDownLatch release = new CountDownLatch(1);
+    for (int i = 0; i < 4; i++) {
+      executor.execute(() -> {
+        running.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+    }
+    assertTrue(running.await(10, TimeUnit.SECONDS));
+    assertEquals(2, executor.snapshot().getActive());
+    Thread.sleep(10);
+    release.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    InstrumentedExecutorService.Snapshot snapshot = executor.snapshot();
+    assertEquals(4, snapshot.getCompleted());
+    assertEquals(2, snapshot.getMaxActive());
+    assertTrue(snapshot.getQueueWait().getMax().toMillis() >= 10);
+    assertTrue(snapshot.getRunTime().getMax().toMillis() >= 10);
+
+    Map<String, Long> values = snapshot.toMap();
+    assertEquals(Long.valueOf(4), values.get("submitted"));
+    assertEquals(Long.valueOf(4), values.get("runTime.count"));
+    assertTrue(values.containsKey("queueWait.p99"));
+    assertTrue(snapshot.toString().startsWith("submitted=4 completed=4 failed=0 rejected=0"));
+
+    executor.reset();
+    assertEquals(0, executor.snapshot().getSubmitted());
+    assertEquals(0, executor.snapshot().getMaxActive());
+    assertEquals(0, executor.snapshot().getRunTime().getCount());
+  }
+
+  @Test
+  public void testSubmit_failed() throws Exception {
+    InstrumentedExecutorService executor =
+        InstrumentedExecutorService.wrap(SameThreadExecutorService.create());
+    Future<?> future = executor.submit(() -> {
+      throw new IllegalStateException();
+    });
+    try {
+      future.get();
+      fail("exception expected");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    assertEquals(1, executor.snapshot().getFailed());
+    assertEquals(1, executor.snapshot().getCompleted());
+  }
+
+  @Test
+  public void testShutdownNow() throws Exception {
+    ExecutorService pool = Executors.newSingleThreadExecutor();
+    InstrumentedExecutorService executor = InstrumentedExecutorService.wrap(pool);
+    CountDownLatch running = new CountDownLatch(1);
+    executor.execute(() -> {
+      running.countDown();
+      try {
+        Thread.sleep(10_000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    Runnable queued = () -> fail();
+    executor.execute(queued);
+    assertTrue(running.await(10, TimeUnit.SECONDS));
+
+    List<Runnable> tasks = executor.shutdownNow();
+    assertEquals(1, tasks.size());
+    assertSame(queued, tasks.get(0));
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+  @Test
+  public void testBuckets() {
+    long[] values = {0, 1, 31, 32, 33, 63, 64, 65, 1_000, 123_456_789, Long.MAX_VALUE};
+    for (long value : values) {
+      int bucket = LatencyHistogram.bucket(value);
+      assertTrue(value + " lower", LatencyHistogram.lowerBound(bucket) <= value);
+      assertTrue(value + " upper", LatencyHistogram.upperBound(bucket) >= value);
+      assertTrue(value + " precision",
+          LatencyHistogram.upperBound(bucket) - LatencyHistogram.lowerBound(bucket) <= value / 32);
+    }
+    assertEquals(LatencyHistogram.bucket(64), LatencyHistogram.bucket(65));
+    assertEquals(LatencyHistogram.upperBound(LatencyHistogram.bucket(Long.MAX_VALUE)) + 1,
+        Long.MIN_VALUE);
+  }
+
+  @Test
+  public void testSnapshot() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(i * 1_000L);
+    }
+    histogram.record(-1);
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertEquals(101, snapshot.getCount());
+    assertEquals(Duration.ZERO, snapshot.getMin());
+    assertEquals(Duration.ofNanos(100_000), snapshot.getMax());
+    assertEquals(Duration.ofNanos(5_050_000), snapshot.getTotal());
+    assertEquals(Duration.ofNanos(50_000), snapshot.getMean());
+    assertEquals(Duration.ZERO, snapshot.getPercentile(0));
+    assertEquals(50_000, snapshot.getPercentile(50).toNanos(), 50_000 / 32);
+    assertEquals(99_000, snapshot.getPercentile(99).toNanos(), 99_000 / 32);
+    assertEquals(Duration.ofNanos(100_000), snapshot.getPercentile(100));
+  }
+
+  @Test
+  public void testReset() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(10);
+    histogram.reset();
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertEquals(0, snapshot.getCount());
+    assertEquals(Duration.ZERO, snapshot.getMin());
+    assertEquals(Duration.ZERO, snapshot.getPercentile(50));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPercentile_invalid() {
+    new LatencyHistogram().snapshot().getPercentile(101);
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Test;
+
+import junit.framework.TestResult;
+
+public class LazyTestTest {
+  private final ClassLoader classLoader = getClass().getClassLoader();
+
+  @Test
+  public void testLoad() {
+    TestLoader loader =
+        new TestLoader(classLoader, true, 1, true, null, (className, t) -> fail(className));
+    List<junit.framework.Test> tests = loader.load(Collections.singletonList(
+        new TestClassEntry(NetReiniJunitTest.class.getName(), TestClassKind.UNKNOWN)));
+
+    LazyTest lazyTest = (LazyTest) tests.get(0);
+    assertEquals(NetReiniJunitTest.class.getName(), lazyTest.getClassName());
+    assertEquals(NetReiniJunitTest.class.getName(), lazyTest.toString());
+    assertEquals(1, lazyTest.countTestCases());
+  }
+
+  @Test
+  public void testLoad_withoutLoadingClasses() {
+    Set<String> loadedClasses = ConcurrentHashMap.newKeySet();
+    ClassLoader recordingLoader = new ClassLoader(classLoader) {
+      @Override
+      protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        loadedClasses.add(name);
+        return super.loadClass(name, resolve);
+      }
+    };
+    TestLoader loader =
+        new TestLoader(recordingLoader, true, 1, true, null, (className, t) -> fail(className));
+    List<junit.framework.Test> tests = loader.load(Arrays.asList(
+        new TestClassEntry(ParallelTestSuiteTest.Junit3Fixture.class.getName(),
+            TestClassKind.UNKNOWN),
+        new TestClassEntry(ParallelTestSuiteTest.Junit4Fixture.class.getName(),
+            TestClassKind.JUNIT4),
+        new TestClassEntry(TestClassClassifierTest.RunWithCase.class.getName(),
+            TestClassKind.JUNIT4)));
+
+    assertEquals(3, tests.get(0).countTestCases());
+    assertEquals(3, tests.get(1).countTestCases());
+    assertEquals(1, tests.get(2).countTestCases());
+    // only the class run with a specific runner had to be loaded for counting its tests
+    assertEquals(Collections.singleton(TestClassClassifierTest.RunWithCase.class.getName()),
+        loadedClasses);
+  }
+
+  @Test
+  public void testRun() {
+    TestResult result = new TestResult();
+    new LazyTest(NetReiniJunitTest.class.getName(), TestClassKind.JUNIT4, classLoader, 1)
+        .run(result);
+
+    assertEquals(1, result.runCount());
+    assertTrue(result.wasSuccessful());
+  }
+
+  @Test
+  public void testRun_unknownClass() {
+    TestResult result = new TestResult();
+    new LazyTest("net.reini.junit.NonExisting", TestClassKind.JUNIT4, classLoader, 1)
+        .run(result);
+
+    assertEquals(1, result.runCount());
+    assertEquals(1, result.errorCount());
+  }
+}
@@ -0,0 +1,267 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import junit.framework.AssertionFailedError;
+import junit.framework.JUnit4TestAdapter;
+import junit.framework.TestCase;
+import junit.framework.TestListener;
+import junit.framework.TestResult;
+import junit.framework.TestSuite;
+
+public class ParallelTestSuiteTest {
+  static volatile boolean active;
+  static volatile CountDownLatch barrier;
+  static final Set<String> threads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+  @After
+  public void tearDown() {
+    active = false;
+    barrier = null;
+    threads.clear();
+    System.clearProperty(ParallelTestSuite.PARALLEL_PROPERTY);
+  }
+
+  @Test
+  public void testRun_class() {
+    TestResult result = run(new ParallelTestSuite("parallel", 4,
+        ParallelTestSuite.Granularity.CLASS));
+
+    assertEquals(6, result.runCount());
+    assertEquals(2, result.failureCount());
+    assertEquals(0, result.errorCount());
+  }
+
+  @Test
+  public void testRun_method() {
+    // the methods only pass if all four of them are running at the same time
+    barrier = new CountDownLatch(4);
+    ExecutorService executor = Executors.newFixedThreadPool(6);
+    try {
+      TestResult result = run(new ParallelTestSuite("parallel", executor,
+          ParallelTestSuite.Granularity.METHOD));
+
+      assertEquals(6, result.runCount());
+      assertEquals(2, result.failureCount());
+      assertEquals(0, result.errorCount());
+      assertTrue(threads.size() >= 4);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testRun_manyJunit4Methods() {
+    active = true;
+    for (ParallelTestSuite.Granularity granularity : ParallelTestSuite.Granularity.values()) {
+      TestSuite suite = new ParallelTestSuite("parallel", 8, granularity);
+      for (int i = 0; i < 50; i++) {
+        suite.addTest(TestLoader.createTest(Junit4Fixture.class, TestClassKind.JUNIT4));
+      }
+      TestResult result = new TestResult();
+      suite.run(result);
+
+      assertEquals(150, result.runCount());
+      assertEquals(50, result.failureCount());
+      assertEquals(0, result.errorCount());
+    }
+  }
+
+  @Test
+  public void testRun_sameThread() {
+    TestResult result = run(new ParallelTestSuite("parallel", 1,
+        ParallelTestSuite.Granularity.METHOD));
+
+    assertEquals(6, result.runCount());
+    assertEquals(Collections.singleton(Thread.currentThread().getName()), threads);
+  }
+
+  @Test
+  public void testRun_stopped() {
+    TestSuite suite = new ParallelTestSuite("parallel", 2, ParallelTestSuite.Granularity.CLASS);
+    suite.addTestSuite(Junit3Fixture.class);
+    TestResult result = new TestResult();
+    result.stop();
+    suite.run(result);
+
+    assertEquals(0, result.runCount());
+  }
+
+  @Test
+  public void testCollectUnits_classFixtures() {
+    TestSuite suite = new TestSuite("suite");
+    JUnit4TestAdapter adapter = new JUnit4TestAdapter(ClassFixture.class);
+    suite.addTest(adapter);
+    suite.addTest(new JUnit4TestAdapter(Junit4Fixture.class));
+    List<junit.framework.Test> units = new ArrayList<>();
+    ParallelTestSuite.collectUnits(suite, ParallelTestSuite.Granularity.METHOD, units);
+
+    assertEquals(4, units.size());
+    assertSame(adapter, units.get(0));
+    assertTrue(ParallelTestSuite.hasClassFixtures(ClassFixtureSub.class));
+    assertFalse(ParallelTestSuite.hasClassFixtures(Junit4Fixture.class));
+  }
+
+  @Test
+  public void testNewSuite() {
+    assertSame(TestSuite.class, ParallelTestSuite.newSuite("plain").getClass());
+
+    System.setProperty(ParallelTestSuite.PARALLEL_PROPERTY, "method");
+    ParallelTestSuite suite = (ParallelTestSuite) ParallelTestSuite.newSuite("parallel");
+    assertEquals("parallel", suite.getName());
+    assertSame(ParallelTestSuite.Granularity.METHOD, suite.getGranularity());
+  }
+
+  private static TestResult run(TestSuite suite) {
+    active = true;
+    TestSuite subSuite = new TestSuite("sub");
+    subSuite.addTestSuite(Junit3Fixture.class);
+    subSuite.addTest(new JUnit4TestAdapter(Junit4Fixture.class));
+    suite.addTest(subSuite);
+    SerialListener listener = new SerialListener();
+    TestResult result = new TestResult();
+    result.addListener(listener);
+    suite.run(result);
+    assertEquals(1, listener.maxActive.get());
+    return result;
+  }
+
+  static void runMethod() throws InterruptedException {
+    threads.add(Thread.currentThread().getName());
+    CountDownLatch latch = barrier;
+    if (latch != null) {
+      latch.countDown();
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+  }
+
+  static void failMethod() {
+    if (active) {
+      throw new AssertionFailedError("expected failure");
+    }
+  }
+
+  public static class Junit3Fixture extends TestCase {
+    public void testFirst() throws InterruptedException {
+      runMethod();
+    }
+
+    public void testSecond() throws InterruptedException {
+      runMethod();
+    }
+
+    public void testFailure() {
+      failMethod();
+    }
+  }
+
+  public static class Junit4Fixture {
+    @Test
+    public void first() throws InterruptedException {
+      runMethod();
+    }
+
+    @Test
+    public void second() throws InterruptedException {
+      runMethod();
+    }
+
+    @Test
+    public void failure() {
+      failMethod();
+    }
+  }
+
+  public static class ClassFixture {
+    @BeforeClass
+    public static void setUpClass() {
+      // class level fixture
+    }
+
+    @Test
+    public void first() {
+      // nothing to test
+    }
+
+    @Test
+    public void second() {
+      // nothing to test
+    }
+  }
+
+  public static class ClassFixtureSub extends ClassFixture {
+  }
+
+  static final class SerialListener implements TestListener {
+    final AtomicInteger active = new AtomicInteger();
+    final AtomicInteger maxActive = new AtomicInteger();
+
+    @Override
+    public void addError(junit.framework.Test test, Throwable e) {
+      event();
+    }
+
+    @Override
+    public void addFailure(junit.framework.Test test, AssertionFailedError e) {
+      event();
+    }
+
+    @Override
+    public void endTest(junit.framework.Test test) {
+      event();
+    }
+
+    @Override
+    public void startTest(junit.framework.Test test) {
+      event();
+    }
+
+    private void event() {
+      maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+      Thread.yield();
+      active.decrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import net.reini.junit.pkg1.NetReiniJunitPkg1_FirstTest;
+import net.reini.junit.pkg2.NetReiniJunitPkg2Test;
+
+public class RepeatFailedTestsTest {
+  private static final String ANT_LOG =
+      "    [junit] Running net.reini.junit.NetReiniJunitTest\n"
+          + "    [junit] Tests run: 2, Failures: 1, Errors: 0, Time elapsed: 0.1 sec\n"
+          + "    [junit] Running net.reini.junit.pkg2.NetReiniJunitPkg2Test\n"
+          + "    [junit] Tests run: 2, Failures: 0, Errors: 0, Time elapsed: 0.1 sec\n"
+          + "    [junit] Running some/jython/test.py\n"
+          + "    [junit] Tests run: 1, Failures: 0, Errors: 1, Time elapsed: 0.1 sec\n";
+  private static final String GRADLE_LOG =
+      "[test] net.reini.junit.pkg1.NetReiniJunitPkg1_FirstTest > testSomething FAILED\n"
+          + "[test] net.reini.junit.pkg2.NetReiniJunitPkg2Test > testOther PASSED\n"
+          + "[test] net.reini.junit.NetReiniJunitTest > testSomething FAILED\n";
+
+  private final Logger logger = Logger.getLogger(RepeatFailedTestsTest.class.getName());
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @After
+  public void tearDown() {
+    System.clearProperty("error.log.url");
+    System.clearProperty("error.suite.files");
+  }
+
+  @Test
+  public void testReadLogs() throws IOException {
+    List<String> urls = Arrays.asList(log(GRADLE_LOG, false), log(ANT_LOG, true),
+        folder.getRoot().toURI().resolve("missing.log").toString());
+
+    TestSelection failedTests = RepeatFailedTests.readLogs(urls, logger);
+    assertEquals(Arrays.asList(NetReiniJunitPkg1_FirstTest.class.getName(),
+        NetReiniJunitTest.class.getName()),
+        new ArrayList<>(failedTests.classNames()));
+    assertEquals(Collections.singleton("testSomething"),
+        failedTests.methodNames(NetReiniJunitPkg1_FirstTest.class.getName()));
+    assertNull(failedTests.methodNames(NetReiniJunitTest.class.getName()));
+  }
+
+  @Test
+  public void testReadLog_gzip() throws IOException {
+    assertEquals(Arrays.asList(NetReiniJunitTest.class.getName()),
+        new ArrayList<>(RepeatFailedTests.readLog(log(ANT_LOG, true), logger).classNames()));
+  }
+
+  @Test
+  public void testReadLog_unencodedUrl() throws IOException {
+    Path logFile = folder.newFolder("with space").toPath().resolve("console.log");
+    Files.write(logFile, ANT_LOG.getBytes(StandardCharsets.UTF_8));
+
+    assertEquals(Arrays.asList(NetReiniJunitTest.class.getName()), new ArrayList<>(
+        RepeatFailedTests.readLog("file:" + logFile, logger).classNames()));
+  }
+
+  @Test
+  public void testSuite() throws IOException {
+    System.setProperty("error.log.url", log(ANT_LOG, false) + ',' + log(GRADLE_LOG, true));
+
+    TestSuite suite = (TestSuite) RepeatFailedTests.suite();
+    assertEquals(2, suite.testCount());
+    assertEquals(NetReiniJunitTest.class.getName(), suite.testAt(0).toString());
+    assertEquals(NetReiniJunitPkg1_FirstTest.class.getName(), suite.testAt(1).toString());
+  }
+
+  @Test
+  public void testSuite_suiteFiles() throws IOException {
+    Path reportDir = folder.newFolder("reports").toPath();
+    report(reportDir.resolve("TEST-1.xml"), NetReiniJunitTest.class.getName(), true);
+    report(reportDir.resolve("TEST-2.xml"), NetReiniJunitPkg2Test.class.getName(), false);
+    report(reportDir.resolve("TEST-3.xml"), NetReiniJunitPkg1_FirstTest.class.getName(), true);
+    report(folder.getRoot().toPath().resolve("TEST-4.xml"), "a.MissingTest", true);
+    System.setProperty("error.suite.files", reportDir.resolve("TEST-[12].xml") + ","
+        + reportDir.resolve("TEST-3.xml") + ',' + folder.getRoot().toPath().resolve("missing"));
+
+    TestSuite suite = (TestSuite) RepeatFailedTests.suite();
+    assertEquals(2, suite.testCount());
+    assertEquals(NetReiniJunitTest.class.getName(), suite.testAt(0).toString());
+    assertEquals(NetReiniJunitPkg1_FirstTest.class.getName(), suite.testAt(1).toString());
+  }
+
+  @Test
+  public void testSuite_failedMethods() throws IOException {
+    Path reportFile = folder.newFile("TEST-methods.xml").toPath();
+    String className = ParallelTestSuiteTest.Junit3Fixture.class.getName();
+    Files.write(reportFile, ("<testsuite name=\"" + className + "\">"
+        + "<testcase classname=\"" + className + "\" name=\"testFirst\"/>"
+        + "<testcase classname=\"" + className + "\" name=\"testSecond\"><error/></testcase>"
+        + "</testsuite>").getBytes(StandardCharsets.UTF_8));
+    System.setProperty("error.suite.files", reportFile.toString());
+
+    TestSuite suite = (TestSuite) RepeatFailedTests.suite();
+    assertEquals(1, suite.countTestCases());
+    TestSuite classSuite = (TestSuite) suite.testAt(0);
+    assertEquals("testSecond", ((TestCase) classSuite.testAt(0)).getName());
+  }
+
+  @Test
+  public void testReadReports() throws IOException {
+    Path reportDir = folder.newFolder("reports").toPath();
+    report(reportDir.resolve("TEST-1.xml"), "a.FirstTest", true);
+    report(reportDir.resolve("TEST-2.xml"), "a.SecondTest", false);
+    report(reportDir.resolve("TEST-3.xml"), "a.ThirdTest", true);
+    List<Path> reportFiles = TestReportScanner.resolve(reportDir.toString());
+    reportFiles.add(reportDir.resolve("missing.xml"));
+
+    assertEquals(Arrays.asList("a.FirstTest", "a.ThirdTest"),
+        new ArrayList<>(RepeatFailedTests.readReports(reportFiles, logger).classNames()));
+  }
+
+  @Test
+  public void testSuite_empty() {
+    assertEquals(0, RepeatFailedTests.suite().countTestCases());
+  }
+
+  private static void report(Path reportFile, String className, boolean failed)
+      throws IOException {
+    Files.write(reportFile, ("<testsuite name=\"" + className + "\"><testcase classname=\""
+        + className + "\" name=\"testSomething\">" + (failed ? "<failure/>" : "")
+        + "</testcase></testsuite>").getBytes(StandardCharsets.UTF_8));
+  }
+
+  private String log(String content, boolean compressed) throws IOException {
+    Path logFile = folder.newFile().toPath();
+    try (OutputStream out = compressed ? new GZIPOutputStream(Files.newOutputStream(logFile))
+        : Files.newOutputStream(logFile);
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+      writer.write(content);
+    }
+    return logFile.toUri().toString();
+  }
+}
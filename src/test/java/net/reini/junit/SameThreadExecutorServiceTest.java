@@ -0,0 +1,209 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class SameThreadExecutorServiceTest {
+  private final List<String> events = new ArrayList<>();
+
+  @Test
+  public void testExecute_nested() {
+    ExecutorService executor = SameThreadExecutorService.create();
+    executor.execute(() -> {
+      events.add("outer-start");
+      executor.execute(() -> events.add("inner"));
+      events.add("outer-end");
+    });
+
+    assertEquals(Arrays.asList("outer-start", "inner", "outer-end"), events);
+  }
+
+  @Test
+  public void testExecute_queueNested() throws Exception {
+    ExecutorService executor = SameThreadExecutorService.create(true);
+    Future<?>[] inner = new Future<?>[1];
+    executor.execute(() -> {
+      events.add("outer-start");
+      inner[0] = executor.submit(() -> events.add("inner"));
+      events.add("outer-end");
+    });
+
+    assertEquals(Arrays.asList("outer-start", "outer-end", "inner"), events);
+    assertTrue(inner[0].isDone());
+  }
+
+  @Test
+  public void testExecute_deeplyNested() {
+    ExecutorService executor = SameThreadExecutorService.create(true);
+    AtomicInteger count = new AtomicInteger();
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        if (count.incrementAndGet() < 1_000_000) {
+          executor.execute(this);
+        }
+      }
+    });
+
+    assertEquals(1_000_000, count.get());
+  }
+
+  @Test
+  public void testExecute_queuedFailure() {
+    ExecutorService executor = SameThreadExecutorService.create(true);
+    IllegalStateException failure = new IllegalStateException();
+    try {
+      executor.execute(() -> {
+        executor.execute(() -> events.add("queued"));
+        throw failure;
+      });
+      fail("exception expected");
+    } catch (IllegalStateException e) {
+      assertSame(failure, e);
+    }
+    assertEquals(Arrays.asList("queued"), events);
+  }
+
+  @Test
+  public void testExecute_queuedFailures() {
+    ExecutorService executor = SameThreadExecutorService.create(true);
+    IllegalStateException first = new IllegalStateException();
+    IllegalArgumentException second = new IllegalArgumentException();
+    AssertionError error = new AssertionError();
+    try {
+      executor.execute(() -> {
+        executor.execute(() -> {
+          throw second;
+        });
+        executor.execute(() -> {
+          throw error;
+        });
+        throw first;
+      });
+      fail("error expected");
+    } catch (AssertionError e) {
+      assertSame(error, e);
+      assertEquals(Arrays.asList(first, second), Arrays.asList(e.getSuppressed()));
+    }
+  }
+
+  @Test
+  public void testSubmit_queueNestedGet() throws Exception {
+    ExecutorService executor = SameThreadExecutorService.create(true);
+    Future<String> outer = executor.submit(() -> {
+      events.add("outer-start");
+      Future<String> inner = executor.submit(() -> "inner");
+      events.add(inner.get());
+      return "outer";
+    });
+
+    assertEquals("outer", outer.get());
+    assertEquals(Arrays.asList("outer-start", "inner"), events);
+  }
+
+  @Test
+  public void testInvoke_queueNested() throws Exception {
+    ExecutorService executor = SameThreadExecutorService.create(true);
+    List<Callable<String>> tasks = Arrays.asList(() -> {
+      throw new IllegalStateException();
+    }, () -> "second", () -> "third");
+    Future<List<String>> results = executor.submit(() -> {
+      List<String> values = new ArrayList<>();
+      for (Future<String> future : executor.invokeAll(tasks.subList(1, 3))) {
+        values.add(future.get());
+      }
+      values.add(executor.invokeAny(tasks));
+      values.add(executor.invokeAny(tasks, 10, TimeUnit.SECONDS));
+      return values;
+    });
+
+    assertEquals(Arrays.asList("second", "third", "second", "second"), results.get());
+  }
+
+  @Test(expected = RejectedExecutionException.class)
+  public void testExecute_afterShutdown() {
+    ExecutorService executor = SameThreadExecutorService.create();
+    executor.shutdown();
+    executor.execute(() -> fail());
+  }
+
+  @Test
+  public void testShutdownNow() {
+    ExecutorService executor = SameThreadExecutorService.create(true);
+    List<List<Runnable>> queued = new ArrayList<>();
+    executor.execute(() -> {
+      executor.execute(() -> events.add("queued"));
+      queued.add(executor.shutdownNow());
+    });
+
+    assertEquals(1, queued.get(0).size());
+    assertTrue(events.isEmpty());
+    assertTrue(executor.isTerminated());
+  }
+
+  @Test
+  public void testAwaitTermination() throws Exception {
+    ExecutorService executor = SameThreadExecutorService.create();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread thread = new Thread(() -> executor.execute(() -> {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }));
+    thread.start();
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    executor.shutdown();
+
+    assertTrue(executor.isShutdown());
+    assertFalse(executor.isTerminated());
+    assertFalse(executor.awaitTermination(10, TimeUnit.MILLISECONDS));
+    release.countDown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    assertTrue(executor.isTerminated());
+    thread.join();
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import junit.framework.TestCase;
+
+public class TestClassClassifierTest {
+  private final TestClassClassifier classifier =
+      new TestClassClassifier(TestClassClassifierTest.class.getClassLoader());
+
+  @Test
+  public void testClassify_junit4() {
+    assertEquals(TestClassKind.JUNIT4, classify(TestClassClassifierTest.class));
+    assertEquals(TestClassKind.JUNIT4, classify(RunWithCase.class));
+    assertEquals(TestClassKind.JUNIT4, classify(InheritedCase.class));
+    assertEquals(TestClassKind.JUNIT4, classify(SuiteMethodTest.class));
+    assertEquals(TestClassKind.JUNIT4, classify(InheritedSuiteCase.class));
+  }
+
+  @Test
+  public void testClassify_junit3() {
+    assertEquals(TestClassKind.JUNIT3, classify(Junit3Case.class));
+    assertEquals(TestClassKind.JUNIT3, classify(Junit3SubCase.class));
+    assertEquals(TestClassKind.JUNIT3, classify(AnnotatedJunit3Case.class));
+  }
+
+  @Test
+  public void testClassify_none() {
+    assertEquals(TestClassKind.NONE, classify(AbstractCase.class));
+    assertEquals(TestClassKind.NONE, classify(PlainCase.class));
+    assertEquals(TestClassKind.NONE, classify(Runnable.class));
+    assertEquals(TestClassKind.NONE, classify(InstanceSuiteCase.class));
+  }
+
+  @Test
+  public void testClassify_unknown() {
+    assertEquals(TestClassKind.UNKNOWN, classifier.classify("net.reini.junit.NonExisting"));
+  }
+
+  @Test
+  public void testCountTests() {
+    Class<?> junit3 = ParallelTestSuiteTest.Junit3Fixture.class;
+    assertEquals(3, classifier.countTests(junit3.getName(), TestClassKind.JUNIT3, null));
+    assertEquals(1, classifier.countTests(junit3.getName(), TestClassKind.JUNIT3,
+        new HashSet<>(Arrays.asList("testFirst"))));
+    assertEquals(3, classifier.countTests(junit3.getName(), TestClassKind.JUNIT3,
+        new HashSet<>(Arrays.asList("testFirst", "missing"))));
+    assertEquals(3, classifier.countTests(junit3.getName(), TestClassKind.JUNIT3,
+        new HashSet<>(Arrays.asList("missing"))));
+
+    Class<?> junit4 = ParallelTestSuiteTest.Junit4Fixture.class;
+    assertEquals(3, classifier.countTests(junit4.getName(), TestClassKind.JUNIT4, null));
+    assertEquals(1, classifier.countTests(junit4.getName(), TestClassKind.JUNIT4,
+        new HashSet<>(Arrays.asList("second"))));
+    assertEquals(3, classifier.countTests(junit4.getName(), TestClassKind.JUNIT4,
+        new HashSet<>(Arrays.asList("second", "missing"))));
+  }
+
+  @Test
+  public void testCountTests_notCountable() {
+    assertEquals(-1, classifier.countTests(RunWithCase.class.getName(), TestClassKind.JUNIT4,
+        null));
+    assertEquals(-1, classifier.countTests(Junit3Case.class.getName(), TestClassKind.JUNIT3,
+        null));
+    assertEquals(-1, classifier.countTests(SuiteMethodTest.class.getName(), TestClassKind.JUNIT4,
+        null));
+    assertEquals(-1, classifier.countTests("net.reini.junit.NonExisting", TestClassKind.JUNIT4,
+        null));
+  }
+
+  private TestClassKind classify(Class<?> testClass) {
+    return classifier.classify(testClass.getName());
+  }
+
+  abstract static class AbstractCase extends TestCase {
+    public void testMe() {}
+  }
+
+  static class Junit3Case extends TestCase {
+    public void testMe() {}
+  }
+
+  static class Junit3SubCase extends Junit3Case {
+    public void testOther() {}
+  }
+
+  static class AnnotatedJunit3Case extends TestCase {
+    @Test
+    public void testMe() {}
+  }
+
+  @RunWith(JUnit4.class)
+  public static class RunWithCase {
+  }
+
+  static class InheritedCase extends TestClassClassifierTest {
+  }
+
+  static class PlainCase {
+    public void testMe() {}
+  }
+
+  public static class InheritedSuiteCase extends SuiteMethodTest {
+  }
+
+  public static class InstanceSuiteCase {
+    public junit.framework.Test suite() {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.InputStream;
+import java.lang.module.Configuration;
+import java.lang.module.ModuleFinder;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import junit.framework.TestSuite;
+import net.reini.junit.pkg1.NetReiniJunitPkg1_FirstTest;
+import net.reini.junit.pkg1.NetReiniJunitPkg1_SecondTest;
+import net.reini.junit.pkg2.NetReiniJunitPkg2Test;
+
+public class TestClassScannerTest {
+  private static final String EXPECTED = "net.reini.junit[pkg1[" //
+      + "net.reini.junit.pkg1.NetReiniJunitPkg1_FirstTest," //
+      + "net.reini.junit.pkg1.NetReiniJunitPkg1_SecondTest,]" //
+      + "pkg2[net.reini.junit.pkg2.NetReiniJunitPkg2Test,]" //
+      + "net.reini.junit.NetReiniJunitTest,]";
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private Path jarFile;
+
+  @Before
+  public void setUp() throws Exception {
+    jarFile = tempFolder.getRoot().toPath().resolve("tests.jar");
+    try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jarFile))) {
+      addClass(out, NetReiniJunitTest.class);
+      addClass(out, NetReiniJunitPkg1_FirstTest.class);
+      addClass(out, NetReiniJunitPkg1_SecondTest.class);
+      addClass(out, NetReiniJunitPkg2Test.class);
+      addClass(out, TestScanIndex.class);
+    }
+  }
+
+  @Test
+  public void testBuild_jarFile() throws Exception {
+    URL classResource = URI
+        .create("jar:" + jarFile.toUri() + "!/net/reini/junit/NetReiniJunitTest.class").toURL();
+    TestSuite suite = new TestSuite("net.reini.junit");
+    RecursiveTestSuiteBuilder.build(classResource, "net.reini.junit", getClass().getClassLoader(),
+        suite);
+
+    assertEquals(EXPECTED, describe(suite));
+  }
+
+  @Test
+  public void testBuild_module() throws Exception {
+    ModuleLayer parent = ModuleLayer.boot();
+    Configuration configuration = parent.configuration().resolve(ModuleFinder.of(jarFile),
+        ModuleFinder.of(), Collections.singleton("tests"));
+    ModuleLayer layer =
+        parent.defineModulesWithOneLoader(configuration, getClass().getClassLoader());
+    Class<?> classInModule =
+        layer.findLoader("tests").loadClass(NetReiniJunitTest.class.getName());
+    TestSuite rootSuite = new TestSuite();
+    RecursiveTestSuiteBuilder.build(classInModule, rootSuite);
+
+    assertEquals("tests", classInModule.getModule().getName());
+    assertEquals(EXPECTED, describe((TestSuite) rootSuite.testAt(0)));
+  }
+
+  private static void addClass(ZipOutputStream out, Class<?> type) throws Exception {
+    String resource = type.getName().replace('.', '/').concat(".class");
+    out.putNextEntry(new ZipEntry(resource));
+    try (InputStream in = type.getClassLoader().getResourceAsStream(resource)) {
+      in.transferTo(out);
+    }
+    out.closeEntry();
+  }
+
+  private static String describe(TestSuite suite) {
+    StringBuilder description = new StringBuilder(suite.getName()).append('[');
+    for (int i = 0; i < suite.testCount(); i++) {
+      junit.framework.Test test = suite.testAt(i);
+      if (test instanceof TestSuite) {
+        description.append(describe((TestSuite) test));
+      } else {
+        description.append(test).append(',');
+      }
+    }
+    return description.append(']').toString();
+  }
+}
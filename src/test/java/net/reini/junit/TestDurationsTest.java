@@ -0,0 +1,107 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestDurationsTest {
+  private final Logger logger = Logger.getLogger(TestDurationsTest.class.getName());
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @After
+  public void tearDown() {
+    System.clearProperty(TestDurations.TIMINGS_PROPERTY);
+  }
+
+  @Test
+  public void testRead() throws IOException {
+    Path reportFile = report("<testsuites><testsuite name=\"a.FirstTest\" time=\"3.5\">"
+        + "<testcase classname=\"a.FirstTest\" name=\"one\" time=\"1.25\"/>"
+        + "<testcase classname=\"a.FirstTest\" name=\"two\" time=\"2,000.25\"><failure/></testcase>"
+        + "<testcase classname=\"a.SecondTest\" name=\"one\" time=\"0.5\"/>"
+        + "<testcase classname=\"a.ThirdTest\" name=\"one\" time=\"invalid\"/>"
+        + "<testcase classname=\"a.ThirdTest\" name=\"two\"/>"
+        + "</testsuite></testsuites>");
+
+    Map<String, Double> durations = new HashMap<>();
+    TestDurations.read(reportFile, durations, logger);
+    TestDurations.read(reportFile, durations, logger);
+
+    assertEquals(2, durations.size());
+    assertEquals(4003, durations.get("a.FirstTest").doubleValue(), 0.0001);
+    assertEquals(1, durations.get("a.SecondTest").doubleValue(), 0.0001);
+  }
+
+  @Test
+  public void testFromSystemProperties() throws IOException {
+    Path first = report("<testsuite><testcase classname=\"a.FirstTest\" time=\"1\"/></testsuite>");
+    Path second = report("<testsuite><testcase classname=\"a.FirstTest\" time=\"2\"/></testsuite>");
+    System.setProperty(TestDurations.TIMINGS_PROPERTY,
+        first + ", " + second + "," + folder.getRoot().toPath().resolve("missing.xml"));
+
+    Map<String, Double> durations = TestDurations.fromSystemProperties(logger);
+
+    assertEquals(3, durations.get("a.FirstTest").doubleValue(), 0.0001);
+  }
+
+  @Test
+  public void testFromSystemProperties_parsedOnce() throws IOException {
+    Path report = report("<testsuite><testcase classname=\"a.FirstTest\" time=\"1\"/></testsuite>");
+    System.setProperty(TestDurations.TIMINGS_PROPERTY, report.toString());
+    Map<String, Double> durations = TestDurations.fromSystemProperties(logger);
+    Files.delete(report);
+
+    assertSame(durations, TestDurations.fromSystemProperties(logger));
+    assertEquals(1, durations.get("a.FirstTest").doubleValue(), 0.0001);
+  }
+
+  @Test
+  public void testFromSystemProperties_empty() {
+    assertTrue(TestDurations.fromSystemProperties(logger).isEmpty());
+  }
+
+  private Path report(String content) throws IOException {
+    Path reportFile = folder.newFile().toPath();
+    Files.write(reportFile, content.getBytes(StandardCharsets.UTF_8));
+    return reportFile;
+  }
+}
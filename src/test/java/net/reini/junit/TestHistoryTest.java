@@ -0,0 +1,260 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import junit.framework.TestResult;
+import junit.framework.TestSuite;
+
+public class TestHistoryTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path historyFile;
+
+  @Before
+  public void setUp() {
+    historyFile = folder.getRoot().toPath().resolve("history.bin");
+  }
+
+  @After
+  public void tearDown() {
+    System.clearProperty(TestHistory.HISTORY_PROPERTY);
+  }
+
+  @Test
+  public void testStoreAndLoad() throws IOException {
+    TestHistory history = TestHistory.load(historyFile);
+    history.record("a.FirstTest", true, 4_000_000);
+    history.record("a.FirstTest#one", false, 1_000_000);
+    history.store();
+    history.record("a.FirstTest", false, 8_000_000);
+    history.store();
+
+    TestHistory loaded = TestHistory.load(historyFile);
+    TestHistory.Entry entry = loaded.get("a.FirstTest");
+    assertEquals(2, entry.runs);
+    assertEquals(0b10, entry.outcomes);
+    assertEquals(1, entry.failures());
+    assertEquals(5000, entry.durationMicros);
+    assertEquals(0, loaded.get("a.FirstTest#one").failures());
+    assertNull(loaded.get("a.SecondTest"));
+  }
+
+  @Test
+  public void testStore_mergesConcurrentAppends() throws IOException {
+    TestHistory first = TestHistory.load(historyFile);
+    TestHistory second = TestHistory.load(historyFile);
+    first.record("a.FirstTest", true, 1000);
+    first.store();
+    second.record("a.SecondTest", false, 1000);
+    second.store();
+
+    assertEquals(1, second.get("a.FirstTest").runs);
+    TestHistory loaded = TestHistory.load(historyFile);
+    assertEquals(1, loaded.get("a.FirstTest").failures());
+    assertEquals(1, loaded.get("a.SecondTest").runs);
+  }
+
+  @Test
+  public void testStore_incompleteRecord() throws IOException {
+    TestHistory history = TestHistory.load(historyFile);
+    history.record("a.FirstTest", true, 1000);
+    history.store();
+    long size = Files.size(historyFile);
+    Files.write(historyFile, new byte[] {2, 0, 0}, StandardOpenOption.APPEND);
+
+    assertEquals(1, TestHistory.load(historyFile).get("a.FirstTest").runs);
+    history.record("a.FirstTest", false, 1000);
+    history.store();
+    assertEquals(2, TestHistory.load(historyFile).get("a.FirstTest").runs);
+    assertTrue(Files.size(historyFile) < size * 2);
+  }
+
+  @Test
+  public void testStore_invalidRecord() throws IOException {
+    TestHistory history = TestHistory.load(historyFile);
+    history.record("a.FirstTest", true, 1000);
+    history.record("a.SecondTest", false, 1000);
+    history.store();
+    Files.write(historyFile, new byte[] {9, 0, 0, 0, 0, 0, 0, 0, 0, 1},
+        StandardOpenOption.APPEND);
+
+    TestHistory loaded = TestHistory.load(historyFile);
+    assertEquals(1, loaded.get("a.FirstTest").runs);
+    assertEquals(1, loaded.get("a.SecondTest").runs);
+    loaded.record("a.FirstTest", false, 1000);
+    loaded.store();
+    assertEquals(2, TestHistory.load(historyFile).get("a.FirstTest").runs);
+    assertEquals(1, TestHistory.load(historyFile).get("a.SecondTest").runs);
+  }
+
+  @Test
+  public void testStore_invalidFile() throws IOException {
+    Files.write(historyFile, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9});
+    TestHistory history = TestHistory.load(historyFile);
+    assertNull(history.get("a.FirstTest"));
+    history.record("a.FirstTest", true, 1000);
+    history.store();
+
+    assertEquals(1, TestHistory.load(historyFile).get("a.FirstTest").runs);
+  }
+
+  @Test
+  public void testStore_compaction() throws IOException {
+    TestHistory history = TestHistory.load(historyFile);
+    for (int i = 0; i < 200; i++) {
+      for (int t = 0; t < 10; t++) {
+        history.record("a.Test" + t, i == 190 && t == 3, 1000);
+      }
+      history.store();
+    }
+
+    // a snapshot record per test, followed by the result records of the latest runs only
+    assertTrue(Files.size(historyFile) < 200 * 10 * 14);
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(historyFile.getParent(),
+        "*.tmp")) {
+      assertFalse(files.iterator().hasNext());
+    }
+    TestHistory loaded = TestHistory.load(historyFile);
+    for (int t = 0; t < 10; t++) {
+      TestHistory.Entry entry = loaded.get("a.Test" + t);
+      assertEquals(64, entry.runs);
+      assertEquals(t == 3 ? 1L << 9 : 0, entry.outcomes);
+    }
+  }
+
+  @Test
+  public void testSort() {
+    TestHistory history = TestHistory.load(historyFile);
+    history.record(NetReiniJunitTest.class.getName(), false, 5_000_000);
+    history.record(FlakyTestTest.Fixture.class.getName(), false, 1_000_000);
+    history.record(TestHistoryTest.class.getName(), true, 9_000_000);
+    history.record(TestHistoryTest.class.getName(), false, 9_000_000);
+    history.record(TestLoaderTest.class.getName(), true, 9_000_000);
+    junit.framework.Test slow = new junit.framework.JUnit4TestAdapter(NetReiniJunitTest.class);
+    junit.framework.Test fast = new TestSuite(FlakyTestTest.Fixture.class);
+    junit.framework.Test failedBefore =
+        new junit.framework.JUnit4TestAdapter(TestHistoryTest.class);
+    junit.framework.Test failedLast = new junit.framework.JUnit4TestAdapter(TestLoaderTest.class);
+    junit.framework.Test unknown = new junit.framework.JUnit4TestAdapter(LazyTestTest.class);
+    TestSuite packageSuite = new TestSuite("package");
+    packageSuite.addTest(new junit.framework.JUnit4TestAdapter(TestLoaderTest.class));
+    List<junit.framework.Test> tests =
+        new ArrayList<>(Arrays.asList(slow, fast, packageSuite, unknown, failedBefore, failedLast));
+    history.sort(tests);
+
+    assertArrayEquals(new Object[] {packageSuite, failedLast, failedBefore, unknown, fast, slow},
+        tests.toArray());
+  }
+
+  @Test
+  public void testSort_failures() {
+    TestHistory history = TestHistory.load(historyFile);
+    history.record(TestLoaderTest.class.getName(), true, 1_000_000);
+    history.record(TestHistoryTest.class.getName(), true, 9_000_000);
+    history.record(TestHistoryTest.class.getName(), true, 9_000_000);
+    junit.framework.Test once = new junit.framework.JUnit4TestAdapter(TestLoaderTest.class);
+    junit.framework.Test twice = new junit.framework.JUnit4TestAdapter(TestHistoryTest.class);
+    List<junit.framework.Test> tests = new ArrayList<>(Arrays.asList(once, twice));
+    history.sort(tests);
+
+    assertArrayEquals(new Object[] {twice, once}, tests.toArray());
+  }
+
+  @Test
+  public void testRecording() throws IOException {
+    System.setProperty(TestHistory.HISTORY_PROPERTY, historyFile.toString());
+    TestHistory history = TestHistory.fromSystemProperties();
+    assertSame(history, TestHistory.fromSystemProperties());
+    TestSuite suite = new TestSuite("fixture");
+    suite.addTest(TestSuite.createTest(FlakyTestTest.Fixture.class, "testPassing"));
+    suite.addTest(TestSuite.createTest(FlakyTestTest.Fixture.class, "testFailing"));
+    history.recording(suite).run(new TestResult());
+
+    String className = FlakyTestTest.Fixture.class.getName();
+    TestHistory loaded = TestHistory.load(historyFile);
+    assertEquals(0, loaded.get(className + "#testPassing").failures());
+    assertEquals(1, loaded.get(className + "#testFailing").failures());
+    assertEquals(1, loaded.get(className).failures());
+  }
+
+  @Test
+  public void testRecorderName() {
+    assertArrayEquals(new String[] {"a.FirstTest", "one"},
+        TestHistory.Recorder.name(new DisplayName("one(a.FirstTest)")));
+    assertArrayEquals(new String[] {"a.FirstTest", null},
+        TestHistory.Recorder.name(new DisplayName("a.FirstTest")));
+  }
+
+  @Test
+  public void testFromSystemProperties_undefined() {
+    assertNull(TestHistory.fromSystemProperties());
+  }
+
+  static final class DisplayName implements junit.framework.Test {
+    private final String name;
+
+    DisplayName(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public int countTestCases() {
+      return 1;
+    }
+
+    @Override
+    public void run(TestResult result) {
+      // nothing to run
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+}
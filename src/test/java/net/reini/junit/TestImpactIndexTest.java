@@ -0,0 +1,219 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestImpactIndexTest {
+  private static final Class<?>[] CLASSES = {TestSelection.class, TestSelectionTest.class,
+      TestManifest.class, TestManifest.Resolution.class, TestManifestTest.class,
+      LatencyHistogram.class, LatencyHistogramTest.class};
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private Logger logger;
+  private List<Path> roots;
+  private Path indexFile;
+  private TestClassClassifier classifier;
+
+  @Before
+  public void setUp() throws Exception {
+    logger = Logger.getLogger(TestImpactIndexTest.class.getName());
+    Path root = tempFolder.newFolder("classes").toPath();
+    roots = Collections.singletonList(root);
+    indexFile = root.resolveSibling("testimpact.index");
+    classifier = new TestClassClassifier(getClass().getClassLoader());
+    for (Class<?> type : CLASSES) {
+      Path classFile = classFile(type);
+      Files.createDirectories(classFile.getParent());
+      Files.write(classFile, classBytes(type));
+    }
+  }
+
+  @Test
+  public void testDependencies() throws Exception {
+    Set<String> dependencies = ClassFileInfo.dependencies(classBytes(TestManifest.class));
+    assertTrue(dependencies.contains(TestManifest.Resolution.class.getName()));
+    assertTrue(dependencies.contains(TestClassEntry.class.getName()));
+    assertTrue(dependencies.contains(List.class.getName()));
+    assertFalse(dependencies.contains(TestManifest.class.getName()));
+    assertTrue(ClassFileInfo.dependencies(classBytes(TestManifest.Resolution.class))
+        .contains(TestSelection.class.getName()));
+  }
+
+  @Test
+  public void testImpactedTests() throws Exception {
+    TestImpactIndex index = TestImpactIndex.load(indexFile, roots, logger);
+    assertEquals(CLASSES.length, index.update(classifier).size());
+
+    assertEquals(Arrays.asList(TestManifestTest.class.getName(), TestSelectionTest.class.getName()),
+        classNames(index.impactedTests(Collections.singleton(TestSelection.class.getName()))));
+    List<TestClassEntry> tests =
+        index.impactedTests(Collections.singleton(LatencyHistogram.class.getName()));
+    assertEquals(Arrays.asList(LatencyHistogramTest.class.getName()), classNames(tests));
+    assertEquals(TestClassKind.JUNIT4, tests.get(0).kind);
+  }
+
+  @Test
+  public void testUpdate_incremental() throws Exception {
+    TestImpactIndex index = TestImpactIndex.load(indexFile, roots, logger);
+    index.update(classifier);
+    index.store(indexFile);
+
+    index = TestImpactIndex.load(indexFile, roots, logger);
+    assertEquals(CLASSES.length, index.size());
+    assertTrue(index.update(classifier).isEmpty());
+
+    Path changedFile = classFile(TestSelection.class);
+    Files.setLastModifiedTime(changedFile,
+        FileTime.fromMillis(Files.getLastModifiedTime(changedFile).toMillis() - 10_000));
+    Files.delete(classFile(LatencyHistogramTest.class));
+    assertEquals(
+        new TreeSet<>(
+            Arrays.asList(LatencyHistogramTest.class.getName(), TestSelection.class.getName())),
+        index.update(classifier));
+    index.store(indexFile);
+
+    index = TestImpactIndex.load(indexFile, roots, logger);
+    assertEquals(CLASSES.length - 1, index.size());
+    assertEquals(Arrays.asList(TestManifestTest.class.getName(), TestSelectionTest.class.getName()),
+        classNames(index.impactedTests(Collections.singleton(TestSelection.class.getName()))));
+  }
+
+  @Test
+  public void testUpdate_superClassChanged() throws Exception {
+    Path baseFile = classFile(TestScanIndexTest.BaseCase.class);
+    Files.write(baseFile, classBytes(TestScanIndexTest.BaseCase.class));
+    Path testFile = roots.get(0).resolve("net/reini/junit/SubCaseTest.class");
+    Files.write(testFile, classBytes(TestScanIndexTest.SubCase.class));
+    String testName = "net.reini.junit.SubCaseTest";
+    Set<String> base = Collections.singleton(TestScanIndexTest.BaseCase.class.getName());
+    TestImpactIndex index = TestImpactIndex.load(indexFile, roots, logger);
+    try (URLClassLoader loader = new URLClassLoader(new URL[] {roots.get(0).toUri().toURL()},
+        null)) {
+      index.update(new TestClassClassifier(loader));
+      assertTrue(classNames(index.impactedTests(base)).contains(testName));
+      // the base class no longer extends TestCase
+      Files.write(baseFile, classBytes(TestScanIndexTest.PlainBase.class));
+    }
+    try (URLClassLoader loader = new URLClassLoader(new URL[] {roots.get(0).toUri().toURL()},
+        null)) {
+      assertEquals(base, index.update(new TestClassClassifier(loader)));
+      assertFalse(classNames(index.impactedTests(base)).contains(testName));
+    }
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    TestImpactIndex index = TestImpactIndex.load(indexFile, roots, logger);
+    index.update(classifier);
+    index.invalidate(Arrays.asList(LatencyHistogramTest.class.getName()));
+    index.store(indexFile);
+
+    index = TestImpactIndex.load(indexFile, roots, logger);
+    assertEquals(Collections.singleton(LatencyHistogramTest.class.getName()),
+        index.update(classifier));
+  }
+
+  @Test
+  public void testLoad_otherRoots() throws Exception {
+    TestImpactIndex index = TestImpactIndex.load(indexFile, roots, logger);
+    index.update(classifier);
+    index.store(indexFile);
+
+    assertEquals(0, TestImpactIndex
+        .load(indexFile, Collections.singletonList(indexFile.getParent()), logger).size());
+  }
+
+  @Test
+  public void testResolve() throws Exception {
+    TestImpactIndex index = TestImpactIndex.load(indexFile, roots, logger);
+    index.update(classifier);
+
+    assertEquals(new TreeSet<>(Arrays.asList(TestManifest.class.getName(),
+        TestManifest.Resolution.class.getName(), TestSelection.class.getName())),
+        index.resolve(Arrays.asList("src/main/java/net/reini/junit/TestManifest.java",
+            "net.reini.junit.TestSelection", "README.md", "src/main/resources/some.properties",
+            "net.reini.junit.Unknown"), logger));
+    assertEquals(Collections.singleton(TestManifest.class.getName()), index.resolve(
+        Arrays.asList("build\\classes\\net\\reini\\junit\\TestManifest.class"), logger));
+  }
+
+  @Test
+  public void testVarInt() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      for (int value : new int[] {0, 127, 128, 16_383, 16_384, Integer.MAX_VALUE}) {
+        TestImpactIndex.writeVarInt(out, value);
+      }
+    }
+    assertEquals(1 + 1 + 2 + 2 + 3 + 5, bytes.size());
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      for (int value : new int[] {0, 127, 128, 16_383, 16_384, Integer.MAX_VALUE}) {
+        assertEquals(value, TestImpactIndex.readVarInt(in));
+      }
+    }
+  }
+
+  private Path classFile(Class<?> type) {
+    return roots.get(0).resolve(type.getName().replace('.', '/').concat(".class"));
+  }
+
+  private static List<String> classNames(List<TestClassEntry> entries) {
+    return Arrays.asList(entries.stream().map(entry -> entry.className).toArray(String[]::new));
+  }
+
+  private static byte[] classBytes(Class<?> type) throws Exception {
+    String resource = type.getName().substring(type.getPackage().getName().length() + 1);
+    try (InputStream in = type.getResourceAsStream(resource.concat(".class"))) {
+      return in.readAllBytes();
+    }
+  }
+}
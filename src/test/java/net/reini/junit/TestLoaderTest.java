@@ -0,0 +1,205 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+
+import junit.framework.JUnit4TestAdapter;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+public class TestLoaderTest {
+  private final List<String> failures = new ArrayList<>();
+
+  @Test
+  public void testLoad_sequential() {
+    assertTests(new TestLoader(getClass().getClassLoader(), true, 1, false, null, this::failed));
+  }
+
+  @Test
+  public void testLoad_parallel() {
+    try (TestLoader loader =
+        new TestLoader(getClass().getClassLoader(), true, 4, false, null, this::failed)) {
+      assertTests(loader);
+      failures.clear();
+      // the pool is reused by subsequent load calls
+      assertTests(loader);
+    }
+  }
+
+  @Test
+  public void testLoad_parallelCreatesTestsOnCallingThread() {
+    ConstructorThreads.THREADS.clear();
+    try (TestLoader loader =
+        new TestLoader(getClass().getClassLoader(), true, 4, false, null, this::failed)) {
+      loader.load(Arrays.asList(entry(ConstructorThreads.class, TestClassKind.JUNIT3),
+          entry(ConstructorThreads.class, TestClassKind.UNKNOWN),
+          entry(ConstructorThreads.class, TestClassKind.JUNIT3)));
+    }
+    assertEquals(6, ConstructorThreads.THREADS.size());
+    for (Thread thread : ConstructorThreads.THREADS) {
+      assertEquals(Thread.currentThread(), thread);
+    }
+  }
+
+  @Test
+  public void testLoad_abstractNotSkipped() throws Exception {
+    TestLoader loader =
+        new TestLoader(getClass().getClassLoader(), false, 1, false, null, this::failed);
+    assertTrue(loader.createTest(entry(TestClassClassifierTest.AbstractCase.class,
+        TestClassKind.UNKNOWN)) instanceof TestSuite);
+  }
+
+  @Test
+  public void testLoad_sharded() {
+    TestSharding sharding = TestSharding.of(2, 2, TestSharding.Mode.ROUNDROBIN);
+    TestLoader loader =
+        new TestLoader(getClass().getClassLoader(), true, 4, false, sharding, this::failed);
+    List<junit.framework.Test> tests = loader.load(Arrays.asList(
+        entry(NetReiniJunitTest.class, TestClassKind.JUNIT4),
+        new TestClassEntry("net.reini.junit.NonExisting", TestClassKind.UNKNOWN),
+        entry(TestClassClassifierTest.Junit3Case.class, TestClassKind.UNKNOWN),
+        entry(TestLoaderTest.class, TestClassKind.UNKNOWN)));
+
+    assertEquals(4, tests.size());
+    assertNull(tests.get(0));
+    assertNull(tests.get(1));
+    assertNull(tests.get(2));
+    assertEquals(TestLoaderTest.class, ((JUnit4TestAdapter) tests.get(3)).getTestClass());
+    assertEquals(Arrays.asList("net.reini.junit.NonExisting"), failures);
+  }
+
+  @Test
+  public void testCreateTest_junit3Methods() {
+    TestSuite suite = (TestSuite) TestLoader.createTest(ParallelTestSuiteTest.Junit3Fixture.class,
+        TestClassKind.JUNIT3, methods("testSecond"));
+
+    assertEquals(ParallelTestSuiteTest.Junit3Fixture.class.getName(), suite.getName());
+    assertEquals(1, suite.testCount());
+    assertEquals("testSecond", ((TestCase) suite.testAt(0)).getName());
+  }
+
+  @Test
+  public void testCreateTest_junit3UnknownMethods() {
+    assertEquals(new TestSuite(ParallelTestSuiteTest.Junit3Fixture.class).countTestCases(),
+        TestLoader.createTest(ParallelTestSuiteTest.Junit3Fixture.class, TestClassKind.JUNIT3,
+            methods("missing")).countTestCases());
+    assertEquals(new TestSuite(ParallelTestSuiteTest.Junit3Fixture.class).countTestCases(),
+        TestLoader.createTest(ParallelTestSuiteTest.Junit3Fixture.class, TestClassKind.JUNIT3,
+            methods("missing", "testSecond")).countTestCases());
+  }
+
+  @Test
+  public void testCreateTest_junit4Methods() {
+    JUnit4TestAdapter adapter = (JUnit4TestAdapter) TestLoader.createTest(TestLoaderTest.class,
+        TestClassKind.JUNIT4, methods("testSevere_error"));
+
+    assertEquals(1, adapter.countTestCases());
+  }
+
+  @Test
+  public void testCreateTest_junit4UnknownMethods() {
+    assertEquals(new JUnit4TestAdapter(TestLoaderTest.class).countTestCases(),
+        TestLoader.createTest(TestLoaderTest.class, TestClassKind.JUNIT4, methods("missing"))
+            .countTestCases());
+    assertEquals(new JUnit4TestAdapter(TestLoaderTest.class).countTestCases(),
+        TestLoader.createTest(TestLoaderTest.class, TestClassKind.JUNIT4,
+            methods("testSevere_error", "missing")).countTestCases());
+  }
+
+  @Test
+  public void testLoad_lazyMethods() {
+    TestLoader loader =
+        new TestLoader(getClass().getClassLoader(), true, 1, true, null, this::failed);
+    List<junit.framework.Test> tests = loader.load(Arrays.asList(
+        new TestClassEntry(ParallelTestSuiteTest.Junit3Fixture.class.getName(),
+            TestClassKind.UNKNOWN, methods("testFirst"))));
+
+    assertTrue(tests.get(0) instanceof LazyTest);
+    assertEquals(1, tests.get(0).countTestCases());
+  }
+
+  @Test(expected = NoClassDefFoundError.class)
+  public void testSevere_error() {
+    TestLoader.severe(null).failed("some.Class", new NoClassDefFoundError());
+  }
+
+  private void assertTests(TestLoader loader) {
+    List<junit.framework.Test> tests = loader.load(Arrays.asList(
+        entry(NetReiniJunitTest.class, TestClassKind.JUNIT4),
+        new TestClassEntry("net.reini.junit.NonExisting", TestClassKind.UNKNOWN),
+        entry(TestClassClassifierTest.Junit3Case.class, TestClassKind.UNKNOWN),
+        entry(TestClassClassifierTest.AbstractCase.class, TestClassKind.UNKNOWN),
+        entry(TestClassClassifierTest.PlainCase.class, TestClassKind.NONE),
+        entry(TestLoaderTest.class, TestClassKind.UNKNOWN)));
+
+    assertEquals(6, tests.size());
+    assertEquals(NetReiniJunitTest.class, ((JUnit4TestAdapter) tests.get(0)).getTestClass());
+    assertNull(tests.get(1));
+    assertTrue(tests.get(2) instanceof TestSuite);
+    assertNull(tests.get(3));
+    assertNull(tests.get(4));
+    assertEquals(TestLoaderTest.class, ((JUnit4TestAdapter) tests.get(5)).getTestClass());
+    assertEquals(Arrays.asList("net.reini.junit.NonExisting"), failures);
+  }
+
+  public static class ConstructorThreads extends TestCase {
+    static final List<Thread> THREADS = new CopyOnWriteArrayList<>();
+
+    public ConstructorThreads() {
+      THREADS.add(Thread.currentThread());
+    }
+
+    public void testFirst() {
+    }
+
+    public void testSecond() {
+    }
+  }
+
+  private void failed(String className, Throwable failure) {
+    assertTrue(failure instanceof ClassNotFoundException);
+    failures.add(className);
+  }
+
+  private static Set<String> methods(String... methodNames) {
+    return new LinkedHashSet<>(Arrays.asList(methodNames));
+  }
+
+  private static TestClassEntry entry(Class<?> testClass, TestClassKind kind) {
+    return new TestClassEntry(testClass.getName(), kind);
+  }
+}
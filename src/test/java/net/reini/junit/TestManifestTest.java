@@ -0,0 +1,207 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import net.reini.junit.TestManifest.Resolution;
+import net.reini.junit.pkg1.NetReiniJunitPkg1_FirstTest;
+import net.reini.junit.pkg1.NetReiniJunitPkg1_SecondTest;
+import net.reini.junit.pkg2.NetReiniJunitPkg2Test;
+
+public class TestManifestTest {
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private Logger logger;
+  private Path manifestFile;
+
+  @Before
+  public void setUp() throws Exception {
+    logger = Logger.getLogger(TestManifestTest.class.getName());
+    manifestFile = tempFolder.getRoot().toPath().resolve("customtests");
+  }
+
+  @Test
+  public void testRead() throws Exception {
+    write(manifestFile, "# some comment", "", "  a.FirstTest  ", "a.SecondTest#testOne",
+        "jython/some_test.py", "a.pkg.*");
+
+    assertEquals(Arrays.asList("a.FirstTest", "a.SecondTest#testOne", "a.pkg.*"),
+        TestManifest.read(manifestFile, logger).lines());
+  }
+
+  @Test
+  public void testRead_include() throws Exception {
+    Path common = Files.createDirectories(manifestFile.resolveSibling("common"));
+    write(manifestFile, "a.FirstTest", "@include common/included", "a.LastTest");
+    write(common.resolve("included"), "b.SomeTest", "@include ../customtests",
+        "@include other");
+    write(common.resolve("other"), "c.OtherTest");
+
+    assertEquals(Arrays.asList("a.FirstTest", "b.SomeTest", "c.OtherTest", "a.LastTest"),
+        TestManifest.read(manifestFile, logger).lines());
+  }
+
+  @Test
+  public void testDigest() throws Exception {
+    Path included = manifestFile.resolveSibling("included");
+    write(manifestFile, "@include included");
+    write(included, "a.FirstTest");
+    byte[] digest = TestManifest.read(manifestFile, logger).digest();
+    assertTrue(Arrays.equals(digest, TestManifest.read(manifestFile, logger).digest()));
+
+    write(included, "a.SecondTest");
+    assertFalse(Arrays.equals(digest, TestManifest.read(manifestFile, logger).digest()));
+  }
+
+  @Test
+  public void testResolve() throws Exception {
+    write(manifestFile, "a.FirstTest#testOne", "a.SecondTest", "a.FirstTest#testTwo",
+        "a.SecondTest#testOne");
+
+    List<TestClassEntry> entries =
+        TestManifest.read(manifestFile, logger).resolve(getClass().getClassLoader(), null, logger);
+    assertEquals(2, entries.size());
+    assertEquals("a.FirstTest", entries.get(0).className);
+    assertEquals(TestClassKind.UNKNOWN, entries.get(0).kind);
+    assertEquals(Arrays.asList("testOne", "testTwo"), Arrays.asList(
+        entries.get(0).methodNames.toArray()));
+    assertEquals("a.SecondTest", entries.get(1).className);
+    assertNull(entries.get(1).methodNames);
+  }
+
+  @Test
+  public void testResolve_packageWildcards() throws Exception {
+    write(manifestFile, "net.reini.junit.pkg1.*", "net.reini.junit.pkg2.**");
+    List<TestClassEntry> entries =
+        TestManifest.read(manifestFile, logger).resolve(getClass().getClassLoader(), null, logger);
+    assertEquals(Arrays.asList(NetReiniJunitPkg1_FirstTest.class.getName(),
+        NetReiniJunitPkg1_SecondTest.class.getName(), NetReiniJunitPkg2Test.class.getName()),
+        classNames(entries));
+    assertEquals(TestClassKind.JUNIT4, entries.get(0).kind);
+  }
+
+  @Test
+  public void testResolve_recursiveWildcard() throws Exception {
+    write(manifestFile, "net.reini.junit.**");
+    List<String> classNames = classNames(TestManifest.read(manifestFile, logger)
+        .resolve(getClass().getClassLoader(), null, logger));
+    assertTrue(classNames.contains(NetReiniJunitPkg2Test.class.getName()));
+    assertTrue(classNames.contains(TestManifestTest.class.getName()));
+    assertFalse(classNames.contains(TestManifest.class.getName()));
+  }
+
+  @Test
+  public void testResolve_cache() throws Exception {
+    Path cacheDir = tempFolder.getRoot().toPath().resolve("cache");
+    write(manifestFile, "net.reini.junit.pkg1.*", "a.FirstTest#testOne");
+    TestManifest manifest = TestManifest.read(manifestFile, logger);
+    List<TestClassEntry> entries = manifest.resolve(getClass().getClassLoader(), cacheDir, logger);
+
+    Path[] cacheFiles = Files.list(cacheDir).toArray(Path[]::new);
+    assertEquals(1, cacheFiles.length);
+    assertEquals(manifest.cacheFileName(), cacheFiles[0].getFileName().toString());
+    List<TestClassEntry> cached = TestManifest.readCache(cacheFiles[0], manifest.cacheKey(),
+        getClass().getClassLoader(), logger);
+    assertNotNull(cached);
+    assertEquals(classNames(entries), classNames(cached));
+    assertEquals(TestClassKind.JUNIT4, cached.get(0).kind);
+    assertEquals(Collections.singleton("testOne"), cached.get(2).methodNames);
+    assertEquals(classNames(entries),
+        classNames(manifest.resolve(getClass().getClassLoader(), cacheDir, logger)));
+
+    assertNull(TestManifest.readCache(cacheFiles[0], new byte[32], getClass().getClassLoader(),
+        logger));
+
+    // the changed manifest replaces the cache file of the previous content
+    write(manifestFile, "net.reini.junit.pkg2.*");
+    TestManifest.read(manifestFile, logger).resolve(getClass().getClassLoader(), cacheDir,
+        logger);
+    assertEquals(1, Files.list(cacheDir).count());
+  }
+
+  @Test
+  public void testReadCache_changedDirectory() throws Exception {
+    Path cacheFile = tempFolder.getRoot().toPath().resolve("cache.testmanifest");
+    Path directory = tempFolder.newFolder("classes").toPath();
+    write(manifestFile, "net.reini.junit.pkg1.*");
+    TestManifest manifest = TestManifest.read(manifestFile, logger);
+    Resolution resolution = manifest.resolve(getClass().getClassLoader());
+    resolution.watched.put(directory, Files.readAttributes(directory, BasicFileAttributes.class));
+    TestManifest.writeCache(cacheFile, manifest.cacheKey(), resolution);
+    ClassLoader loader = getClass().getClassLoader();
+    assertNotNull(TestManifest.readCache(cacheFile, manifest.cacheKey(), loader, logger));
+
+    Files.setLastModifiedTime(directory,
+        FileTime.fromMillis(Files.getLastModifiedTime(directory).toMillis() - 10_000));
+    assertNull(TestManifest.readCache(cacheFile, manifest.cacheKey(), loader, logger));
+  }
+
+  @Test
+  public void testReadCache_changedSuperClass() throws Exception {
+    Path cacheFile = tempFolder.getRoot().toPath().resolve("cache.testmanifest");
+    write(manifestFile, "net.reini.junit.pkg1.*");
+    TestManifest manifest = TestManifest.read(manifestFile, logger);
+    ClassLoader loader = getClass().getClassLoader();
+    Resolution resolution = manifest.resolve(loader);
+    String superName = TestScanIndexTest.BaseCase.class.getName().replace('.', '/');
+    resolution.superClasses.put(superName,
+        Long.valueOf(new TestClassClassifier(loader).fingerprint(superName)));
+    TestManifest.writeCache(cacheFile, manifest.cacheKey(), resolution);
+    assertNotNull(TestManifest.readCache(cacheFile, manifest.cacheKey(), loader, logger));
+
+    resolution.superClasses.put(superName, Long.valueOf(42));
+    TestManifest.writeCache(cacheFile, manifest.cacheKey(), resolution);
+    assertNull(TestManifest.readCache(cacheFile, manifest.cacheKey(), loader, logger));
+  }
+
+  private static List<String> classNames(List<TestClassEntry> entries) {
+    return Arrays.asList(entries.stream().map(entry -> entry.className).toArray(String[]::new));
+  }
+
+  private static void write(Path file, String... lines) throws Exception {
+    Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+  }
+}
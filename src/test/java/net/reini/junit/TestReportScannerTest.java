@@ -0,0 +1,118 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestReportScannerTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testScan() throws XMLStreamException {
+    List<String> failed = scan("<testsuites><testsuite name=\"a.FirstTest\">"
+        + "<testcase classname=\"a.FirstTest\" name=\"one\"/>"
+        + "<testcase classname=\"a.FirstTest\" name=\"two\"><failure message=\"x\">trace"
+        + "</failure></testcase>"
+        + "<testcase classname=\"a.SecondTest\" name=\"one\"><system-out>out</system-out>"
+        + "</testcase>"
+        + "<testcase classname=\"a.ThirdTest\" name=\"one\"><error type=\"y\"/></testcase>"
+        + "<testcase classname=\"a.FourthTest\" name=\"one\"><skipped/></testcase>"
+        + "</testsuite><testsuite name=\"b.FifthTest\">"
+        + "<testcase name=\"one\"><error/></testcase>"
+        + "</testsuite></testsuites>");
+
+    assertEquals(Arrays.asList("a.FirstTest#two", "a.ThirdTest#one", "b.FifthTest#one"), failed);
+  }
+
+  @Test
+  public void testScan_nestedFailureElement() throws XMLStreamException {
+    assertEquals(Collections.emptyList(),
+        scan("<testsuite><testcase classname=\"a.FirstTest\" name=\"one\">"
+            + "<system-out><failure/></system-out></testcase></testsuite>"));
+  }
+
+  @Test
+  public void testResolve_file() throws IOException {
+    Path reportFile = folder.newFile("TEST-a.xml").toPath();
+
+    assertEquals(Arrays.asList(reportFile), TestReportScanner.resolve(reportFile.toString()));
+  }
+
+  @Test
+  public void testResolve_missing() throws IOException {
+    assertEquals(Collections.emptyList(),
+        TestReportScanner.resolve(folder.getRoot().toPath().resolve("missing.xml").toString()));
+  }
+
+  @Test
+  public void testResolve_directory() throws IOException {
+    Path root = folder.getRoot().toPath();
+    Path second = Files.createFile(Files.createDirectory(root.resolve("sub")).resolve("b.xml"));
+    Path first = Files.createFile(root.resolve("a.xml"));
+    Files.createFile(root.resolve("c.txt"));
+
+    assertEquals(Arrays.asList(first, second), TestReportScanner.resolve(root.toString()));
+  }
+
+  @Test
+  public void testResolve_glob() throws IOException {
+    Path root = folder.getRoot().toPath();
+    Path sub = Files.createDirectory(root.resolve("sub"));
+    Path first = Files.createFile(sub.resolve("TEST-a.xml"));
+    Path deep = Files.createDirectory(sub.resolve("deep"));
+    Path second = Files.createFile(deep.resolve("TEST-b.xml"));
+    Files.createFile(sub.resolve("other.xml"));
+    Files.createFile(root.resolve("TEST-c.xml"));
+
+    String base = root.toString() + root.getFileSystem().getSeparator();
+    assertEquals(Arrays.asList(first, second),
+        TestReportScanner.resolve(base + "sub" + "/**TEST-*.xml"));
+    assertEquals(Arrays.asList(first), TestReportScanner.resolve(base + "sub/TEST-*.xml"));
+  }
+
+  private static List<String> scan(String content) throws XMLStreamException {
+    List<String> failed = new ArrayList<>();
+    TestReportScanner.scan(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+        (className, methodName) -> failed.add(className + '#' + methodName));
+    return failed;
+  }
+}
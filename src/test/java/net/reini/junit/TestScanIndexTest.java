@@ -0,0 +1,137 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import junit.framework.TestCase;
+import net.reini.junit.TestClassScanner.PackageNode;
+
+public class TestScanIndexTest {
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private Path root;
+  private Path indexFile;
+  private Path classFile;
+
+  @Before
+  public void setUp() throws Exception {
+    root = tempFolder.newFolder("classes").toPath();
+    indexFile = root.resolveSibling("classes.testindex");
+    classFile = Files.createDirectories(root.resolve("pkg")).resolve("SomeTest.class");
+    Files.write(classFile, classBytes(TestScanIndexTest.class));
+  }
+
+  @Test
+  public void testScan_unchanged() throws Exception {
+    assertEquals(TestClassKind.JUNIT4, scan().packages.get(0).classes.get(0).kind);
+    FileTime modified = Files.getLastModifiedTime(classFile);
+    // same size and modification time but unreadable content
+    Files.write(classFile, new byte[(int) Files.size(classFile)]);
+    Files.setLastModifiedTime(classFile, modified);
+
+    TestScanIndex index = TestScanIndex.load(indexFile, root);
+    assertEquals(TestClassKind.JUNIT4, index.get("pkg").files.get("SomeTest.class").kind);
+    assertEquals(TestClassKind.JUNIT4, scan().packages.get(0).classes.get(0).kind);
+  }
+
+  @Test
+  public void testScan_changed() throws Exception {
+    assertEquals(1, scan().packages.get(0).classes.size());
+    Files.write(classFile, classBytes(TestScanIndex.class));
+
+    assertTrue(scan().packages.get(0).classes.isEmpty());
+    assertEquals(TestClassKind.NONE,
+        TestScanIndex.load(indexFile, root).get("pkg").files.get("SomeTest.class").kind);
+  }
+
+  @Test
+  public void testScan_superClassChanged() throws Exception {
+    Files.write(classFile, classBytes(SubCase.class));
+    Path baseClasses = tempFolder.newFolder("base").toPath();
+    Path baseFile = Files.createDirectories(baseClasses.resolve("net/reini/junit"))
+        .resolve("TestScanIndexTest$BaseCase.class");
+    Files.write(baseFile, classBytes(BaseCase.class));
+    try (URLClassLoader loader =
+        new URLClassLoader(new URL[] {baseClasses.toUri().toURL()}, null)) {
+      assertEquals(TestClassKind.JUNIT3, scan(loader).packages.get(0).classes.get(0).kind);
+      // the base class no longer extends TestCase
+      Files.write(baseFile, classBytes(PlainBase.class));
+    }
+    try (URLClassLoader loader =
+        new URLClassLoader(new URL[] {baseClasses.toUri().toURL()}, null)) {
+      assertTrue(scan(loader).packages.get(0).classes.isEmpty());
+    }
+  }
+
+  @Test
+  public void testLoad_otherRoot() throws Exception {
+    scan();
+    assertEquals(null, TestScanIndex.load(indexFile, root.resolve("pkg")).get("pkg"));
+  }
+
+  private PackageNode scan() throws Exception {
+    return scan(getClass().getClassLoader());
+  }
+
+  private PackageNode scan(ClassLoader loader) throws Exception {
+    TestScanIndex index = TestScanIndex.load(indexFile, root);
+    PackageNode node = new TestClassScanner(ForkJoinPool.commonPool(),
+        new TestClassClassifier(loader), index).scan(root, "");
+    index.store("");
+    return node;
+  }
+
+  private static byte[] classBytes(Class<?> type) throws Exception {
+    String fileName = type.getName().substring(type.getName().lastIndexOf('.') + 1);
+    try (InputStream in = type.getResourceAsStream(fileName.concat(".class"))) {
+      return in.readAllBytes();
+    }
+  }
+
+  public static class BaseCase extends TestCase {
+  }
+
+  public static class SubCase extends BaseCase {
+  }
+
+  public static class PlainBase {
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class TestSelectionTest {
+  @Test
+  public void testAdd() {
+    TestSelection failedTests = new TestSelection();
+    failedTests.add("a.FirstTest", "one");
+    failedTests.add("a.SecondTest", null);
+    failedTests.add("a.FirstTest", "two");
+    failedTests.add("a.FirstTest", "one");
+    failedTests.add("a.SecondTest", "one");
+
+    assertEquals(Arrays.asList("a.FirstTest", "a.SecondTest"),
+        new ArrayList<>(failedTests.classNames()));
+    assertEquals(Arrays.asList("one", "two"),
+        new ArrayList<>(failedTests.methodNames("a.FirstTest")));
+    assertNull(failedTests.methodNames("a.SecondTest"));
+  }
+
+  @Test
+  public void testAddAll() {
+    TestSelection first = new TestSelection();
+    first.add("a.FirstTest", "one");
+    first.add("a.SecondTest", "one");
+    TestSelection second = new TestSelection();
+    second.add("a.ThirdTest", "one");
+    second.add("a.FirstTest", null);
+    second.add("a.SecondTest", "two");
+    first.addAll(second);
+
+    assertEquals(Arrays.asList("a.FirstTest", "a.SecondTest", "a.ThirdTest"),
+        new ArrayList<>(first.classNames()));
+    assertNull(first.methodNames("a.FirstTest"));
+    assertEquals(Arrays.asList("one", "two"),
+        new ArrayList<>(first.methodNames("a.SecondTest")));
+  }
+}
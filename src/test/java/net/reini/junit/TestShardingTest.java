@@ -0,0 +1,204 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+import junit.framework.JUnit4TestAdapter;
+import junit.framework.TestSuite;
+
+public class TestShardingTest {
+  @After
+  public void tearDown() {
+    System.clearProperty(TestSharding.SHARD_PROPERTY);
+    System.clearProperty(TestSharding.MODE_PROPERTY);
+  }
+
+  @Test
+  public void testSelect_hash() {
+    List<String> classNames = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      classNames.add("net.reini.junit.Some" + i + "Test");
+    }
+    assertPartition(classNames, shards(3, TestSharding.Mode.HASH));
+    assertArrayEquals(shards(3, TestSharding.Mode.HASH)[1].select(classNames.subList(10, 20)),
+        Arrays.copyOfRange(shards(3, TestSharding.Mode.HASH)[1].select(classNames), 10, 20));
+  }
+
+  @Test
+  public void testSelect_roundRobin() {
+    TestSharding[] shards = shards(3, TestSharding.Mode.ROUNDROBIN);
+    List<String> classNames = Arrays.asList("a", "b", "c", "d");
+    assertArrayEquals(new boolean[] {true, false, false, true}, shards[0].select(classNames));
+    assertArrayEquals(new boolean[] {false, true, false, false}, shards[1].select(classNames));
+    assertArrayEquals(new boolean[] {false, false, true, false}, shards[2].select(classNames));
+  }
+
+  @Test
+  public void testSelect_duration() {
+    Map<String, Double> durations = new HashMap<>();
+    durations.put("a", Double.valueOf(10));
+    durations.put("b", Double.valueOf(6));
+    durations.put("c", Double.valueOf(5));
+    durations.put("d", Double.valueOf(4));
+    durations.put("e", Double.valueOf(1));
+    List<String> classNames = Arrays.asList("a", "b", "c", "d", "e", "unknown");
+
+    // a=10 e=1 | b=6 d=4 | unknown=5.2 c=5
+    assertArrayEquals(new boolean[] {true, false, false, false, true, false},
+        TestSharding.byDuration(1, 3, durations).select(classNames));
+    assertArrayEquals(new boolean[] {false, true, false, true, false, false},
+        TestSharding.byDuration(2, 3, durations).select(classNames));
+    assertArrayEquals(new boolean[] {false, false, true, false, false, true},
+        TestSharding.byDuration(3, 3, durations).select(classNames));
+  }
+
+  @Test
+  public void testSelect_durationUnknown() {
+    TestSharding[] shards = shards(2, TestSharding.Mode.DURATION);
+    List<String> classNames = Arrays.asList("a", "b", "c", "d");
+    assertArrayEquals(new boolean[] {true, false, true, false}, shards[0].select(classNames));
+    assertPartition(classNames, shards);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOf_invalid() {
+    TestSharding.of(0, 2, TestSharding.Mode.HASH);
+  }
+
+  @Test
+  public void testFromSystemProperties() {
+    assertNull(TestSharding.fromSystemProperties());
+
+    System.setProperty(TestSharding.SHARD_PROPERTY, "2/3");
+    assertSame(TestSharding.Mode.HASH, TestSharding.fromSystemProperties().getMode());
+
+    System.setProperty(TestSharding.MODE_PROPERTY, "round-robin");
+    TestSharding sharding = TestSharding.fromSystemProperties();
+    assertSame(TestSharding.Mode.ROUNDROBIN, sharding.getMode());
+    assertArrayEquals(new boolean[] {false, true, false},
+        sharding.select(Arrays.asList("a", "b", "c")));
+
+    System.setProperty(TestSharding.MODE_PROPERTY, "duration");
+    assertSame(TestSharding.Mode.DURATION, TestSharding.fromSystemProperties().getMode());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFromSystemProperties_invalid() {
+    System.setProperty(TestSharding.SHARD_PROPERTY, "4/3");
+    TestSharding.fromSystemProperties();
+  }
+
+  @Test
+  public void testSlice() {
+    TestSuite suite = new TestSuite("root");
+    TestSuite packageSuite = new TestSuite("net.reini.junit");
+    packageSuite.addTest(new JUnit4TestAdapter(NetReiniJunitTest.class));
+    packageSuite.addTest(new TestSuite(TestClassClassifierTest.Junit3Case.class));
+    suite.addTest(packageSuite);
+    suite.addTest(new JUnit4TestAdapter(TestShardingTest.class));
+
+    List<String> classNames = new ArrayList<>();
+    for (TestSharding shard : shards(2, TestSharding.Mode.ROUNDROBIN)) {
+      collect(shard.slice(suite), classNames);
+    }
+    assertEquals(3, classNames.size());
+    assertEquals(NetReiniJunitTest.class.getName(), classNames.get(0));
+    assertEquals(TestShardingTest.class.getName(), classNames.get(1));
+    assertEquals(TestClassClassifierTest.Junit3Case.class.getName(), classNames.get(2));
+  }
+
+  @Test
+  public void testLegacyBuild_shardsWholeTree() throws Exception {
+    File baseDir = new File(
+        TestShardingTest.class.getResource("/RecursiveTestSuiteBuilderTest.class").toURI())
+            .getParentFile();
+    System.setProperty(TestSharding.MODE_PROPERTY, "round-robin");
+    int[] counts = new int[2];
+    List<String> classNames = new ArrayList<>();
+    for (int i = 0; i < counts.length; i++) {
+      System.setProperty(TestSharding.SHARD_PROPERTY, (i + 1) + "/2");
+      TestSuite suite = new TestSuite("shard");
+      RecursiveTestSuiteBuilder.build(baseDir.getAbsolutePath().length(), "", baseDir,
+          RecursiveTestSuiteBuilder.getFilenameFilter(), suite);
+      int start = classNames.size();
+      collect(suite, classNames);
+      counts[i] = classNames.size() - start;
+    }
+    // the round robin assignment spans all directories
+    assertTrue(Arrays.toString(counts), Math.abs(counts[0] - counts[1]) <= 1);
+    assertEquals(classNames.size(), classNames.stream().distinct().count());
+  }
+
+  private static void collect(TestSuite suite, List<String> classNames) {
+    for (Enumeration<junit.framework.Test> tests = suite.tests(); tests.hasMoreElements();) {
+      junit.framework.Test test = tests.nextElement();
+      if (test instanceof TestSuite && !TestSharding.isTestClassSuite((TestSuite) test)) {
+        assertTrue(test.countTestCases() > 0);
+        collect((TestSuite) test, classNames);
+      } else {
+        classNames.add(TestSharding.className(test));
+      }
+    }
+  }
+
+  private static void assertPartition(List<String> classNames, TestSharding[] shards) {
+    int[] accepted = new int[classNames.size()];
+    for (TestSharding shard : shards) {
+      boolean[] selected = shard.select(classNames);
+      for (int i = 0; i < selected.length; i++) {
+        if (selected[i]) {
+          accepted[i]++;
+        }
+      }
+    }
+    for (int i = 0; i < accepted.length; i++) {
+      assertEquals(classNames.get(i), 1, accepted[i]);
+    }
+  }
+
+  private static TestSharding[] shards(int count, TestSharding.Mode mode) {
+    TestSharding[] shards = new TestSharding[count];
+    for (int i = 0; i < count; i++) {
+      shards[i] = TestSharding.of(i + 1, count, mode);
+    }
+    return shards;
+  }
+}
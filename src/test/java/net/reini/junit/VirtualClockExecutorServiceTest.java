@@ -0,0 +1,160 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class VirtualClockExecutorServiceTest {
+  private final VirtualClockExecutorService executor = VirtualClockExecutorService.create();
+  private final List<String> events = new ArrayList<>();
+
+  @Test
+  public void testAdvanceBy() throws Exception {
+    executor.schedule(() -> event("b"), 2, TimeUnit.SECONDS);
+    ScheduledFuture<String> future = executor.schedule(() -> event("a"), 1, TimeUnit.SECONDS);
+    executor.schedule(() -> event("c"), 2, TimeUnit.SECONDS);
+    ScheduledFuture<?> pending = executor.schedule(() -> event("d"), 1, TimeUnit.HOURS);
+
+    assertEquals(0, executor.runUntilIdle());
+    assertEquals(3, executor.advanceBy(Duration.ofSeconds(2)));
+    assertEquals(Arrays.asList("a@1", "b@2", "c@2"), events);
+    assertEquals("a@1", future.get());
+    assertEquals(Instant.ofEpochSecond(2), executor.now());
+    assertEquals(1, executor.getQueuedCount());
+    assertEquals(3598, pending.getDelay(TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testAdvanceBy_saturated() {
+    executor.advanceBy(Duration.ofSeconds(1));
+    executor.schedule(() -> event("never"), Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+    assertEquals(0, executor.advanceBy(Duration.ofSeconds(1)));
+    assertEquals(1, executor.getQueuedCount());
+    assertEquals(1, executor.advanceBy(Duration.ofSeconds(Long.MAX_VALUE)));
+    assertEquals(Instant.EPOCH.plusNanos(Long.MAX_VALUE), executor.now());
+  }
+
+  @Test
+  public void testAdvanceBy_forever() {
+    executor.scheduleAtFixedRate(() -> event("fixed"), 0, 36500, TimeUnit.DAYS);
+    executor.scheduleWithFixedDelay(() -> event("delay"), 0, 36500, TimeUnit.DAYS);
+
+    assertEquals(6, executor.advanceBy(ChronoUnit.FOREVER.getDuration()));
+    assertEquals(0, executor.getQueuedCount());
+    assertEquals(Instant.EPOCH.plusNanos(Long.MAX_VALUE), executor.now());
+  }
+
+  @Test
+  public void testRunUntilIdle_nested() {
+    executor.execute(() -> {
+      event("outer");
+      executor.execute(() -> event("inner"));
+      executor.schedule(() -> event("later"), 1, TimeUnit.MILLISECONDS);
+    });
+
+    assertEquals(2, executor.runUntilIdle());
+    assertEquals(Arrays.asList("outer@0", "inner@0"), events);
+    assertEquals(1, executor.advanceBy(Duration.ofMillis(1)));
+  }
+
+  @Test
+  public void testScheduleAtFixedRate() {
+    ScheduledFuture<?> future =
+        executor.scheduleAtFixedRate(() -> event("rate"), 1, 2, TimeUnit.SECONDS);
+    executor.scheduleWithFixedDelay(() -> event("delay"), 0, 3, TimeUnit.SECONDS);
+
+    executor.advanceBy(Duration.ofSeconds(6));
+    assertEquals(Arrays.asList("delay@0", "rate@1", "rate@3", "delay@3", "rate@5", "delay@6"),
+        events);
+
+    future.cancel(false);
+    events.clear();
+    executor.advanceBy(Duration.ofSeconds(3));
+    assertEquals(Arrays.asList("delay@9"), events);
+  }
+
+  @Test
+  public void testClock() {
+    VirtualClockExecutorService started =
+        VirtualClockExecutorService.create(Instant.parse("2020-01-01T00:00:00Z"), ZoneOffset.UTC);
+    started.advanceBy(Duration.ofMinutes(90));
+
+    assertEquals(Instant.parse("2020-01-01T01:30:00Z"), started.getClock().instant());
+    assertEquals(ZoneOffset.UTC, started.getClock().getZone());
+    assertEquals(started.getClock().millis(),
+        started.getClock().withZone(ZoneOffset.ofHours(1)).millis());
+  }
+
+  @Test
+  public void testShutdown() {
+    executor.schedule(() -> event("pending"), 1, TimeUnit.SECONDS);
+    executor.scheduleAtFixedRate(() -> event("rate"), 0, 1, TimeUnit.SECONDS);
+    executor.runUntilIdle();
+    executor.shutdown();
+
+    assertTrue(executor.isShutdown());
+    assertFalse(executor.isTerminated());
+    assertEquals(2, executor.advanceBy(Duration.ofSeconds(1)));
+    assertTrue(executor.isTerminated());
+    assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+    assertEquals(Arrays.asList("rate@0", "pending@1", "rate@1"), events);
+  }
+
+  @Test
+  public void testShutdownNow() {
+    executor.schedule(() -> event("pending"), 1, TimeUnit.SECONDS);
+
+    assertEquals(1, executor.shutdownNow().size());
+    assertTrue(executor.isTerminated());
+  }
+
+  @Test(expected = RejectedExecutionException.class)
+  public void testExecute_afterShutdown() {
+    executor.shutdown();
+    executor.execute(() -> event("rejected"));
+  }
+
+  private String event(String name) {
+    String event = name + '@' + executor.getClock().instant().getEpochSecond();
+    events.add(event);
+    return event;
+  }
+}
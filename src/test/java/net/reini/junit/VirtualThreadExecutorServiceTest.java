@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Patrick Reinhart
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.reini.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class VirtualThreadExecutorServiceTest {
+  @Test
+  public void testExecute_blockingTasks() throws InterruptedException {
+    VirtualThreadExecutorService executor = VirtualThreadExecutorService.create();
+    CountDownLatch started = new CountDownLatch(1000);
+    CountDownLatch release = new CountDownLatch(1);
+    for (int i = 0; i < 1000; i++) {
+      executor.execute(() -> {
+        started.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+    }
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    assertEquals(1000, executor.getActiveCount());
+    executor.shutdown();
+    assertFalse(executor.awaitTermination(10, TimeUnit.MILLISECONDS));
+    assertTrue(executor.isShutdown());
+    assertFalse(executor.isTerminated());
+
+    release.countDown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    assertTrue(executor.isTerminated());
+    assertEquals(0, executor.getActiveCount());
+    assertEquals(1000, executor.getMaxActiveCount());
+    assertEquals(1000, executor.getCompletedCount());
+  }
+
+  @Test(expected = RejectedExecutionException.class)
+  public void testExecute_afterShutdown() {
+    VirtualThreadExecutorService executor = VirtualThreadExecutorService.create();
+    executor.shutdown();
+    executor.execute(() -> fail());
+  }
+
+  @Test
+  public void testShutdownNow() throws InterruptedException {
+    VirtualThreadExecutorService executor = VirtualThreadExecutorService.create();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    executor.execute(() -> {
+      started.countDown();
+      try {
+        new CountDownLatch(1).await();
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+    });
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    assertTrue(executor.shutdownNow().isEmpty());
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testMonitorPinning() throws InterruptedException {
+    VirtualThreadExecutorService executor = VirtualThreadExecutorService.create(true);
+    executor.execute(() -> Thread.onSpinWait());
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    assertEquals(0, executor.getPinnedCount());
+    assertEquals(0, executor.getPinnedTime().toNanos());
+    assertTrue(executor.getCarrierParallelism() > 0);
+  }
+}